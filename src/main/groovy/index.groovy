@@ -0,0 +1,116 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+/*
+ * Writes an index of the ops in the build output directory, so that ops can
+ * be matched at runtime without loading every candidate class.
+ *
+ * Each line of the index describes one op, with tab-separated columns:
+ * class, name, aliases, priority, types (the op class and all its supertypes),
+ * inputs and outputs (as name:type pairs, with optional inputs marked by '?').
+ */
+
+classesDirectory = project.build.outputDirectory
+indexFile = new File(classesDirectory, 'META-INF/imagej/ops.index')
+
+// load the compiled classes together with their dependencies
+urls = project.compileClasspathElements.collect { new File(it).toURI().toURL() }
+loader = new URLClassLoader(urls as URL[], (ClassLoader) null)
+
+def load(name) {
+	return Class.forName(name, true, loader);
+}
+
+/* Gets the names of the given class and all its supertypes. */
+def supertypes(c) {
+	def types = new LinkedHashSet();
+	def queue = [c];
+	while (!queue.isEmpty()) {
+		def t = queue.remove(0);
+		if (t == null || !types.add(t.getName())) continue;
+		queue.add(t.getSuperclass());
+		queue.addAll(t.getInterfaces());
+	}
+	return types;
+}
+
+/* Describes the given module items as a comma-separated list. */
+def items(list) {
+	return list.collect { item ->
+		item.getName() + ':' + item.getType().getName() +
+			(item.isRequired() ? '' : '?')
+	}.join(',');
+}
+
+/* Checks whether the given plugin class was built by this project. */
+def isLocal(className) {
+	return new File(classesDirectory,
+		className.replace('.', '/') + '.class').exists();
+}
+
+def thread = Thread.currentThread();
+def contextLoader = thread.getContextClassLoader();
+thread.setContextClassLoader(loader);
+try {
+	def finder = load('org.scijava.plugin.DefaultPluginFinder').
+		getConstructor(ClassLoader).newInstance(loader);
+	def pluginIndex = load('org.scijava.plugin.PluginIndex').
+		getConstructor(load('org.scijava.plugin.PluginFinder')).newInstance(finder);
+	pluginIndex.discover();
+
+	def infoConstructor = load('org.scijava.command.CommandInfo').
+		getConstructor(load('org.scijava.plugin.PluginInfo'));
+
+	def lines = ['# class\tname\taliases\tpriority\ttypes\tinputs\toutputs'];
+	for (plugin in pluginIndex.getPlugins(load('net.imagej.ops.Op'))) {
+		if (!isLocal(plugin.getClassName())) continue;
+		def info = infoConstructor.newInstance(plugin);
+		def aliases = info.get('aliases') ?: info.get('alias') ?: '';
+		lines.add([
+			info.getClassName(),
+			info.getName() ?: '',
+			aliases,
+			info.getPriority(),
+			supertypes(info.loadClass()).join(','),
+			items(info.inputs()),
+			items(info.outputs())
+		].join('\t'));
+	}
+
+	indexFile.getParentFile().mkdirs();
+	indexFile.setText(lines.join('\n') + '\n', 'UTF-8');
+}
+catch (Throwable t) {
+	t.printStackTrace(System.err);
+	throw t;
+}
+finally {
+	thread.setContextClassLoader(contextLoader);
+}
@@ -30,9 +30,18 @@
 
 package net.imagej.ops;
 
+import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.imagej.ops.OpCandidate.StatusCode;
 
@@ -41,6 +50,7 @@ import org.scijava.InstantiableException;
 import org.scijava.command.CommandInfo;
 import org.scijava.command.CommandService;
 import org.scijava.convert.ConvertService;
+import org.scijava.event.EventHandler;
 import org.scijava.log.LogService;
 import org.scijava.module.Module;
 import org.scijava.module.ModuleInfo;
@@ -48,11 +58,42 @@ import org.scijava.module.ModuleItem;
 import org.scijava.module.ModuleService;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.plugin.event.PluginsAddedEvent;
+import org.scijava.plugin.event.PluginsRemovedEvent;
 import org.scijava.service.AbstractService;
 import org.scijava.service.Service;
+import org.scijava.util.ClassUtils;
+import org.scijava.util.ConversionUtils;
 
 /**
  * Default service for finding {@link Op}s which match a request.
+ * <p>
+ * Available ops are indexed by name (with and without namespace), alias and
+ * type, so that candidates can be found without scanning every op. In
+ * addition, the winning op of each request is remembered per request
+ * signature (name or type, plus the classes of the arguments), so that
+ * repeated requests of the same shape skip the candidate search entirely. The
+ * index and cache are discarded whenever plugins are added or removed.
+ * </p>
+ * <p>
+ * Where available, the build-time {@link OpIndex} is consulted to rule out
+ * candidates by type, number of arguments and argument types, without loading
+ * their classes. The name and type indices are built from it when the service
+ * is initialized; only ops it does not cover are indexed from their plugin
+ * metadata, and checked for each requested type by loading their classes.
+ * </p>
+ * <p>
+ * Requests can be traced individually (see {@link MatchTrace}). Optionally,
+ * every request is traced, and the traces are accumulated into
+ * {@link MatchStatistics} per request signature, to help identify hot or
+ * expensive requests.
+ * </p>
+ * <p>
+ * Optionally, modules whose execution has finished can be {@link #release
+ * released} into a per-thread pool, keyed on request signature, for reuse by
+ * later requests of the same signature; pooled modules are softly referenced
+ * so that they are evicted under memory pressure.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -76,6 +117,59 @@ public class DefaultOpMatchingService extends AbstractService implements
 	@Parameter
 	private LogService log;
 
+	/** Maximum number of request signatures remembered by the match cache. */
+	private static final int MATCH_CACHE_SIZE = 1024;
+
+	/** Ops indexed by name, name without namespace, and aliases. */
+	private volatile Map<String, List<CommandInfo>> nameIndex;
+
+	/** Ops indexed by the types they implement; populated on demand. */
+	private volatile ConcurrentHashMap<Class<?>, List<CommandInfo>> typeIndex;
+
+	/** Indexed ops, keyed on the class names of the types they implement. */
+	private volatile Map<String, List<CommandInfo>> indexedTypes;
+
+	/** Ops not covered by the {@link OpIndex}, in priority order. */
+	private volatile List<CommandInfo> unindexedOps;
+
+	/** Winning ops, keyed on the signature of the request which selected them. */
+	private volatile Map<MatchKey, ModuleInfo> matchCache;
+
+	/** Op metadata precomputed at build time. */
+	private volatile OpIndex opIndex;
+
+	/** Parameter classes named by the {@link OpIndex}; populated on demand. */
+	private volatile ConcurrentHashMap<String, Class<?>> parameterClasses;
+
+	/** Resolved input parameters of each op; populated on demand. */
+	private volatile ConcurrentHashMap<ModuleInfo, OpBinding> bindings;
+
+	/** Released modules of each thread, available for reuse. */
+	private volatile ThreadLocal<ModulePool> pool;
+
+	/** Whether modules are pooled for reuse. */
+	private volatile boolean pooling;
+
+	/** Whether matching statistics are collected. */
+	private volatile boolean collectingStatistics;
+
+	/** Matching statistics, keyed on request signature. */
+	private volatile ConcurrentHashMap<MatchKey, MatchStatistics> statistics;
+
+	/**
+	 * Trace of the request currently being matched on each thread, or null if
+	 * that request is not traced.
+	 */
+	private final ThreadLocal<MatchTrace> currentTrace =
+		new ThreadLocal<MatchTrace>();
+
+	// -- Service methods --
+
+	@Override
+	public void initialize() {
+		initNameIndex();
+	}
+
 	// -- OpMatchingService methods --
 
 	@Override
@@ -85,27 +179,27 @@ public class DefaultOpMatchingService extends AbstractService implements
 
 	@Override
 	public <OP extends Op> Module findModule(final OpRef<OP> ref) {
-		// find candidates with matching name & type
-		final List<OpCandidate<OP>> candidates = findCandidates(ref);
-		if (candidates.isEmpty()) {
-			throw new IllegalArgumentException("No candidate '" + ref.getLabel() +
-				"' ops");
-		}
-
-		// narrow down candidates to the exact matches
-		final List<Module> matches = findMatches(candidates);
+		return findModule(ref, collectingStatistics ? new MatchTrace() : null);
+	}
 
-		if (matches.size() == 1) {
-			// a single match: return it
-			if (log.isDebug()) {
-				log.debug("Selected '" + ref.getLabel() + "' op: " +
-					matches.get(0).getDelegateObject().getClass().getName());
+	@Override
+	public <OP extends Op> Module findModule(final OpRef<OP> ref,
+		final MatchTrace trace)
+	{
+		final MatchKey key = new MatchKey(ref);
+		final MatchTrace outerTrace = currentTrace.get();
+		currentTrace.set(trace);
+		if (trace != null) trace.start(ref);
+		try {
+			return findModule(ref, key, trace);
+		}
+		finally {
+			if (trace != null) {
+				trace.stop();
+				if (collectingStatistics) statistics(key, ref).add(trace);
 			}
-			return matches.get(0);
+			currentTrace.set(outerTrace);
 		}
-
-		final String analysis = OpUtils.matchInfo(candidates, matches);
-		throw new IllegalArgumentException(analysis);
 	}
 
 	@Override
@@ -114,10 +208,8 @@ public class DefaultOpMatchingService extends AbstractService implements
 	{
 		final ArrayList<OpCandidate<OP>> candidates =
 			new ArrayList<OpCandidate<OP>>();
-		for (final CommandInfo info : getOps()) {
-			if (isCandidate(info, ref)) {
-				candidates.add(new OpCandidate<OP>(ref, info));
-			}
+		for (final CommandInfo info : lookup(ref.getName(), ref.getType())) {
+			candidates.add(new OpCandidate<OP>(ref, info));
 		}
 		return candidates;
 	}
@@ -138,6 +230,10 @@ public class DefaultOpMatchingService extends AbstractService implements
 			}
 			priority = p;
 
+			// rule out ops with the wrong number or types of arguments, without
+			// loading them
+			if (!indexMatches(candidate)) continue;
+
 			final Module module = match(candidate);
 
 			if (module != null) matches.add(module);
@@ -162,9 +258,9 @@ public class DefaultOpMatchingService extends AbstractService implements
 
 	@Override
 	public Module assignInputs(final Module module, final Object... args) {
-		int i = 0;
-		for (final ModuleItem<?> item : module.getInfo().inputs()) {
-			assign(module, args[i++], item);
+		final OpBinding binding = binding(module.getInfo());
+		for (int i = 0; i < binding.getInputCount(); i++) {
+			assign(module, args[i], binding, i);
 		}
 		return module;
 	}
@@ -211,15 +307,157 @@ public class DefaultOpMatchingService extends AbstractService implements
 		return paddedArgs;
 	}
 
+	@Override
+	public List<MatchStatistics> getStatistics() {
+		return new ArrayList<MatchStatistics>(statistics().values());
+	}
+
+	@Override
+	public void resetStatistics() {
+		statistics().clear();
+	}
+
+	@Override
+	public boolean isCollectingStatistics() {
+		return collectingStatistics;
+	}
+
+	@Override
+	public void setCollectingStatistics(final boolean collectingStatistics) {
+		this.collectingStatistics = collectingStatistics;
+	}
+
+	@Override
+	public boolean isPooling() {
+		return pooling;
+	}
+
+	@Override
+	public void setPooling(final boolean pooling) {
+		this.pooling = pooling;
+		if (!pooling) pool = null;
+	}
+
+	@Override
+	public void release(final Module module) {
+		if (!pooling) return;
+		pool().get().release(module);
+	}
+
 	// -- Helper methods --
 
-	/** Helper method of {@link #findCandidates}. */
-	private <OP extends Op> boolean isCandidate(final CommandInfo info,
-		final OpRef<OP> ref)
+	/** Helper method of {@link #findModule(OpRef, MatchTrace)}. */
+	private <OP extends Op> Module findModule(final OpRef<OP> ref,
+		final MatchKey key, final MatchTrace trace)
 	{
-		if (!nameMatches(info, ref.getName())) return false;
+		// reuse the previous winner for requests with the same signature
+		final ModuleInfo cached = matchCache().get(key);
+		if (cached != null) {
+			final Module module = match(new OpCandidate<OP>(ref, cached));
+			if (module != null) {
+				if (trace != null) trace.setMatch(module, true);
+				return module;
+			}
+		}
+
+		// find candidates with matching name & type
+		final List<OpCandidate<OP>> candidates = findCandidates(ref);
+		if (trace != null) trace.setCandidates(candidates);
+		if (candidates.isEmpty()) {
+			throw new IllegalArgumentException("No candidate '" + ref.getLabel() +
+				"' ops");
+		}
+
+		// narrow down candidates to the exact matches
+		final List<Module> matches = findMatches(candidates);
+
+		if (matches.size() == 1) {
+			// a single match: return it
+			if (log.isDebug()) {
+				log.debug("Selected '" + ref.getLabel() + "' op: " +
+					matches.get(0).getDelegateObject().getClass().getName());
+			}
+			if (isCacheable(candidates)) {
+				matchCache().put(key, matches.get(0).getInfo());
+			}
+			if (trace != null) trace.setMatch(matches.get(0), false);
+			return matches.get(0);
+		}
+
+		final String analysis = OpUtils.matchInfo(candidates, matches);
+		throw new IllegalArgumentException(analysis);
+	}
+
+	/** Gets the {@link OpBinding} of the given op. */
+	private OpBinding binding(final ModuleInfo info) {
+		final ConcurrentHashMap<ModuleInfo, OpBinding> map = bindings();
+		OpBinding binding = map.get(info);
+		if (binding == null) {
+			final OpBinding newBinding = new OpBinding(info);
+			binding = map.putIfAbsent(info, newBinding);
+			if (binding == null) binding = newBinding;
+		}
+		return binding;
+	}
+
+	/** Gets the statistics for the given request signature. */
+	private MatchStatistics statistics(final MatchKey key, final OpRef<?> ref) {
+		final ConcurrentHashMap<MatchKey, MatchStatistics> stats = statistics();
+		MatchStatistics s = stats.get(key);
+		if (s == null) {
+			final MatchStatistics newStats = new MatchStatistics(ref);
+			s = stats.putIfAbsent(key, newStats);
+			if (s == null) s = newStats;
+		}
+		return s;
+	}
+
+	/**
+	 * Helper method of {@link #findCandidates}. Gets the ops with the given name
+	 * and type, in priority order, using the op indices.
+	 */
+	private List<CommandInfo> lookup(final String name, final Class<?> type) {
+		if (name == null) return type == null ? getOps() : opsOfType(type);
+
+		final List<CommandInfo> named = nameIndex().get(name);
+		if (named == null) return Collections.emptyList();
+		if (type == null) return named;
 
 		// the name matches; now check the class
+		final ArrayList<CommandInfo> infos = new ArrayList<CommandInfo>();
+		for (final CommandInfo info : named) {
+			if (isType(info, type)) infos.add(info);
+		}
+		return infos;
+	}
+
+	/** Gets the ops implementing the given type, in priority order. */
+	private List<CommandInfo> opsOfType(final Class<?> type) {
+		final ConcurrentHashMap<Class<?>, List<CommandInfo>> index = typeIndex();
+		List<CommandInfo> infos = index.get(type);
+		if (infos == null) {
+			final List<CommandInfo> indexed = indexedTypes().get(type.getName());
+			final ArrayList<CommandInfo> list = new ArrayList<CommandInfo>();
+			if (indexed != null) list.addAll(indexed);
+			boolean unindexed = false;
+			for (final CommandInfo info : unindexedOps()) {
+				if (isType(info, type)) {
+					list.add(info);
+					unindexed = true;
+				}
+			}
+			if (unindexed) Collections.sort(list);
+			infos = Collections.unmodifiableList(list);
+			index.put(type, infos);
+		}
+		return infos;
+	}
+
+	/** Checks whether the given op implements the specified type. */
+	private boolean isType(final CommandInfo info, final Class<?> type) {
+		final OpIndex.Entry entry = opIndex().get(info);
+		if (entry != null) return entry.isType(type);
+
 		final Class<?> opClass;
 		try {
 			opClass = info.loadClass();
@@ -228,8 +466,82 @@ public class DefaultOpMatchingService extends AbstractService implements
 			log.error("Invalid op: " + info.getClassName());
 			return false;
 		}
+		return type.isAssignableFrom(opClass);
+	}
+
+	/**
+	 * Checks the number and types of arguments against the {@link OpIndex}, if
+	 * the candidate is indexed. This rules out most mismatches which
+	 * {@link #padArgs} and {@link #typesMatch} would find, but without loading
+	 * the op class.
+	 */
+	private <OP extends Op> boolean indexMatches(
+		final OpCandidate<OP> candidate)
+	{
+		final OpIndex.Entry entry = opIndex().get(candidate.getInfo());
+		if (entry == null) return true; // not indexed; check when matching
+
+		final Object[] args = candidate.getRef().getArgs();
+		final String[] types = entry.getArgumentTypes(args.length);
+		if (types == null) {
+			if (args.length > entry.getInputCount()) {
+				candidate.setStatus(StatusCode.TOO_MANY_ARGS, args.length + " > " +
+					entry.getInputCount());
+			}
+			else {
+				candidate.setStatus(StatusCode.TOO_FEW_ARGS, args.length + " < " +
+					entry.getRequiredCount());
+			}
+			return false;
+		}
 
-		return ref.getType() == null || ref.getType().isAssignableFrom(opClass);
+		for (int i = 0; i < args.length; i++) {
+			// NB: Null arguments are checked against the parameter when matching.
+			if (args[i] == null) continue;
+			final Class<?> type = parameterClass(types[i]);
+			if (type == null || type.isInstance(args[i]) &&
+				!(args[i] instanceof Class)) continue;
+			if (!canConvert(args[i], type)) {
+				candidate.setStatus(StatusCode.CANNOT_CONVERT, args[i].getClass()
+					.getName() + " => " + type.getName());
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the (non-primitive) class of a parameter, by name.
+	 * 
+	 * @return The class, or null if it is not available.
+	 */
+	private Class<?> parameterClass(final String className) {
+		final ConcurrentHashMap<String, Class<?>> map = parameterClasses();
+		Class<?> c = map.get(className);
+		if (c == null) {
+			c = ClassUtils.loadClass(className);
+			// NB: Remember unavailable classes too, using Void as a marker.
+			map.put(className, c == null ? Void.class : ConversionUtils
+				.getNonprimitiveType(c));
+			c = map.get(className);
+		}
+		return c == Void.class ? null : c;
+	}
+
+	/**
+	 * Checks whether the outcome of a match depends only on the signature of the
+	 * request. This is not the case when a {@link Contingent} op rejected the
+	 * arguments, since other arguments of the same types might conform.
+	 */
+	private <OP extends Op> boolean isCacheable(
+		final List<OpCandidate<OP>> candidates)
+	{
+		for (final OpCandidate<OP> candidate : candidates) {
+			if (candidate.getStatusCode() == StatusCode.DOES_NOT_CONFORM) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/** Verifies that the given candidate's module is valid. */
@@ -247,7 +559,7 @@ public class DefaultOpMatchingService extends AbstractService implements
 		if (!typesMatch(candidate, args)) return null;
 
 		// create module and assign the inputs
-		final Module module = createModule(candidate.getInfo(), args);
+		final Module module = createModule(candidate, args);
 		candidate.setModule(module);
 
 		// make sure the op itself is happy with these arguments
@@ -256,6 +568,8 @@ public class DefaultOpMatchingService extends AbstractService implements
 			final Contingent c = (Contingent) op;
 			if (!c.conforms()) {
 				candidate.setStatus(StatusCode.DOES_NOT_CONFORM);
+				final MatchTrace trace = currentTrace.get();
+				if (trace != null) trace.rejected();
 				return null;
 			}
 		}
@@ -271,54 +585,103 @@ public class DefaultOpMatchingService extends AbstractService implements
 	private <OP extends Op> boolean typesMatch(final OpCandidate<OP> candidate,
 		final Object[] args)
 	{
-		int i = 0;
-		for (final ModuleItem<?> item : candidate.getInfo().inputs()) {
-			final Object arg = args[i++];
-			if (!canAssign(candidate, arg, item)) return false;
+		final OpBinding binding = binding(candidate.getInfo());
+		for (int i = 0; i < binding.getInputCount(); i++) {
+			if (!canAssign(candidate, args[i], binding, i)) return false;
 		}
 		return true;
 	}
 
-	/** Helper method of {@link #isCandidate}. */
-	private boolean nameMatches(final ModuleInfo info, final String name) {
-		if (name == null) return true; // not filtering on name
+	/**
+	 * Adds the given op to the name index, under each name by which it can be
+	 * requested: its full name, its name without namespace (e.g., 'add' for
+	 * 'math.add') and its aliases.
+	 */
+	private void index(final Map<String, List<CommandInfo>> index,
+		final CommandInfo info)
+	{
+		indexName(index, info.getName(), info);
 
-		// check if name matches exactly
-		final String infoName = info.getName();
-		if (name.equals(infoName)) return true;
+		// index the alias
+		final String alias = info.get("alias");
+		if (alias != null) index(index, alias, info);
 
-		// check if name matches w/o namespace (e.g., 'add' matches 'math.add')
-		if (infoName != null) {
-			final int dot = infoName.lastIndexOf(".");
-			if (dot >= 0 && name.equals(infoName.substring(dot + 1))) return true;
-		}
+		indexAliases(index, info.get("aliases"), info);
+	}
 
-		// check for an alias
-		final String alias = info.get("alias");
-		if (name.equals(alias)) return true;
+	/**
+	 * As {@link #index(Map, CommandInfo)}, but using the names recorded in the
+	 * op's {@link OpIndex} entry.
+	 */
+	private void index(final Map<String, List<CommandInfo>> index,
+		final OpIndex.Entry entry, final CommandInfo info)
+	{
+		indexName(index, entry.getName(), info);
+		indexAliases(index, entry.getAliases(), info);
+	}
 
-		// check for a list of aliases
-		final String aliases = info.get("aliases");
-		if (aliases != null) {
-			for (final String a : aliases.split(",")) {
-				if (name.equals(a.trim())) return true;
-			}
+	/** Indexes the op under its name, with and without namespace. */
+	private void indexName(final Map<String, List<CommandInfo>> index,
+		final String name, final CommandInfo info)
+	{
+		if (name == null || name.isEmpty()) return;
+		index(index, name, info);
+		final int dot = name.lastIndexOf(".");
+		if (dot >= 0) index(index, name.substring(dot + 1), info);
+	}
+
+	/** Indexes the op under each of the given comma-separated aliases. */
+	private void indexAliases(final Map<String, List<CommandInfo>> index,
+		final String aliases, final CommandInfo info)
+	{
+		if (aliases == null || aliases.isEmpty()) return;
+		for (final String a : aliases.split(",")) {
+			index(index, a.trim(), info);
 		}
+	}
 
-		return false;
+	/** Helper method of {@link #index(Map, CommandInfo)}. */
+	private void index(final Map<String, List<CommandInfo>> index,
+		final String name, final CommandInfo info)
+	{
+		List<CommandInfo> infos = index.get(name);
+		if (infos == null) {
+			infos = new ArrayList<CommandInfo>();
+			index.put(name, infos);
+		}
+		// NB: Ops are indexed one after the other, so a duplicate entry for the
+		// same op (e.g., an alias equal to its name) can only be the last one.
+		if (infos.isEmpty() || infos.get(infos.size() - 1) != info) {
+			infos.add(info);
+		}
 	}
 
 	/** Helper method of {@link #match(OpCandidate, Object[])}. */
-	private Module createModule(final ModuleInfo info, final Object... args) {
+	private Module createModule(final OpCandidate<?> candidate,
+		final Object... args)
+	{
+		final ModuleInfo info = candidate.getInfo();
+		final ModulePool modulePool = pooling ? pool().get() : null;
+		final MatchKey key =
+			modulePool == null ? null : new MatchKey(candidate.getRef());
+		if (modulePool != null) {
+			final Module pooled = modulePool.obtain(key, info);
+			if (pooled != null) return assignInputs(pooled, args);
+		}
+
+		final MatchTrace trace = currentTrace.get();
+		if (trace != null) trace.moduleCreated();
 		final Module module = moduleService.createModule(info);
 		context.inject(module.getDelegateObject());
+		if (modulePool != null) modulePool.register(module, key);
 		return assignInputs(module, args);
 	}
 
 	/** Helper method of {@link #match(OpCandidate, Object[])}. */
 	private boolean canAssign(final OpCandidate<?> candidate, final Object arg,
-		final ModuleItem<?> item)
+		final OpBinding binding, final int index)
 	{
+		final ModuleItem<?> item = binding.getInput(index);
 		if (arg == null) {
 			if (item.isRequired()) {
 				candidate.setStatus(StatusCode.REQUIRED_ARG_IS_NULL, null, item);
@@ -327,7 +690,9 @@ public class DefaultOpMatchingService extends AbstractService implements
 			return true;
 		}
 
-		final Type type = item.getGenericType();
+		if (binding.isInstance(index, arg)) return true;
+
+		final Type type = binding.getType(index);
 		if (!canConvert(arg, type)) {
 			candidate.setStatus(StatusCode.CANNOT_CONVERT,
 				arg.getClass().getName() + " => " + type, item);
@@ -343,19 +708,20 @@ public class DefaultOpMatchingService extends AbstractService implements
 			// NB: Class argument for matching, to help differentiate op signatures.
 			return true;
 		}
+		converted();
 		return convertService.supports(arg, type);
 	}
 
 	/** Helper method of {@link #assignInputs}. */
 	private void assign(final Module module, final Object arg,
-		final ModuleItem<?> item)
+		final OpBinding binding, final int index)
 	{
 		if (arg != null) {
-			final Type type = item.getGenericType();
-			final Object value = convert(arg, type);
-			module.setInput(item.getName(), value);
+			final Object value = binding.isInstance(index, arg) ? arg
+				: convert(arg, binding.getType(index));
+			binding.setInput(module, index, value);
 		}
-		module.setResolved(item.getName(), true);
+		module.setResolved(binding.getInput(index).getName(), true);
 	}
 
 	/** Helper method of {@link #assign}. */
@@ -364,12 +730,360 @@ public class DefaultOpMatchingService extends AbstractService implements
 			// NB: Class argument for matching; fill with null.
 			return null;
 		}
+		converted();
 		return convertService.convert(arg, type);
 	}
 
+	/** Records a conversion lookup into the current trace, if any. */
+	private void converted() {
+		final MatchTrace trace = currentTrace.get();
+		if (trace != null) trace.converted();
+	}
+
 	/** Determines whether the argument is a matching class instance. */
 	private boolean isMatchingClass(final Object arg, final Type type) {
-		return arg instanceof Class &&
-			convertService.supports((Class<?>) arg, type);
+		if (!(arg instanceof Class)) return false;
+		converted();
+		return convertService.supports((Class<?>) arg, type);
+	}
+
+	// -- Event handlers --
+
+	@EventHandler
+	protected void onEvent(final PluginsAddedEvent evt) {
+		invalidate();
+	}
+
+	@EventHandler
+	protected void onEvent(final PluginsRemovedEvent evt) {
+		invalidate();
+	}
+
+	// -- Helper methods - lazy initialization --
+
+	/** Gets {@link #nameIndex}, initializing if needed. */
+	private Map<String, List<CommandInfo>> nameIndex() {
+		final Map<String, List<CommandInfo>> index = nameIndex;
+		return index == null ? initNameIndex() : index;
+	}
+
+	/** Gets {@link #typeIndex}, initializing if needed. */
+	private ConcurrentHashMap<Class<?>, List<CommandInfo>> typeIndex() {
+		final ConcurrentHashMap<Class<?>, List<CommandInfo>> index = typeIndex;
+		return index == null ? initTypeIndex() : index;
+	}
+
+	/** Gets {@link #indexedTypes}, initializing if needed. */
+	private Map<String, List<CommandInfo>> indexedTypes() {
+		final Map<String, List<CommandInfo>> index = indexedTypes;
+		if (index != null) return index;
+		initNameIndex();
+		return indexedTypes;
+	}
+
+	/** Gets {@link #unindexedOps}, initializing if needed. */
+	private List<CommandInfo> unindexedOps() {
+		final List<CommandInfo> ops = unindexedOps;
+		if (ops != null) return ops;
+		initNameIndex();
+		return unindexedOps;
+	}
+
+	/** Gets {@link #opIndex}, initializing if needed. */
+	private OpIndex opIndex() {
+		final OpIndex index = opIndex;
+		return index == null ? initOpIndex() : index;
+	}
+
+	/** Gets {@link #parameterClasses}, initializing if needed. */
+	private ConcurrentHashMap<String, Class<?>> parameterClasses() {
+		final ConcurrentHashMap<String, Class<?>> map = parameterClasses;
+		return map == null ? initParameterClasses() : map;
+	}
+
+	/** Gets {@link #bindings}, initializing if needed. */
+	private ConcurrentHashMap<ModuleInfo, OpBinding> bindings() {
+		final ConcurrentHashMap<ModuleInfo, OpBinding> map = bindings;
+		return map == null ? initBindings() : map;
+	}
+
+	/** Gets {@link #pool}, initializing if needed. */
+	private ThreadLocal<ModulePool> pool() {
+		final ThreadLocal<ModulePool> p = pool;
+		return p == null ? initPool() : p;
+	}
+
+	/** Gets {@link #statistics}, initializing if needed. */
+	private ConcurrentHashMap<MatchKey, MatchStatistics> statistics() {
+		final ConcurrentHashMap<MatchKey, MatchStatistics> stats = statistics;
+		return stats == null ? initStatistics() : stats;
+	}
+
+	/** Gets {@link #matchCache}, initializing if needed. */
+	private Map<MatchKey, ModuleInfo> matchCache() {
+		final Map<MatchKey, ModuleInfo> cache = matchCache;
+		return cache == null ? initMatchCache() : cache;
+	}
+
+	/**
+	 * Initializes {@link #nameIndex}, {@link #indexedTypes} and
+	 * {@link #unindexedOps}. The names and types of ops covered by the
+	 * {@link OpIndex} are taken from their entries; the others are indexed from
+	 * their plugin metadata.
+	 */
+	private synchronized Map<String, List<CommandInfo>> initNameIndex() {
+		if (nameIndex != null) return nameIndex; // already initialized
+
+		final OpIndex opIndex = opIndex();
+		final HashMap<String, List<CommandInfo>> index =
+			new HashMap<String, List<CommandInfo>>();
+		final HashMap<String, List<CommandInfo>> types =
+			new HashMap<String, List<CommandInfo>>();
+		final ArrayList<CommandInfo> unindexed = new ArrayList<CommandInfo>();
+		for (final CommandInfo info : getOps()) {
+			final OpIndex.Entry entry = opIndex.get(info);
+			if (entry == null) {
+				index(index, info);
+				unindexed.add(info);
+				continue;
+			}
+			index(index, entry, info);
+			for (final String type : entry.getTypes()) {
+				index(types, type, info);
+			}
+		}
+
+		indexedTypes = types;
+		unindexedOps = Collections.unmodifiableList(unindexed);
+		nameIndex = index;
+		return index;
+	}
+
+	/** Initializes {@link #typeIndex}. */
+	private synchronized ConcurrentHashMap<Class<?>, List<CommandInfo>>
+		initTypeIndex()
+	{
+		if (typeIndex != null) return typeIndex; // already initialized
+
+		typeIndex = new ConcurrentHashMap<Class<?>, List<CommandInfo>>();
+		return typeIndex;
+	}
+
+	/** Initializes {@link #opIndex}. */
+	private synchronized OpIndex initOpIndex() {
+		if (opIndex != null) return opIndex; // already initialized
+
+		final OpIndex index = new OpIndex();
+		try {
+			index.load(Thread.currentThread().getContextClassLoader());
+		}
+		catch (final IOException exc) {
+			log.warn("Cannot read op index", exc);
+		}
+
+		opIndex = index;
+		return index;
 	}
+
+	/** Initializes {@link #parameterClasses}. */
+	private synchronized ConcurrentHashMap<String, Class<?>>
+		initParameterClasses()
+	{
+		if (parameterClasses != null) {
+			return parameterClasses; // already initialized
+		}
+
+		parameterClasses = new ConcurrentHashMap<String, Class<?>>();
+		return parameterClasses;
+	}
+
+	/** Initializes {@link #bindings}. */
+	private synchronized ConcurrentHashMap<ModuleInfo, OpBinding>
+		initBindings()
+	{
+		if (bindings != null) return bindings; // already initialized
+
+		bindings = new ConcurrentHashMap<ModuleInfo, OpBinding>();
+		return bindings;
+	}
+
+	/** Initializes {@link #pool}. */
+	private synchronized ThreadLocal<ModulePool> initPool() {
+		if (pool != null) return pool; // already initialized
+
+		pool = new ThreadLocal<ModulePool>() {
+
+			@Override
+			protected ModulePool initialValue() {
+				return new ModulePool();
+			}
+		};
+		return pool;
+	}
+
+	/** Initializes {@link #statistics}. */
+	private synchronized ConcurrentHashMap<MatchKey, MatchStatistics>
+		initStatistics()
+	{
+		if (statistics != null) return statistics; // already initialized
+
+		statistics = new ConcurrentHashMap<MatchKey, MatchStatistics>();
+		return statistics;
+	}
+
+	/** Initializes {@link #matchCache}. */
+	private synchronized Map<MatchKey, ModuleInfo> initMatchCache() {
+		if (matchCache != null) return matchCache; // already initialized
+
+		final LinkedHashMap<MatchKey, ModuleInfo> cache =
+			new LinkedHashMap<MatchKey, ModuleInfo>(16, 0.75f, true)
+		{
+
+			@Override
+			protected boolean removeEldestEntry(
+				final Map.Entry<MatchKey, ModuleInfo> eldest)
+			{
+				return size() > MATCH_CACHE_SIZE;
+			}
+		};
+
+		matchCache = Collections.synchronizedMap(cache);
+		return matchCache;
+	}
+
+	/** Discards the op indices and match cache, after the ops have changed. */
+	private synchronized void invalidate() {
+		nameIndex = null;
+		typeIndex = null;
+		indexedTypes = null;
+		unindexedOps = null;
+		matchCache = null;
+		opIndex = null;
+		parameterClasses = null;
+		bindings = null;
+		pool = null;
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Released modules of a single thread, with at most one per request
+	 * signature.
+	 * <p>
+	 * Modules are only reused for requests of the signature they were created
+	 * for. Many ops lazily create helper ops in fields which are not
+	 * parameters, matched on the types of their first arguments; such helpers
+	 * stay valid for later requests with the same argument types.
+	 * </p>
+	 */
+	private static class ModulePool {
+
+		/** Released modules, keyed on request signature. */
+		private final HashMap<MatchKey, SoftReference<Module>> modules =
+			new HashMap<MatchKey, SoftReference<Module>>();
+
+		/** Request signature of each module created while pooling. */
+		private final WeakHashMap<Module, MatchKey> keys =
+			new WeakHashMap<Module, MatchKey>();
+
+		/** Initial input values of each op, restored upon release. */
+		private final HashMap<ModuleInfo, Map<String, Object>> defaults =
+			new HashMap<ModuleInfo, Map<String, Object>>();
+
+		/**
+		 * Takes a released module of the given op, created for a request of the
+		 * given signature, out of the pool, if any.
+		 */
+		public Module obtain(final MatchKey key, final ModuleInfo info) {
+			final SoftReference<Module> ref = modules.get(key);
+			final Module module = ref == null ? null : ref.get();
+			if (module == null || module.getInfo() != info) return null;
+			modules.remove(key);
+			return module;
+		}
+
+		/**
+		 * Records the request signature and the initial input values of the given
+		 * newly created module, so that it can be reset and pooled when it is
+		 * released.
+		 */
+		public void register(final Module module, final MatchKey key) {
+			keys.put(module, key);
+			final ModuleInfo info = module.getInfo();
+			if (defaults.containsKey(info)) return;
+			defaults.put(info, new HashMap<String, Object>(module.getInputs()));
+		}
+
+		/** Resets the given module's parameters and puts it into the pool. */
+		public void release(final Module module) {
+			final ModuleInfo info = module.getInfo();
+			final MatchKey key = keys.get(module);
+			final Map<String, Object> inputs = defaults.get(info);
+			// NB: Only modules created while pooling can be reset properly.
+			if (key == null || inputs == null) return;
+
+			for (final ModuleItem<?> item : info.inputs()) {
+				module.setInput(item.getName(), inputs.get(item.getName()));
+				module.setResolved(item.getName(), false);
+			}
+			for (final ModuleItem<?> item : info.outputs()) {
+				if (item.isInput() || item.getType().isPrimitive()) continue;
+				module.setOutput(item.getName(), null);
+			}
+			modules.put(key, new SoftReference<Module>(module));
+		}
+	}
+
+	/**
+	 * Signature of an op request: its name or type, together with the classes of
+	 * its arguments. Requests with equal signatures are matched to the same op,
+	 * unless a {@link Contingent} op is involved.
+	 */
+	private static class MatchKey {
+
+		private final String name;
+		private final Class<?> type;
+		private final Class<?>[] argTypes;
+
+		/** Flags for arguments which are {@link Class} placeholders. */
+		private final boolean[] placeholders;
+
+		private final int hash;
+
+		public MatchKey(final OpRef<?> ref) {
+			name = ref.getName();
+			type = ref.getType();
+			final Object[] args = ref.getArgs();
+			argTypes = new Class<?>[args.length];
+			placeholders = new boolean[args.length];
+			for (int i = 0; i < args.length; i++) {
+				if (args[i] instanceof Class) {
+					argTypes[i] = (Class<?>) args[i];
+					placeholders[i] = true;
+				}
+				else if (args[i] != null) argTypes[i] = args[i].getClass();
+			}
+
+			int h = name == null ? 0 : name.hashCode();
+			h = 31 * h + (type == null ? 0 : type.hashCode());
+			h = 31 * h + Arrays.hashCode(argTypes);
+			hash = 31 * h + Arrays.hashCode(placeholders);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof MatchKey)) return false;
+			final MatchKey key = (MatchKey) o;
+			return hash == key.hash && type == key.type &&
+				(name == null ? key.name == null : name.equals(key.name)) &&
+				Arrays.equals(argTypes, key.argTypes) &&
+				Arrays.equals(placeholders, key.placeholders);
+		}
+	}
+
 }
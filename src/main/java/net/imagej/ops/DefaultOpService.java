@@ -45,7 +45,9 @@ import net.imagej.ops.image.ImageNamespace;
 import net.imagej.ops.labeling.LabelingNamespace;
 import net.imagej.ops.logic.LogicNamespace;
 import net.imagej.ops.map.neighborhood.CenterAwareComputerOp;
+import net.imagej.ops.map.neighborhood.SlidingWindowComputerOp;
 import net.imagej.ops.math.MathNamespace;
+import net.imagej.ops.reduce.Reducer;
 import net.imagej.ops.stats.StatsNamespace;
 import net.imagej.ops.thread.ThreadNamespace;
 import net.imagej.ops.threshold.ThresholdNamespace;
@@ -97,14 +99,18 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 	@Override
 	public Object run(final String name, final Object... args) {
 		final Module module = module(name, args);
-		return run(module);
+		final Object result = run(module);
+		matcher.release(module);
+		return result;
 	}
 
 	@Override
 	public <OP extends Op> Object run(final Class<OP> type, final Object... args)
 	{
 		final Module module = module(type, args);
-		return run(module);
+		final Object result = run(module);
+		matcher.release(module);
+		return result;
 	}
 
 	@Override
@@ -147,6 +153,37 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 		return matcher.assignInputs(module, args);
 	}
 
+	@Override
+	public <I, O> PreparedComputer<I, O> computer(
+		final Class<? extends Op> type, final Object out, final Object in,
+		final Object... otherArgs)
+	{
+		@SuppressWarnings("unchecked")
+		final ComputerOp<I, O> op =
+			prepare(ComputerOp.class, type, args(otherArgs, out, in));
+		return new PreparedComputer<I, O>(op);
+	}
+
+	@Override
+	public <I, O> PreparedFunction<I, O> function(
+		final Class<? extends Op> type, final Object in, final Object... otherArgs)
+	{
+		@SuppressWarnings("unchecked")
+		final FunctionOp<I, O> op =
+			prepare(FunctionOp.class, type, args(otherArgs, in));
+		return new PreparedFunction<I, O>(op);
+	}
+
+	@Override
+	public <A> PreparedInplace<A> inplace(final Class<? extends Op> type,
+		final Object arg, final Object... otherArgs)
+	{
+		@SuppressWarnings("unchecked")
+		final InplaceOp<A> op =
+			prepare(InplaceOp.class, type, args(otherArgs, arg));
+		return new PreparedInplace<A>(op);
+	}
+
 	@Override
 	public CommandInfo info(final Op op) {
 		return commandService.getCommand(op.getClass());
@@ -445,6 +482,8 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 	public <A, B> IterableInterval<B> map(final IterableInterval<B> out,
 		final IterableInterval<A> in, final ComputerOp<A, B> op)
 	{
+		// net.imagej.ops.map.MapArraysToArraysParallel.class
+		// net.imagej.ops.map.MapIterableIntervalToBitsParallel.class
 		// net.imagej.ops.map.MapIterableToIterableParallel.class
 		// net.imagej.ops.map.MapIterableIntervalToIterableInterval.class
 		@SuppressWarnings("unchecked")
@@ -492,10 +531,12 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 		final RandomAccessibleInterval<I> in, final ComputerOp<Iterable<I>, O> op,
 		final Shape shape)
 	{
+		// net.imagej.ops.map.neighborhood.MapNeighborhoodTiled.class
+		// net.imagej.ops.map.neighborhood.MapNeighborhood.class
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<O> result =
-			(RandomAccessibleInterval<O>) run(
-				net.imagej.ops.map.neighborhood.MapNeighborhood.class, out, in, op, shape);
+			(RandomAccessibleInterval<O>) run(net.imagej.ops.Ops.Map.class, out, in,
+				op, shape);
 		return result;
 	}
 	
@@ -504,11 +545,27 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 		final RandomAccessibleInterval<O> out,
 		final RandomAccessibleInterval<I> in,
 		final CenterAwareComputerOp<Iterable<I>, O> func, final Shape shape)
+	{
+		// net.imagej.ops.map.neighborhood.MapNeighborhoodWithCenterTiled.class
+		// net.imagej.ops.map.neighborhood.MapNeighborhoodWithCenter.class
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) run(net.imagej.ops.Ops.Map.class, out, in,
+				func, shape);
+		return result;
+	}
+
+	@Override
+	public <I, O> RandomAccessibleInterval<O> map(
+		final RandomAccessibleInterval<O> out,
+		final RandomAccessibleInterval<I> in,
+		final SlidingWindowComputerOp<I, O> op, final Shape shape)
 	{
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<O> result =
 			(RandomAccessibleInterval<O>) run(
-				net.imagej.ops.map.neighborhood.MapNeighborhoodWithCenter.class, out, in, func, shape);
+				net.imagej.ops.map.neighborhood.MapNeighborhoodSliding.class, out, in,
+				op, shape);
 		return result;
 	}
 
@@ -523,6 +580,68 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 		return result;
 	}
 
+	@Override
+	public <A, B> IterableInterval<B> map(final IterableInterval<B> out,
+		final RandomAccessibleInterval<A> in1,
+		final RandomAccessibleInterval<A> in2, final NaryComputerOp<A, B> op)
+	{
+		@SuppressWarnings("unchecked")
+		final IterableInterval<B> result =
+			(IterableInterval<B>) run(net.imagej.ops.map.MapNaryParallel.class, out,
+				in1, in2, op);
+		return result;
+	}
+
+	@Override
+	public <A, B> IterableInterval<B> map(final IterableInterval<B> out,
+		final RandomAccessibleInterval<A> in1,
+		final RandomAccessibleInterval<A> in2,
+		final RandomAccessibleInterval<A> in3, final NaryComputerOp<A, B> op)
+	{
+		@SuppressWarnings("unchecked")
+		final IterableInterval<B> result =
+			(IterableInterval<B>) run(net.imagej.ops.map.MapNaryParallel.class, out,
+				in1, in2, in3, op);
+		return result;
+	}
+
+	@Override
+	public <A, B> IterableInterval<B> map(final IterableInterval<B> out,
+		final RandomAccessibleInterval<A> in1,
+		final RandomAccessibleInterval<A> in2,
+		final RandomAccessibleInterval<A> in3,
+		final RandomAccessibleInterval<A> in4, final NaryComputerOp<A, B> op)
+	{
+		@SuppressWarnings("unchecked")
+		final IterableInterval<B> result =
+			(IterableInterval<B>) run(net.imagej.ops.map.MapNaryParallel.class, out,
+				in1, in2, in3, in4, op);
+		return result;
+	}
+
+	@Override
+	public Object reduce(final Object... args) {
+		return run(Ops.Reduce.NAME, args);
+	}
+
+	@Override
+	public <A, R> R reduce(final IterableInterval<A> in,
+		final Reducer<A, R> reducer)
+	{
+		// net.imagej.ops.reduce.ReduceIterableIntervalParallel.class
+		@SuppressWarnings("unchecked")
+		final R result = (R) run(net.imagej.ops.Ops.Reduce.class, in, reducer);
+		return result;
+	}
+
+	@Override
+	public <A, R> R reduce(final Iterable<A> in, final Reducer<A, R> reducer) {
+		@SuppressWarnings("unchecked")
+		final R result =
+			(R) run(net.imagej.ops.reduce.ReduceIterable.class, in, reducer);
+		return result;
+	}
+
 	@Override
 	public Object slicewise(final Object... args) {
 		return run(Ops.Slicewise.NAME, args);
@@ -617,6 +736,27 @@ public class DefaultOpService extends AbstractPTService<Op> implements
 
 	// -- Helper methods --
 
+	/** Matches an op of the given type, ensuring it is of the expected kind. */
+	private <T> T prepare(final Class<T> kind, final Class<? extends Op> type,
+		final Object[] args)
+	{
+		final Op op = op(type, args);
+		if (!kind.isInstance(op)) {
+			throw new IllegalArgumentException(op.getClass().getName() +
+				" is not a " + kind.getSimpleName());
+		}
+		return kind.cast(op);
+	}
+
+	/** Prepends the given primary arguments to the other arguments. */
+	private Object[] args(final Object[] otherArgs, final Object... primaryArgs)
+	{
+		final Object[] args = new Object[primaryArgs.length + otherArgs.length];
+		System.arraycopy(primaryArgs, 0, args, 0, primaryArgs.length);
+		System.arraycopy(otherArgs, 0, args, primaryArgs.length, otherArgs.length);
+		return args;
+	}
+
 	private Object run(final Module module) {
 		module.run();
 		return result(module);
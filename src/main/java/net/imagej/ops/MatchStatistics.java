@@ -0,0 +1,151 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cumulative statistics of the {@link OpMatchingService} for all op requests
+ * with the same signature, i.e., the same op name or type and the same
+ * argument types.
+ * 
+ * @author agent
+ * @see OpMatchingService#getStatistics()
+ * @see MatchTrace
+ */
+public class MatchStatistics {
+
+	private final String signature;
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong candidates = new AtomicLong();
+	private final AtomicLong modulesCreated = new AtomicLong();
+	private final AtomicLong rejections = new AtomicLong();
+	private final AtomicLong conversions = new AtomicLong();
+	private final AtomicLong time = new AtomicLong();
+
+	public MatchStatistics(final OpRef<?> ref) {
+		signature = signature(ref);
+	}
+
+	/** Gets a string describing the op name or type and argument types. */
+	public String getSignature() {
+		return signature;
+	}
+
+	/** Gets the number of requests with this signature. */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/** Gets the number of requests answered from the match cache. */
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/** Gets the number of requests which did not yield a single match. */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/** Gets the total number of candidates considered. */
+	public long getCandidates() {
+		return candidates.get();
+	}
+
+	/** Gets the total number of modules created while matching. */
+	public long getModulesCreated() {
+		return modulesCreated.get();
+	}
+
+	/** Gets the total number of candidates rejected as nonconforming. */
+	public long getRejections() {
+		return rejections.get();
+	}
+
+	/** Gets the total number of lookups made to the conversion service. */
+	public long getConversions() {
+		return conversions.get();
+	}
+
+	/** Gets the total wall time spent matching, in nanoseconds. */
+	public long getTime() {
+		return time.get();
+	}
+
+	/** Adds the given trace of a single request to the statistics. */
+	public void add(final MatchTrace trace) {
+		requests.incrementAndGet();
+		if (trace.isCached()) cacheHits.incrementAndGet();
+		if (trace.getMatch() == null) failures.incrementAndGet();
+		candidates.addAndGet(trace.getCandidates().size());
+		modulesCreated.addAndGet(trace.getModulesCreated());
+		rejections.addAndGet(trace.getRejections());
+		conversions.addAndGet(trace.getConversions());
+		time.addAndGet(trace.getTime());
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		return signature + ": " + getRequests() + " requests (" + getCacheHits() +
+			" cached, " + getFailures() + " failed), " + getCandidates() +
+			" candidates, " + getModulesCreated() + " modules created, " +
+			getRejections() + " rejections, " + getConversions() +
+			" conversions, " + getTime() / 1000 + " us";
+	}
+
+	// -- Utility methods --
+
+	/** Gets a one-line string describing the signature of the given request. */
+	public static String signature(final OpRef<?> ref) {
+		if (ref == null) return "(none)";
+		final StringBuilder sb = new StringBuilder(ref.getLabel());
+		sb.append("(");
+		boolean first = true;
+		for (final Object arg : ref.getArgs()) {
+			if (first) first = false;
+			else sb.append(", ");
+			if (arg == null) sb.append("null");
+			else if (arg instanceof Class) {
+				// NB: Class instance used to mark argument type.
+				sb.append(((Class<?>) arg).getSimpleName());
+			}
+			else sb.append(arg.getClass().getSimpleName());
+		}
+		sb.append(")");
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.scijava.module.Module;
+
+/**
+ * Record of how the {@link OpMatchingService} handled a single op request:
+ * which candidates were considered and why they were rejected, which op was
+ * selected, and how much work the matching took.
+ * 
+ * @author agent
+ * @see OpMatchingService#findModule(OpRef, MatchTrace)
+ * @see MatchStatistics
+ */
+public class MatchTrace {
+
+	private OpRef<?> ref;
+	private List<? extends OpCandidate<?>> candidates = Collections.emptyList();
+	private Module match;
+	private boolean cached;
+	private int modulesCreated;
+	private int rejections;
+	private int conversions;
+	private long startTime;
+	private long time;
+
+	/** Gets the op request which was matched. */
+	public OpRef<?> getRef() {
+		return ref;
+	}
+
+	/**
+	 * Gets the candidates which were considered, with their matching status.
+	 * This list is empty when the selected op came from the match cache.
+	 */
+	public List<? extends OpCandidate<?>> getCandidates() {
+		return candidates;
+	}
+
+	/** Gets the selected op, or null if no single match was found. */
+	public Module getMatch() {
+		return match;
+	}
+
+	/** Gets whether the selected op came from the match cache. */
+	public boolean isCached() {
+		return cached;
+	}
+
+	/** Gets the number of modules created while matching. */
+	public int getModulesCreated() {
+		return modulesCreated;
+	}
+
+	/** Gets the number of candidates rejected by {@link Contingent#conforms()}. */
+	public int getRejections() {
+		return rejections;
+	}
+
+	/** Gets the number of lookups made to the conversion service. */
+	public int getConversions() {
+		return conversions;
+	}
+
+	/** Gets the wall time of the matching, in nanoseconds. */
+	public long getTime() {
+		return time;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("Request: " + MatchStatistics.signature(ref) + "\n");
+		sb.append("Selected: ");
+		if (match == null) sb.append("none");
+		else sb.append(match.getInfo().getDelegateClassName());
+		if (cached) sb.append(" (cached)");
+		sb.append("\n");
+		sb.append("Candidates: " + candidates.size() + ", modules created: " +
+			modulesCreated + ", rejections: " + rejections + ", conversions: " +
+			conversions + ", time: " + time / 1000 + " us\n");
+		int count = 0;
+		for (final OpCandidate<?> candidate : candidates) {
+			sb.append(++count + ". " + candidate.getInfo().getDelegateClassName() +
+				" [priority " + candidate.getInfo().getPriority() + "]: ");
+			final String status = candidate.getStatus();
+			if (status != null) sb.append(status);
+			else if (match != null && candidate.getModule() == match) {
+				sb.append("MATCH");
+			}
+			else sb.append("not considered");
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+
+	// -- Internal methods --
+
+	void start(final OpRef<?> opRef) {
+		ref = opRef;
+		startTime = System.nanoTime();
+	}
+
+	void stop() {
+		time = System.nanoTime() - startTime;
+	}
+
+	void setCandidates(final List<? extends OpCandidate<?>> candidates) {
+		this.candidates = candidates;
+	}
+
+	void setMatch(final Module match, final boolean cached) {
+		this.match = match;
+		this.cached = cached;
+	}
+
+	void moduleCreated() {
+		modulesCreated++;
+	}
+
+	void rejected() {
+		rejections++;
+	}
+
+	void converted() {
+		conversions++;
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.scijava.command.CommandModuleItem;
+import org.scijava.module.Module;
+import org.scijava.module.ModuleInfo;
+import org.scijava.module.ModuleItem;
+import org.scijava.util.GenericUtils;
+
+/**
+ * The input parameters of an op, resolved once per op so that arguments can be
+ * checked and assigned without repeated reflection.
+ * <p>
+ * {@link ModuleItem#getType()} and {@link ModuleItem#getGenericType()}
+ * resolve the parameter's type against the op class anew on every call, and
+ * {@link Module#setInput} looks up the parameter by name and makes its field
+ * accessible on every call. An {@code OpBinding} does all of this up front:
+ * it holds the resolved types of each input, and the input fields themselves,
+ * already made accessible, for ops backed by a {@link CommandModuleItem}.
+ * </p>
+ * 
+ * @author agent
+ */
+class OpBinding {
+
+	private final ModuleItem<?>[] items;
+	private final Type[] types;
+	private final Class<?>[] classes;
+	private final Field[] fields;
+
+	public OpBinding(final ModuleInfo info) {
+		final List<ModuleItem<?>> inputs = new ArrayList<ModuleItem<?>>();
+		for (final ModuleItem<?> item : info.inputs()) {
+			inputs.add(item);
+		}
+		final int count = inputs.size();
+		items = inputs.toArray(new ModuleItem<?>[count]);
+		types = new Type[count];
+		classes = new Class<?>[count];
+		fields = new Field[count];
+		for (int i = 0; i < count; i++) {
+			types[i] = items[i].getGenericType();
+			classes[i] = GenericUtils.getClass(types[i]);
+			if (items[i] instanceof CommandModuleItem) {
+				fields[i] = accessible(((CommandModuleItem<?>) items[i]).getField());
+			}
+		}
+	}
+
+	/** Gets the number of inputs. */
+	public int getInputCount() {
+		return items.length;
+	}
+
+	/** Gets the input with the given index. */
+	public ModuleItem<?> getInput(final int index) {
+		return items[index];
+	}
+
+	/** Gets the type of the input with the given index. */
+	public Type getType(final int index) {
+		return types[index];
+	}
+
+	/**
+	 * Gets whether the given argument can be assigned to the input with the
+	 * given index as is, without any conversion.
+	 */
+	public boolean isInstance(final int index, final Object arg) {
+		// NB: Class arguments are placeholders for matching; never assign as is.
+		return !(arg instanceof Class) && classes[index] != null &&
+			classes[index].isInstance(arg);
+	}
+
+	/** Sets the value of the given module's input with the given index. */
+	public void setInput(final Module module, final int index,
+		final Object value)
+	{
+		final Field field = fields[index];
+		if (field == null) {
+			module.setInput(items[index].getName(), value);
+			return;
+		}
+		try {
+			field.set(module.getDelegateObject(), value);
+		}
+		catch (final IllegalAccessException exc) {
+			throw new IllegalArgumentException("No access to field: " +
+				field.getName(), exc);
+		}
+	}
+
+	// -- Helper methods --
+
+	private static Field accessible(final Field field) {
+		if (field == null) return null;
+		try {
+			field.setAccessible(true);
+			return field;
+		}
+		catch (final SecurityException exc) {
+			// NB: Fall back to setting the input via the module.
+			return null;
+		}
+	}
+
+}
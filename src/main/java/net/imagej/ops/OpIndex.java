@@ -0,0 +1,227 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.scijava.module.ModuleInfo;
+
+/**
+ * Index of {@link Op} metadata, precomputed at build time.
+ * <p>
+ * The index records the name, aliases, priority, types and parameters of each
+ * op, so that the {@link OpMatchingService} can rule out candidates without
+ * loading their classes. It is read from all {@value #RESOURCE} resources on
+ * the class path; ops not covered by any of them are matched as usual.
+ * </p>
+ * 
+ * @author agent
+ */
+class OpIndex {
+
+	/** Location of op index resources, as written by the build. */
+	public static final String RESOURCE = "META-INF/imagej/ops.index";
+
+	/** Index entries, keyed on op class name. */
+	private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+	/** Reads all op index resources available from the given class loader. */
+	public void load(final ClassLoader classLoader) throws IOException {
+		final Enumeration<URL> urls = classLoader.getResources(RESOURCE);
+		while (urls.hasMoreElements()) {
+			read(urls.nextElement());
+		}
+	}
+
+	/** Gets the number of indexed ops. */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the index entry for the given op.
+	 * 
+	 * @return The entry, or null if the op is not indexed, or if the index is
+	 *         out of date with respect to the op's metadata.
+	 */
+	public Entry get(final ModuleInfo info) {
+		final Entry entry = entries.get(info.getDelegateClassName());
+		if (entry == null) return null;
+		if (!equal(entry.name, info.getName())) return null;
+		if (!equal(entry.aliases, aliases(info))) return null;
+		if (entry.priority != info.getPriority()) return null;
+		return entry;
+	}
+
+	// -- Helper methods --
+
+	private void read(final URL url) throws IOException {
+		final BufferedReader in =
+			new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+		try {
+			while (true) {
+				final String line = in.readLine();
+				if (line == null) break;
+				if (line.isEmpty() || line.startsWith("#")) continue;
+				final Entry entry = new Entry(line.split("\t", -1));
+				entries.put(entry.className, entry);
+			}
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private String aliases(final ModuleInfo info) {
+		final String aliases = info.get("aliases");
+		return aliases == null ? info.get("alias") : aliases;
+	}
+
+	private boolean equal(final String indexed, final String actual) {
+		return indexed.equals(actual == null ? "" : actual);
+	}
+
+	// -- Helper classes --
+
+	/** Precomputed metadata of a single op. */
+	public static class Entry {
+
+		private final String className;
+		private final String name;
+		private final String aliases;
+		private final double priority;
+		private final Set<String> types;
+		private final String[] inputs;
+		private final String[] outputs;
+		private final String[] inputTypes;
+		private final boolean[] optional;
+		private final int requiredCount;
+
+		private Entry(final String[] columns) {
+			if (columns.length != 7) {
+				throw new IllegalArgumentException("Invalid op index entry: " +
+					Arrays.toString(columns));
+			}
+			className = columns[0];
+			name = columns[1];
+			aliases = columns[2];
+			priority = Double.parseDouble(columns[3]);
+			types = new HashSet<String>(Arrays.asList(split(columns[4])));
+			inputs = split(columns[5]);
+			outputs = split(columns[6]);
+			inputTypes = new String[inputs.length];
+			optional = new boolean[inputs.length];
+			int required = 0;
+			for (int i = 0; i < inputs.length; i++) {
+				String input = inputs[i];
+				optional[i] = input.endsWith("?");
+				if (optional[i]) input = input.substring(0, input.length() - 1);
+				else required++;
+				inputTypes[i] = input.substring(input.lastIndexOf(':') + 1);
+			}
+			requiredCount = required;
+		}
+
+		/** Gets the name of the op, or the empty string if it has none. */
+		public String getName() {
+			return name;
+		}
+
+		/** Gets the comma-separated aliases of the op, or the empty string. */
+		public String getAliases() {
+			return aliases;
+		}
+
+		/** Gets the class names of the types the op implements. */
+		public Set<String> getTypes() {
+			return Collections.unmodifiableSet(types);
+		}
+
+		/** Checks whether the op is of the given type, without loading it. */
+		public boolean isType(final Class<?> type) {
+			return types.contains(type.getName());
+		}
+
+		/** Gets the number of input parameters. */
+		public int getInputCount() {
+			return inputs.length;
+		}
+
+		/** Gets the number of required input parameters. */
+		public int getRequiredCount() {
+			return requiredCount;
+		}
+
+		/** Gets the class names of the input parameters. */
+		public String[] getInputTypes() {
+			return inputTypes.clone();
+		}
+
+		/**
+		 * Gets the class names of the input parameters to which the given number
+		 * of arguments would be assigned, with optional parameters filled from
+		 * left to right, as done by {@link OpMatchingService#padArgs}.
+		 * 
+		 * @return One class name per argument, or null if the op cannot take that
+		 *         many arguments.
+		 */
+		public String[] getArgumentTypes(final int argCount) {
+			if (argCount > inputs.length || argCount < requiredCount) return null;
+			final int optionalsToFill = argCount - requiredCount;
+			final String[] types = new String[argCount];
+			int argIndex = 0, optionalIndex = 0;
+			for (int i = 0; i < inputs.length; i++) {
+				if (optional[i] && optionalIndex++ >= optionalsToFill) continue;
+				types[argIndex++] = inputTypes[i];
+			}
+			return types;
+		}
+
+		/** Gets the number of output parameters. */
+		public int getOutputCount() {
+			return outputs.length;
+		}
+
+		private static String[] split(final String list) {
+			return list.isEmpty() ? new String[0] : list.split(",");
+		}
+	}
+
+}
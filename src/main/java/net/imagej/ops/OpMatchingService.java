@@ -60,6 +60,20 @@ public interface OpMatchingService extends ImageJService {
 	 */
 	public <OP extends Op> Module findModule(OpRef<OP> ref);
 
+	/**
+	 * Finds and initializes the best module matching the given op name and/or
+	 * type + arguments, recording the details of the matching process.
+	 * 
+	 * @param ref The op reference describing the op to match.
+	 * @param trace The trace to fill in with details of the matching process,
+	 *          or null to skip tracing.
+	 * @return A {@link Module} wrapping the best {@link Op}, with populated
+	 *         inputs, ready to run.
+	 * @throws IllegalArgumentException if there is no match, or if there is more
+	 *           than one match at the same priority.
+	 */
+	<OP extends Op> Module findModule(OpRef<OP> ref, MatchTrace trace);
+
 	/**
 	 * Builds a list of candidate ops which might match the given op reference.
 	 * 
@@ -97,4 +111,57 @@ public interface OpMatchingService extends ImageJService {
 	/** Assigns arguments into the given module's inputs. */
 	Module assignInputs(Module module, Object... args);
 
+	/**
+	 * Gets whether matching statistics are collected; see
+	 * {@link #getStatistics}.
+	 */
+	boolean isCollectingStatistics();
+
+	/**
+	 * Sets whether matching statistics are collected. Collection is off by
+	 * default.
+	 * <p>
+	 * When enabled, every request is traced, and the traces are accumulated per
+	 * request signature, at some cost to each request. Requests with a
+	 * {@link MatchTrace} given explicitly are always traced, but only counted
+	 * in the statistics while collection is enabled.
+	 * </p>
+	 */
+	void setCollectingStatistics(boolean collectingStatistics);
+
+	/**
+	 * Gets the statistics of all op requests matched while collection was
+	 * enabled, with one entry per request signature (i.e., op name or type and
+	 * argument types).
+	 */
+	List<MatchStatistics> getStatistics();
+
+	/** Discards the statistics of all op requests matched so far. */
+	void resetStatistics();
+
+	/** Gets whether op modules are pooled for reuse; see {@link #release}. */
+	boolean isPooling();
+
+	/**
+	 * Sets whether op modules are pooled for reuse. Pooling is off by default.
+	 * <p>
+	 * When enabled, {@link #findModule} hands out previously {@link #release
+	 * released} modules of the selected op, rather than creating and injecting
+	 * a new one, whenever one is available for the current thread. A module is
+	 * only handed out again for requests with the same signature (i.e., op
+	 * name or type and argument types) as the one it was created for. Only the
+	 * op's parameters are reset between uses; ops which keep any other state
+	 * that depends on more than the argument types must not be used with
+	 * pooling enabled.
+	 * </p>
+	 */
+	void setPooling(boolean pooling);
+
+	/**
+	 * Returns the given module, as obtained from {@link #findModule} and whose
+	 * execution has finished, to the pool of the current thread. Does nothing
+	 * if pooling is disabled. The module must not be used afterwards.
+	 */
+	void release(Module module);
+
 }
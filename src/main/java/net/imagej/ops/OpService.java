@@ -43,7 +43,9 @@ import net.imagej.ops.image.ImageNamespace;
 import net.imagej.ops.labeling.LabelingNamespace;
 import net.imagej.ops.logic.LogicNamespace;
 import net.imagej.ops.map.neighborhood.CenterAwareComputerOp;
+import net.imagej.ops.map.neighborhood.SlidingWindowComputerOp;
 import net.imagej.ops.math.MathNamespace;
+import net.imagej.ops.reduce.Reducer;
 import net.imagej.ops.stats.StatsNamespace;
 import net.imagej.ops.thread.ThreadNamespace;
 import net.imagej.ops.threshold.ThresholdNamespace;
@@ -179,6 +181,58 @@ public interface OpService extends PTService<Op>, ImageJService {
 	 */
 	Module module(Op op, Object... args);
 
+	/**
+	 * Gets the best {@link ComputerOp} of the given type for the specified
+	 * arguments, prepared for repeated execution. Calling
+	 * {@link PreparedComputer#compute} invokes the op directly, without any
+	 * further matching or argument conversion.
+	 *
+	 * @param type The required type of the operation.
+	 * @param out The output used for matching, or its {@link Class}.
+	 * @param in The input used for matching, or its {@link Class}.
+	 * @param otherArgs The operation's remaining arguments, which stay bound to
+	 *          the prepared op.
+	 * @return The prepared {@link ComputerOp}.
+	 * @throws IllegalArgumentException if the best match is not a
+	 *           {@link ComputerOp}.
+	 */
+	<I, O> PreparedComputer<I, O> computer(Class<? extends Op> type, Object out,
+		Object in, Object... otherArgs);
+
+	/**
+	 * Gets the best {@link FunctionOp} of the given type for the specified
+	 * arguments, prepared for repeated execution. Calling
+	 * {@link PreparedFunction#compute} invokes the op directly, without any
+	 * further matching or argument conversion.
+	 *
+	 * @param type The required type of the operation.
+	 * @param in The input used for matching, or its {@link Class}.
+	 * @param otherArgs The operation's remaining arguments, which stay bound to
+	 *          the prepared op.
+	 * @return The prepared {@link FunctionOp}.
+	 * @throws IllegalArgumentException if the best match is not a
+	 *           {@link FunctionOp}.
+	 */
+	<I, O> PreparedFunction<I, O> function(Class<? extends Op> type, Object in,
+		Object... otherArgs);
+
+	/**
+	 * Gets the best {@link InplaceOp} of the given type for the specified
+	 * arguments, prepared for repeated execution. Calling
+	 * {@link PreparedInplace#compute} invokes the op directly, without any
+	 * further matching or argument conversion.
+	 *
+	 * @param type The required type of the operation.
+	 * @param arg The argument used for matching, or its {@link Class}.
+	 * @param otherArgs The operation's remaining arguments, which stay bound to
+	 *          the prepared op.
+	 * @return The prepared {@link InplaceOp}.
+	 * @throws IllegalArgumentException if the best match is not an
+	 *           {@link InplaceOp}.
+	 */
+	<A> PreparedInplace<A> inplace(Class<? extends Op> type, Object arg,
+		Object... otherArgs);
+
 	/** Gets the metadata for a given {@link Op}. */
 	CommandInfo info(Op op);
 
@@ -328,7 +382,9 @@ public interface OpService extends PTService<Op>, ImageJService {
 	<A> IterableInterval<A> map(IterableInterval<A> arg, InplaceOp<A> op);
 
 	/** Executes the "map" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.map.MapIterableToIterableParallel.class,
+	@OpMethod(ops = { net.imagej.ops.map.MapArraysToArraysParallel.class,
+		net.imagej.ops.map.MapIterableIntervalToBitsParallel.class,
+		net.imagej.ops.map.MapIterableToIterableParallel.class,
 		net.imagej.ops.map.MapIterableIntervalToIterableInterval.class })
 	<A, B> IterableInterval<B> map(IterableInterval<B> out,
 		IterableInterval<A> in, ComputerOp<A, B> op);
@@ -349,21 +405,60 @@ public interface OpService extends PTService<Op>, ImageJService {
 		RandomAccessibleInterval<A> in, ComputerOp<A, B> op);
 
 	/** Executes the "map" operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.map.neighborhood.MapNeighborhood.class)
+	@OpMethod(ops = { net.imagej.ops.map.neighborhood.MapNeighborhoodTiled.class,
+		net.imagej.ops.map.neighborhood.MapNeighborhood.class })
 	<I, O> RandomAccessibleInterval<O> map(RandomAccessibleInterval<O> out,
 		RandomAccessibleInterval<I> in, ComputerOp<Iterable<I>, O> op, Shape shape);
 
 	/** Executes the "map" operation on the given arguments. */
-	@OpMethod(
-		op = net.imagej.ops.map.neighborhood.MapNeighborhoodWithCenter.class)
+	@OpMethod(ops = {
+		net.imagej.ops.map.neighborhood.MapNeighborhoodWithCenterTiled.class,
+		net.imagej.ops.map.neighborhood.MapNeighborhoodWithCenter.class })
 	<I, O> RandomAccessibleInterval<O> map(RandomAccessibleInterval<O> out,
 		RandomAccessibleInterval<I> in, CenterAwareComputerOp<Iterable<I>, O> op,
 		Shape shape);
 
+	/** Executes the "map" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.map.neighborhood.MapNeighborhoodSliding.class)
+	<I, O> RandomAccessibleInterval<O> map(RandomAccessibleInterval<O> out,
+		RandomAccessibleInterval<I> in, SlidingWindowComputerOp<I, O> op,
+		Shape shape);
+
 	/** Executes the "map" operation on the given arguments. */
 	@OpMethod(op = net.imagej.ops.map.MapIterableToIterable.class)
 	<A, B> Iterable<B> map(Iterable<B> out, Iterable<A> in, ComputerOp<A, B> op);
 
+	/** Executes the "map" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.map.MapNaryParallel.class)
+	<A, B> IterableInterval<B> map(IterableInterval<B> out,
+		RandomAccessibleInterval<A> in1, RandomAccessibleInterval<A> in2,
+		NaryComputerOp<A, B> op);
+
+	/** Executes the "map" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.map.MapNaryParallel.class)
+	<A, B> IterableInterval<B> map(IterableInterval<B> out,
+		RandomAccessibleInterval<A> in1, RandomAccessibleInterval<A> in2,
+		RandomAccessibleInterval<A> in3, NaryComputerOp<A, B> op);
+
+	/** Executes the "map" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.map.MapNaryParallel.class)
+	<A, B> IterableInterval<B> map(IterableInterval<B> out,
+		RandomAccessibleInterval<A> in1, RandomAccessibleInterval<A> in2,
+		RandomAccessibleInterval<A> in3, RandomAccessibleInterval<A> in4,
+		NaryComputerOp<A, B> op);
+
+	/** Executes the "reduce" operation on the given arguments. */
+	@OpMethod(op = Ops.Reduce.class)
+	Object reduce(Object... args);
+
+	/** Executes the "reduce" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.reduce.ReduceIterableIntervalParallel.class)
+	<A, R> R reduce(IterableInterval<A> in, Reducer<A, R> reducer);
+
+	/** Executes the "reduce" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.reduce.ReduceIterable.class)
+	<A, R> R reduce(Iterable<A> in, Reducer<A, R> reducer);
+
 	/** Executes the "slicewise" operation on the given arguments. */
 	@OpMethod(op = Ops.Slicewise.class)
 	Object slicewise(Object... args);
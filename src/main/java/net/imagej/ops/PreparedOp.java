@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops;
+
+/**
+ * An {@link Op} which has been matched once, ready for repeated execution.
+ * <p>
+ * Executing a prepared op skips op matching, module creation and argument
+ * conversion: all of this happens only once, when the op is prepared (see
+ * {@link OpService#computer}, {@link OpService#function} and
+ * {@link OpService#inplace}). Arguments other than the primary input and
+ * output remain bound to the values given at that time.
+ * </p>
+ * <p>
+ * A prepared op may be used from multiple threads simultaneously. The thread
+ * which prepared the op uses the matched instance; every other thread works
+ * with its own instance, obtained via {@link Threadable#getIndependentInstance()}
+ * on first use.
+ * </p>
+ * 
+ * @author agent
+ * @param <OP> The type of {@link Op}.
+ * @see PreparedComputer
+ * @see PreparedFunction
+ * @see PreparedInplace
+ */
+public class PreparedOp<OP extends Op & Threadable> {
+
+	private final OP op;
+
+	/** The thread which prepared the op. */
+	private final Thread owner;
+
+	/** Independent instances for threads other than the owner. */
+	private final ThreadLocal<OP> instances = new ThreadLocal<OP>() {
+
+		@Override
+		protected OP initialValue() {
+			return newInstance();
+		}
+	};
+
+	public PreparedOp(final OP op) {
+		this.op = op;
+		owner = Thread.currentThread();
+	}
+
+	/** Gets the matched op instance. */
+	public OP op() {
+		return op;
+	}
+
+	/** Gets the op instance to be used from the current thread. */
+	public OP get() {
+		return Thread.currentThread() == owner ? op : instances.get();
+	}
+
+	/**
+	 * Creates a new instance of the op which can be used independently of this
+	 * one; e.g., for handing off to a worker thread.
+	 */
+	public OP newInstance() {
+		@SuppressWarnings("unchecked")
+		final OP instance = (OP) op.getIndependentInstance();
+		return instance;
+	}
+
+}
@@ -0,0 +1,309 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.filter.fftSize.ComputeFFTSize;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.LongChunk;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.outofbounds.OutOfBoundsConstantValueFactory;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.complex.ComplexFloatType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+
+/**
+ * Abstract class for FFT based linear filters which transform the image block
+ * by block, so that images much larger than the available memory can be
+ * filtered.
+ * <p>
+ * The output is cut into blocks, and the input each block depends on, which
+ * is the block extended by the size of the kernel, is transformed, multiplied
+ * with the transform of the kernel and transformed back (the so-called
+ * overlap-save method). Only the part of the result which did not wrap around
+ * the block is kept. The kernel is transformed once, and its transform shared
+ * by all blocks, which are processed in parallel.
+ * </p>
+ * <p>
+ * Blocks are as large as the memory budget allows: the buffers of the blocks
+ * processed at once, and the transform of the kernel, take at most
+ * {@code memoryBudget} bytes together.
+ * </p>
+ * 
+ * @author agent
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ */
+public abstract class AbstractBlockwiseFFTFilterRAI<I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+	extends
+	AbstractComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<O>>
+	implements Parallel
+{
+
+	/** Default memory budget, in bytes. */
+	public static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+
+	/** Bytes per element of the real and complex buffers of a block. */
+	private static final int REAL_BYTES = 4, COMPLEX_BYTES = 8;
+
+	@Parameter
+	private OpService ops;
+
+	/** The kernel (psf). */
+	@Parameter
+	private RandomAccessibleInterval<K> kernel;
+
+	/** Generates the out of bounds strategy for the extended input. */
+	@Parameter(required = false)
+	private OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput;
+
+	/** Maximum number of bytes of FFT buffers in use at once. */
+	@Parameter(required = false)
+	private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+	@Override
+	public void compute(final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<O> output)
+	{
+		if (obfInput == null) {
+			obfInput =
+				new OutOfBoundsConstantValueFactory<I, RandomAccessibleInterval<I>>(
+					Util.getTypeFromInterval(input).createVariable());
+		}
+		final RandomAccessible<I> extendedInput = Views.extend(input, obfInput);
+
+		final int numDims = output.numDimensions();
+		final int numWorkers = ExecutionContext.current().getParallelism();
+		final long[] block = blockSize(output, numWorkers);
+		final long[] padded = new long[numDims];
+		final long[] fftSize = new long[numDims];
+		computeFFTSize(block, padded, fftSize);
+
+		// transform the kernel once, for all blocks
+		final Img<FloatType> kernelBuffer =
+			new ArrayImgFactory<FloatType>().create(padded, new FloatType());
+		final long[] kernelMax = new long[numDims];
+		for (int d = 0; d < numDims; d++) {
+			kernelMax[d] = kernel.dimension(d) - 1;
+		}
+		copy(kernel, Views.interval(kernelBuffer, new long[numDims], kernelMax));
+		final Img<ComplexFloatType> fftKernel =
+			new ArrayImgFactory<ComplexFloatType>().create(fftSize,
+				new ComplexFloatType());
+		ops.filter().fft(fftKernel, kernelBuffer);
+
+		final long[] grid = new long[numDims];
+		final long[] translation = new long[numDims];
+		long numBlocks = 1;
+		for (int d = 0; d < numDims; d++) {
+			grid[d] = (output.dimension(d) + block[d] - 1) / block[d];
+			translation[d] = input.min(d) - output.min(d);
+			numBlocks *= grid[d];
+		}
+		final O outType = Util.getTypeFromInterval(output);
+		final boolean packed = outType instanceof NativeType &&
+			((NativeType<?>) outType).getEntitiesPerPixel().getRatio() < 1;
+
+		ops.run(ChunkerOp.class, new LongChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final Img<FloatType> realBuffer =
+					new ArrayImgFactory<FloatType>().create(padded, new FloatType());
+				final Img<ComplexFloatType> fftBuffer =
+					new ArrayImgFactory<ComplexFloatType>().create(fftSize,
+						new ComplexFloatType());
+				final long[] blockMin = new long[numDims];
+				final long[] blockMax = new long[numDims];
+				final long[] inMin = new long[numDims];
+				final long[] inMax = new long[numDims];
+				final long[] validMin = new long[numDims];
+				final long[] validMax = new long[numDims];
+
+				for (long i = 0; i < numSteps && !monitor.isCanceled(); i++) {
+					// locate the block, and the input it depends on
+					long index = startIndex + i * stepSize;
+					for (int d = 0; d < numDims; d++) {
+						final long k = kernel.dimension(d);
+						blockMin[d] = output.min(d) + index % grid[d] * block[d];
+						blockMax[d] =
+							Math.min(output.max(d), blockMin[d] + block[d] - 1);
+						inMin[d] = blockMin[d] + translation[d] + inputOffset(k);
+						inMax[d] = inMin[d] + padded[d] - 1;
+						validMin[d] = validOffset(k);
+						validMax[d] = validMin[d] + blockMax[d] - blockMin[d];
+						index /= grid[d];
+					}
+
+					// filter the block
+					copy(Views.interval(extendedInput, inMin, inMax), realBuffer);
+					ops.filter().fft(fftBuffer, realBuffer);
+					frequencyOperation(fftBuffer, fftKernel);
+					ops.filter().ifft(realBuffer, fftBuffer);
+
+					// copy the part which did not wrap around
+					final RandomAccessibleInterval<FloatType> valid =
+						Views.interval(realBuffer, validMin, validMax);
+					final RandomAccessibleInterval<O> target =
+						Views.interval(output, blockMin, blockMax);
+					if (packed) {
+						synchronized (output) {
+							copy(valid, target);
+						}
+					}
+					else {
+						copy(valid, target);
+					}
+				}
+			}
+
+			@Override
+			public void execute(final int startIndex, final int stepSize,
+				final int numSteps)
+			{
+				execute((long) startIndex, stepSize, numSteps);
+			}
+		}, numBlocks);
+	}
+
+	/**
+	 * Gets the position of the first input value a block depends on, relative
+	 * to the first output value of the block, along a dimension where the
+	 * kernel has the given size.
+	 */
+	protected abstract long inputOffset(long kernelSize);
+
+	/**
+	 * Gets the position in the filtered block of the first output value of the
+	 * block, along a dimension where the kernel has the given size. The output
+	 * values are those which did not wrap around the block.
+	 */
+	protected abstract long validOffset(long kernelSize);
+
+	/**
+	 * Performs the operation in the frequency domain (i.e. multiplication for
+	 * convolution, complex conjugate multiplication for correlation), storing
+	 * the result in the transform of the block.
+	 */
+	protected abstract void frequencyOperation(Img<ComplexFloatType> a,
+		Img<ComplexFloatType> b);
+
+	// -- Helper methods --
+
+	/**
+	 * Determines the size of the output blocks, so that the buffers of the
+	 * given number of workers fit the memory budget, along with the transform
+	 * of the kernel.
+	 */
+	private long[] blockSize(final RandomAccessibleInterval<O> output,
+		final int numWorkers)
+	{
+		final int numDims = output.numDimensions();
+		final long[] block = new long[numDims];
+		output.dimensions(block);
+		final long[] padded = new long[numDims];
+		final long[] fftSize = new long[numDims];
+		final long budget = memoryBudget / (numWorkers + 1);
+		while (true) {
+			computeFFTSize(block, padded, fftSize);
+			if (REAL_BYTES * Intervals.numElements(padded) + COMPLEX_BYTES *
+				Intervals.numElements(fftSize) <= budget)
+			{
+				break;
+			}
+			// halve the longest side of the block
+			int longest = 0;
+			for (int d = 1; d < numDims; d++) {
+				if (block[d] > block[longest]) longest = d;
+			}
+			if (block[longest] == 1) {
+				throw new IllegalArgumentException("Memory budget of " +
+					memoryBudget + " bytes is too small for the kernel");
+			}
+			block[longest] = (block[longest] + 1) / 2;
+		}
+
+		// NB: Grow the blocks into the padding of the FFT.
+		for (int d = 0; d < numDims; d++) {
+			block[d] =
+				Math.min(output.dimension(d), padded[d] - kernel.dimension(d) + 1);
+		}
+		return block;
+	}
+
+	/**
+	 * Computes the padded size of the FFT of a block of the given size,
+	 * extended by the kernel, and the size of its transform.
+	 */
+	private void computeFFTSize(final long[] block, final long[] padded,
+		final long[] fftSize)
+	{
+		final long[] extended = new long[block.length];
+		for (int d = 0; d < block.length; d++) {
+			extended[d] = block[d] + kernel.dimension(d) - 1;
+		}
+		ops.run(ComputeFFTSize.class, extended, padded, fftSize, true, true);
+	}
+
+	/** Copies the values of the source to the target of the same size. */
+	private static void copy(
+		final RandomAccessibleInterval<? extends RealType<?>> source,
+		final RandomAccessibleInterval<? extends RealType<?>> target)
+	{
+		final Cursor<? extends RealType<?>> in =
+			Views.flatIterable(source).cursor();
+		final Cursor<? extends RealType<?>> out =
+			Views.flatIterable(target).cursor();
+		while (in.hasNext()) {
+			out.next().setReal(in.next().getRealDouble());
+		}
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.image.integral.DefaultIntegralImg;
+import net.imagej.ops.map.neighborhood.RectangleWindow;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+
+/**
+ * Abstract base class for filters over rectangular neighborhoods which only
+ * need the sums of powers of the values in each neighborhood, such as the
+ * mean and variance.
+ * <p>
+ * Rather than visiting every neighborhood, the sums are read off
+ * {@link DefaultIntegralImg integral images} of the input, at the
+ * {@code 2^n} corners of each neighborhood, so that the cost per pixel does
+ * not depend on the size of the neighborhood. The parameters are those of
+ * {@link AbstractNeighborhoodBasedFilter}; filters only apply to a
+ * {@link RectangleShape}.
+ * </p>
+ * 
+ * @author agent
+ * @param <T> type of the input and output
+ */
+public abstract class AbstractIntegralFilter<T extends RealType<T>> extends
+	AbstractComputerOp<RandomAccessibleInterval<T>, RandomAccessibleInterval<T>>
+	implements Contingent, Parallel
+{
+
+	@Parameter
+	protected OpService ops;
+
+	@Parameter
+	private Shape shape;
+
+	@Parameter(required = false)
+	private OutOfBoundsFactory<T, RandomAccessibleInterval<T>> outOfBoundsFactory;
+
+	@Override
+	public boolean conforms() {
+		return shape instanceof RectangleShape;
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<T> input,
+		final RandomAccessibleInterval<T> output)
+	{
+		// optionally extend input if outOfBoundsFactory is set
+		final RandomAccessible<T> extInput =
+			outOfBoundsFactory == null ? input : Views.extend(input,
+				outOfBoundsFactory);
+
+		// sum the values covered by any neighborhood
+		final RectangleWindow window = new RectangleWindow(shape, extInput, input);
+		final int numDims = input.numDimensions();
+		final long[] min = new long[numDims];
+		final long[] width = new long[numDims];
+		final long[] sourceMin = new long[numDims];
+		final long[] sourceMax = new long[numDims];
+		for (int d = 0; d < numDims; d++) {
+			min[d] = input.min(d);
+			width[d] = window.width(d);
+			sourceMin[d] = min[d] + window.offset(d);
+			sourceMax[d] = input.max(d) + window.offset(d) + width[d] - 1;
+		}
+		final long count = window.size();
+		final boolean skipCenter = window.isSkippingCenter();
+		final RandomAccessibleInterval<T> source =
+			Views.interval(extInput, sourceMin, sourceMax);
+		final int order = getOrder();
+		final RandomAccessibleInterval<?>[] integrals =
+			new RandomAccessibleInterval<?>[order];
+		final boolean[] exact = new boolean[order];
+		for (int k = 0; k < order; k++) {
+			integrals[k] = (RandomAccessibleInterval<?>) ops.run(
+				DefaultIntegralImg.class, null, source, k + 1);
+			// NB: Integer sums are exact, even if the sums of the whole image
+			// overflowed.
+			exact[k] = Views.iterable(integrals[k]).firstElement() instanceof
+				IntegerType;
+		}
+
+		final IterableInterval<T> out = Views.iterable(output);
+		ops.run(ChunkerOp.class, new CursorBasedChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final Cursor<T> cursor = out.localizingCursor();
+				final RandomAccess<T> center = extInput.randomAccess();
+				final RandomAccess<?>[] accesses = new RandomAccess<?>[order];
+				for (int k = 0; k < order; k++) {
+					accesses[k] = integrals[k].randomAccess();
+				}
+				final long[] position = new long[numDims];
+				final double[] sums = new double[order];
+				setToStart(cursor, startIndex);
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					for (int d = 0; d < numDims; d++) {
+						position[d] = cursor.getLongPosition(d) - output.min(d);
+					}
+					for (int k = 0; k < order; k++) {
+						sums[k] = boxSum(accesses[k], integrals[k], exact[k], position,
+							width);
+					}
+					if (skipCenter) {
+						for (int d = 0; d < numDims; d++) {
+							center.setPosition(min[d] + position[d], d);
+						}
+						final double value = center.get().getRealDouble();
+						double power = value;
+						for (int k = 0; k < order; k++) {
+							sums[k] -= power;
+							power *= value;
+						}
+					}
+					computeWindow(sums, count, cursor.get());
+
+					cursor.jumpFwd(stepSize);
+					ctr++;
+				}
+			}
+		}, out.size(), out);
+	}
+
+	/**
+	 * Gets the number of sums needed per neighborhood: the sum of the values,
+	 * followed by the sum of their squares, and so on.
+	 */
+	protected abstract int getOrder();
+
+	/**
+	 * Computes the output value of a neighborhood.
+	 * 
+	 * @param sums the sums of the values, of their squares, etc. up to the
+	 *          {@link #getOrder() order} of this filter
+	 * @param count the number of values in the neighborhood
+	 * @param output the output value to set
+	 */
+	protected abstract void computeWindow(double[] sums, long count, T output);
+
+	// -- Helper methods --
+
+	/**
+	 * Sums the values of the box of the given width, starting at the given
+	 * offset from the minimum of the source, from its corners in the integral
+	 * image.
+	 */
+	private static double boxSum(final RandomAccess<?> access,
+		final RandomAccessibleInterval<?> integral, final boolean exact,
+		final long[] position, final long[] width)
+	{
+		long exactSum = 0;
+		double sum = 0;
+		for (int corner = 0; corner < 1 << position.length; corner++) {
+			boolean negative = false;
+			for (int d = 0; d < position.length; d++) {
+				if ((corner >> d & 1) == 0) {
+					access.setPosition(integral.min(d) + position[d], d);
+					negative = !negative;
+				}
+				else {
+					access.setPosition(integral.min(d) + position[d] + width[d], d);
+				}
+			}
+			if (exact) {
+				final long value = ((IntegerType<?>) access.get()).getIntegerLong();
+				exactSum += negative ? -value : value;
+			}
+			else {
+				final double value = ((RealType<?>) access.get()).getRealDouble();
+				sum += negative ? -value : value;
+			}
+		}
+		return exact ? exactSum : sum;
+	}
+
+}
@@ -0,0 +1,268 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.map.neighborhood.RectangleWindow;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.FinalDimensions;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+
+/**
+ * Abstract base class for filters which select the extremum of rectangular
+ * neighborhoods, such as the minimum and maximum.
+ * <p>
+ * The extremum of a box is the extremum along each of its dimensions in turn,
+ * so the filter runs once along every dimension spanned by the neighborhood.
+ * Along a line, the running extremum is computed with the algorithm of van
+ * Herk and Gil &amp; Werman: the line is cut into blocks of the width of the
+ * neighborhood, the extrema of the prefixes and suffixes of each block are
+ * accumulated, and every neighborhood then covers the suffix of one block and
+ * the prefix of the next. This takes about three comparisons per pixel and
+ * dimension, whatever the size of the neighborhood. Lines are processed in
+ * parallel.
+ * </p>
+ * <p>
+ * Filters apply to any shape whose neighborhoods fill their bounding box,
+ * such as a {@link RectangleShape} which does not skip its center, or a
+ * line.
+ * </p>
+ * 
+ * @author agent
+ * @param <T> type of the input and output
+ */
+public abstract class AbstractRunningExtremumFilter<T extends RealType<T>>
+	extends
+	AbstractComputerOp<RandomAccessibleInterval<T>, RandomAccessibleInterval<T>>
+	implements Contingent, Parallel
+{
+
+	@Parameter
+	protected OpService ops;
+
+	@Parameter
+	private Shape shape;
+
+	@Parameter(required = false)
+	private OutOfBoundsFactory<T, RandomAccessibleInterval<T>> outOfBoundsFactory;
+
+	@Override
+	public boolean conforms() {
+		final RectangleWindow window =
+			new RectangleWindow(shape, getInput(), getInput());
+		return window.size() == window.volume();
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<T> input,
+		final RandomAccessibleInterval<T> output)
+	{
+		// optionally extend input if outOfBoundsFactory is set
+		final RandomAccessible<T> extInput =
+			outOfBoundsFactory == null ? input : Views.extend(input,
+				outOfBoundsFactory);
+		final RectangleWindow window = new RectangleWindow(shape, extInput, input);
+
+		// NB: Everything is positioned in the coordinates of the input.
+		final int numDims = input.numDimensions();
+		final long[] translation = new long[numDims];
+		final long[] regionMin = new long[numDims];
+		final long[] regionMax = new long[numDims];
+		int lastDim = -1;
+		for (int d = 0; d < numDims; d++) {
+			translation[d] = input.min(d) - output.min(d);
+			regionMin[d] = input.min(d) + window.offset(d);
+			regionMax[d] = input.max(d) + window.offset(d) + window.width(d) - 1;
+			if (window.width(d) > 1) lastDim = d;
+		}
+		final RandomAccessibleInterval<T> target =
+			Views.translate(output, translation);
+
+		if (lastDim < 0) {
+			// the neighborhoods are single pixels
+			slide(extInput, target, 0, window);
+			return;
+		}
+
+		// filter along one dimension after the other
+		final T type = input.randomAccess().get().createVariable();
+		RandomAccessible<T> source = extInput;
+		for (int d = 0; d <= lastDim; d++) {
+			if (window.width(d) == 1) continue;
+			regionMin[d] = input.min(d);
+			regionMax[d] = input.max(d);
+			final RandomAccessibleInterval<T> pass;
+			if (d == lastDim) pass = target;
+			else {
+				final long[] dims = new long[numDims];
+				for (int e = 0; e < numDims; e++) {
+					dims[e] = regionMax[e] - regionMin[e] + 1;
+				}
+				pass = Views.translate(ops.create().img(new FinalDimensions(dims),
+					type), regionMin);
+			}
+			slide(source, Views.interval(pass, regionMin, regionMax), d, window);
+			source = pass;
+		}
+	}
+
+	/**
+	 * Selects the extremum of two values.
+	 * 
+	 * @return whichever of the given values this filter prefers
+	 */
+	protected abstract T select(T a, T b);
+
+	// -- Helper methods --
+
+	/**
+	 * Sets every value of the target to the extremum of the neighborhood of
+	 * the source along the given dimension.
+	 */
+	private void slide(final RandomAccessible<T> source,
+		final RandomAccessibleInterval<T> target, final int dim,
+		final RectangleWindow window)
+	{
+		final int numDims = target.numDimensions();
+		final long[] lineMin = new long[numDims];
+		final long[] lineMax = new long[numDims];
+		target.min(lineMin);
+		target.max(lineMax);
+		lineMax[dim] = lineMin[dim];
+		final IterableInterval<T> lines = Views.interval(target, lineMin, lineMax);
+		final int length = (int) target.dimension(dim);
+		final int width = (int) window.width(dim);
+		final long offset = window.offset(dim);
+		final T type = lines.firstElement();
+
+		ops.run(ChunkerOp.class, new CursorBasedChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final Cursor<T> cursor = lines.localizingCursor();
+				final RandomAccess<T> in = source.randomAccess();
+				final RandomAccess<T> out = target.randomAccess();
+				final Line line = new Line(length + width - 1, width, type);
+				setToStart(cursor, startIndex);
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					in.setPosition(cursor);
+					in.move(offset, dim);
+					out.setPosition(cursor);
+					line.read(in, dim);
+					for (int x = 0; x < length; x++) {
+						out.get().set(line.extremum(x));
+						out.fwd(dim);
+					}
+
+					cursor.jumpFwd(stepSize);
+					ctr++;
+				}
+			}
+		}, lines.size(), lines);
+	}
+
+	// -- Helper classes --
+
+	/** The values of a line, with the extrema of the blocks they belong to. */
+	private final class Line {
+
+		private final int width;
+		private final T[] values;
+
+		/** Extrema from the start of each block up to each value. */
+		private final T[] prefix;
+
+		/** Extrema from each value up to the end of its block. */
+		private final T[] suffix;
+
+		public Line(final int size, final int width, final T type) {
+			this.width = width;
+			values = newArray(size, type);
+			prefix = newArray(size, type);
+			suffix = newArray(size, type);
+		}
+
+		/** Reads the values of the line, and accumulates the block extrema. */
+		public void read(final RandomAccess<T> access, final int dim) {
+			final int size = values.length;
+			for (int i = 0; i < size; i++) {
+				values[i].set(access.get());
+				access.fwd(dim);
+			}
+			for (int i = 0; i < size; i++) {
+				prefix[i].set(i % width == 0 ? values[i] : select(prefix[i - 1],
+					values[i]));
+			}
+			for (int i = size - 1; i >= 0; i--) {
+				suffix[i].set(i % width == width - 1 || i == size - 1 ? values[i]
+					: select(suffix[i + 1], values[i]));
+			}
+		}
+
+		/** Gets the extremum of the neighborhood starting at the given value. */
+		public T extremum(final int start) {
+			return select(suffix[start], prefix[start + width - 1]);
+		}
+
+		private T[] newArray(final int size, final T type) {
+			@SuppressWarnings("unchecked")
+			final T[] array = (T[]) new RealType<?>[size];
+			for (int i = 0; i < size; i++) {
+				array[i] = type.createVariable();
+			}
+			return array;
+		}
+
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter;
+
+import java.util.Arrays;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.map.neighborhood.RectangleWindow;
+import net.imagej.ops.stats.RealReducers;
+import net.imagej.ops.stats.RealReducers.Extrema;
+import net.imagej.ops.stats.RealReducers.MinMaxReducer;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.outofbounds.OutOfBoundsFactory;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+
+/**
+ * Abstract base class for rank filters over rectangular neighborhoods, such
+ * as the median, which keep a histogram of the neighborhood while sliding it
+ * along the first dimension.
+ * <p>
+ * Each line of the output along the first dimension starts from a full
+ * histogram of its first neighborhood; moving to the next pixel then only
+ * removes the values of the slab leaving the neighborhood and adds those of
+ * the slab entering it. The histogram has two levels: fine bins, grouped into
+ * about as many coarse bins as there are fine bins per group. The coarse bin
+ * holding the requested rank is tracked incrementally, and only its fine bins
+ * are scanned, so selecting a value takes a bounded number of steps even when
+ * the values are spread thinly over many bins (e.g., 16-bit data). Lines are
+ * processed in parallel.
+ * </p>
+ * <p>
+ * Integer types of up to 16 bits get one bin per value, so the result is
+ * exact. Other types are only supported when a number of bins is given: the
+ * range of the input is then divided into that many bins, and each output
+ * value is the center of the bin of its rank, i.e. an approximation.
+ * </p>
+ * 
+ * @author agent
+ * @param <T> type of the input and output
+ */
+public abstract class AbstractSlidingHistogramFilter<T extends RealType<T>>
+	extends
+	AbstractComputerOp<RandomAccessibleInterval<T>, RandomAccessibleInterval<T>>
+	implements Contingent, Parallel
+{
+
+	/** Largest number of bits of integer types binned by value. */
+	private static final int MAX_EXACT_BITS = 16;
+
+	@Parameter
+	protected OpService ops;
+
+	@Parameter
+	private Shape shape;
+
+	@Parameter(required = false)
+	private OutOfBoundsFactory<T, RandomAccessibleInterval<T>> outOfBoundsFactory;
+
+	/** Number of bins for types which cannot be binned by value. */
+	@Parameter(required = false)
+	private int numBins;
+
+	@Override
+	public boolean conforms() {
+		return shape instanceof RectangleShape &&
+			(isExact(Util.getTypeFromInterval(getInput())) || numBins > 0);
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<T> input,
+		final RandomAccessibleInterval<T> output)
+	{
+		// optionally extend input if outOfBoundsFactory is set
+		final RandomAccessible<T> extInput =
+			outOfBoundsFactory == null ? input : Views.extend(input,
+				outOfBoundsFactory);
+		final RectangleWindow window = new RectangleWindow(shape, extInput, input);
+		final long rank = getRank(window.size());
+
+		// divide the values into bins
+		final T type = Util.getTypeFromInterval(input);
+		final boolean exact = isExact(type);
+		final double binMin, binWidth;
+		final int bins;
+		if (exact) {
+			binMin = type.getMinValue();
+			binWidth = 1;
+			bins = (int) (type.getMaxValue() - binMin) + 1;
+		}
+		else {
+			final Extrema<T> extrema =
+				RealReducers.reduce(ops, Views.iterable(input), new MinMaxReducer<T>(
+					type));
+			binMin = extrema.getMin().getRealDouble();
+			binWidth = (extrema.getMax().getRealDouble() - binMin) / numBins;
+			bins = numBins;
+		}
+
+		// process the lines along the first dimension
+		final int numDims = output.numDimensions();
+		final long[] lineMin = new long[numDims];
+		final long[] lineMax = new long[numDims];
+		output.min(lineMin);
+		output.max(lineMax);
+		lineMax[0] = lineMin[0];
+		final IterableInterval<T> lines = Views.interval(output, lineMin, lineMax);
+		final long length = output.dimension(0);
+
+		ops.run(ChunkerOp.class, new CursorBasedChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final Cursor<T> cursor = lines.localizingCursor();
+				final RandomAccess<T> target = output.randomAccess();
+				final RandomAccess<T> center = extInput.randomAccess();
+				final Histogram histogram =
+					new Histogram(extInput.randomAccess(), bins, binMin, binWidth, exact);
+				final long[] boxMin = new long[numDims];
+				final long[] boxMax = new long[numDims];
+				setToStart(cursor, startIndex);
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					for (int d = 0; d < numDims; d++) {
+						final long pos =
+							cursor.getLongPosition(d) - output.min(d) + input.min(d);
+						boxMin[d] = pos + window.offset(d);
+						boxMax[d] = boxMin[d] + window.width(d) - 1;
+						center.setPosition(pos, d);
+					}
+					target.setPosition(cursor);
+
+					histogram.clear();
+					histogram.update(boxMin, boxMax, 1);
+					for (long x = 0; x < length; x++) {
+						if (x > 0) {
+							// slide the neighborhood by one pixel
+							final long first = boxMin[0], last = boxMax[0];
+							boxMax[0] = first;
+							histogram.update(boxMin, boxMax, -1);
+							boxMin[0] = boxMax[0] = last + 1;
+							histogram.update(boxMin, boxMax, 1);
+							boxMin[0] = first + 1;
+						}
+						if (window.isSkippingCenter()) {
+							histogram.add(center.get(), -1);
+							target.get().setReal(histogram.select(rank));
+							histogram.add(center.get(), 1);
+						}
+						else {
+							target.get().setReal(histogram.select(rank));
+						}
+						center.fwd(0);
+						target.fwd(0);
+					}
+
+					cursor.jumpFwd(stepSize);
+					ctr++;
+				}
+			}
+		}, lines.size(), lines);
+	}
+
+	/**
+	 * Gets the rank of the output value among the sorted values of a
+	 * neighborhood.
+	 * 
+	 * @param count the number of values of each neighborhood
+	 * @return the zero-based rank, between 0 and count - 1
+	 */
+	protected abstract long getRank(long count);
+
+	// -- Helper methods --
+
+	private boolean isExact(final T type) {
+		return type instanceof IntegerType &&
+			type.getBitsPerPixel() <= MAX_EXACT_BITS;
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Two-level histogram of a neighborhood, which tracks the coarse bin of a
+	 * given rank.
+	 */
+	private final class Histogram {
+
+		private final RandomAccess<T> access;
+		private final int[] counts;
+		private final double binMin, binWidth;
+		private final boolean exact;
+		private final long[] position;
+
+		/** Number of values per group of {@code 1 << shift} fine bins. */
+		private final int[] coarse;
+		private final int shift;
+
+		/** The coarse bin last selected. */
+		private int group;
+
+		/** The number of values below the selected coarse bin. */
+		private long below;
+
+		public Histogram(final RandomAccess<T> access, final int bins,
+			final double binMin, final double binWidth, final boolean exact)
+		{
+			this.access = access;
+			this.counts = new int[bins];
+			this.binMin = binMin;
+			this.binWidth = binWidth;
+			this.exact = exact;
+			position = new long[access.numDimensions()];
+			// NB: About the square root of the number of bins, per group.
+			final int bits = 32 - Integer.numberOfLeadingZeros(bins - 1);
+			shift = (bits + 1) / 2;
+			coarse = new int[((bins - 1) >> shift) + 1];
+		}
+
+		public void clear() {
+			// NB: Only groups holding values have fine bins to reset.
+			for (int g = 0; g < coarse.length; g++) {
+				if (coarse[g] == 0) continue;
+				Arrays.fill(counts, g << shift, Math.min(counts.length,
+					(g + 1) << shift), 0);
+				coarse[g] = 0;
+			}
+			group = 0;
+			below = 0;
+		}
+
+		public void add(final T value, final int delta) {
+			final int b = bin(value.getRealDouble());
+			counts[b] += delta;
+			final int g = b >> shift;
+			coarse[g] += delta;
+			if (g < group) below += delta;
+		}
+
+		/** Adds or removes all values of the given box. */
+		public void update(final long[] min, final long[] max, final int delta) {
+			final int numDims = min.length;
+			// NB: Iterate along the longest dimension of a slab.
+			final int inner = numDims == 1 || min[0] < max[0] ? 0 : 1;
+			System.arraycopy(min, 0, position, 0, numDims);
+			while (true) {
+				access.setPosition(position);
+				for (long i = min[inner]; i <= max[inner]; i++) {
+					add(access.get(), delta);
+					access.fwd(inner);
+				}
+				int d = 0;
+				for (; d < numDims; d++) {
+					if (d == inner) continue;
+					if (position[d] < max[d]) {
+						position[d]++;
+						break;
+					}
+					position[d] = min[d];
+				}
+				if (d == numDims) return;
+			}
+		}
+
+		/** Gets the value of the given rank. */
+		public double select(final long rank) {
+			while (below + coarse[group] <= rank) {
+				below += coarse[group++];
+			}
+			while (below > rank) {
+				below -= coarse[--group];
+			}
+			// find the fine bin within the coarse bin
+			int bin = group << shift;
+			long count = below;
+			while (count + counts[bin] <= rank) {
+				count += counts[bin++];
+			}
+			return exact ? binMin + bin : binMin + (bin + 0.5) * binWidth;
+		}
+
+		private int bin(final double value) {
+			if (exact) return (int) (value - binMin);
+			if (binWidth == 0) return 0;
+			final int b = (int) ((value - binMin) / binWidth);
+			return Math.max(0, Math.min(counts.length - 1, b));
+		}
+
+	}
+
+}
@@ -88,7 +88,9 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "convolve" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
+	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveImg.class,
+		net.imagej.ops.filter.convolve.ConvolveSeparable.class,
+		net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
 		net.imagej.ops.filter.convolve.ConvolveNaiveImg.class })
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		Img<O> convolve(final Img<I> in, final RandomAccessibleInterval<K> kernel)
@@ -100,7 +102,9 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "convolve" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
+	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveImg.class,
+		net.imagej.ops.filter.convolve.ConvolveSeparable.class,
+		net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
 		net.imagej.ops.filter.convolve.ConvolveNaiveImg.class })
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		Img<O> convolve(final Img<O> out, final Img<I> in,
@@ -113,7 +117,9 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "convolve" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
+	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveImg.class,
+		net.imagej.ops.filter.convolve.ConvolveSeparable.class,
+		net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
 		net.imagej.ops.filter.convolve.ConvolveNaiveImg.class })
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		Img<O> convolve(final Img<O> out, final Img<I> in,
@@ -126,7 +132,9 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "convolve" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
+	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveImg.class,
+		net.imagej.ops.filter.convolve.ConvolveSeparable.class,
+		net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
 		net.imagej.ops.filter.convolve.ConvolveNaiveImg.class })
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		Img<O> convolve(final Img<O> out, final Img<I> in,
@@ -141,7 +149,9 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "convolve" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
+	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveImg.class,
+		net.imagej.ops.filter.convolve.ConvolveSeparable.class,
+		net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
 		net.imagej.ops.filter.convolve.ConvolveNaiveImg.class })
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		Img<O> convolve(final Img<O> out, final Img<I> in,
@@ -157,7 +167,9 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "convolve" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
+	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveImg.class,
+		net.imagej.ops.filter.convolve.ConvolveSeparable.class,
+		net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
 		net.imagej.ops.filter.convolve.ConvolveNaiveImg.class })
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		Img<O> convolve(final Img<O> out, final Img<I> in,
@@ -174,7 +186,9 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "convolve" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
+	@OpMethod(ops = { net.imagej.ops.filter.convolve.ConvolveImg.class,
+		net.imagej.ops.filter.convolve.ConvolveSeparable.class,
+		net.imagej.ops.filter.convolve.ConvolveFFTImg.class,
 		net.imagej.ops.filter.convolve.ConvolveNaiveImg.class })
 	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
 		Img<O> convolve(final Img<O> out, final Img<I> in,
@@ -241,6 +255,39 @@ public class FilterNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	/** Executes the "convolve" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.filter.convolve.ConvolveFFTBlockwise.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> convolve(final RandomAccessibleInterval<O> out,
+			final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel,
+			final OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.filter.convolve.ConvolveFFTBlockwise.class, out, in,
+				kernel, obfInput);
+		return result;
+	}
+
+	/** Executes the "convolve" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.filter.convolve.ConvolveFFTBlockwise.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> convolve(final RandomAccessibleInterval<O> out,
+			final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel,
+			final OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput,
+			final long memoryBudget)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.filter.convolve.ConvolveFFTBlockwise.class, out, in,
+				kernel, obfInput, memoryBudget);
+		return result;
+	}
+
 	/** Executes the "convolve" operation on the given arguments. */
 	@OpMethod(op = net.imagej.ops.filter.convolve.ConvolveFFTRAI.class)
 	public
@@ -480,6 +527,39 @@ public class FilterNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	/** Executes the "correlate" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.filter.correlate.CorrelateFFTBlockwise.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> correlate(final RandomAccessibleInterval<O> out,
+			final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel,
+			final OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.filter.correlate.CorrelateFFTBlockwise.class, out, in,
+				kernel, obfInput);
+		return result;
+	}
+
+	/** Executes the "correlate" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.filter.correlate.CorrelateFFTBlockwise.class)
+	public <I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+		RandomAccessibleInterval<O> correlate(final RandomAccessibleInterval<O> out,
+			final RandomAccessibleInterval<I> in,
+			final RandomAccessibleInterval<K> kernel,
+			final OutOfBoundsFactory<I, RandomAccessibleInterval<I>> obfInput,
+			final long memoryBudget)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.filter.correlate.CorrelateFFTBlockwise.class, out, in,
+				kernel, obfInput, memoryBudget);
+		return result;
+	}
+
 	/** Executes the "correlate" operation on the given arguments. */
 	@OpMethod(op = net.imagej.ops.filter.correlate.CorrelateFFTRAI.class)
 	public
@@ -912,7 +992,8 @@ public class FilterNamespace extends AbstractNamespace {
 	// -- mean filter --
 	
 	/** Executes the "mean" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.mean.DefaultMeanFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.mean.IntegralMeanFilter.class,
+		net.imagej.ops.filter.mean.DefaultMeanFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> mean(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape)
@@ -920,12 +1001,13 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.mean.DefaultMeanFilter.class, out, in, shape);
+				Ops.Filter.Mean.NAME, out, in, shape);
 		return result;
 	}
 
 	/** Executes the "mean" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.mean.DefaultMeanFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.mean.IntegralMeanFilter.class,
+		net.imagej.ops.filter.mean.DefaultMeanFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> mean(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape,
@@ -934,15 +1016,15 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.mean.DefaultMeanFilter.class, out, in, shape,
-				outOfBoundsFactory);
+				Ops.Filter.Mean.NAME, out, in, shape, outOfBoundsFactory);
 		return result;
 	}
 
 	// -- non-linear filters --
 
 	/** Executes the "max" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.max.DefaultMaxFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.max.RunningMaxFilter.class,
+		net.imagej.ops.filter.max.DefaultMaxFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> max(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape)
@@ -950,12 +1032,13 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.max.DefaultMaxFilter.class, out, in, shape);
+				Ops.Filter.Max.NAME, out, in, shape);
 		return result;
 	}
 
 	/** Executes the "max" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.max.DefaultMaxFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.max.RunningMaxFilter.class,
+		net.imagej.ops.filter.max.DefaultMaxFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> max(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape,
@@ -964,13 +1047,13 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.max.DefaultMaxFilter.class, out, in, shape,
-				outOfBoundsFactory);
+				Ops.Filter.Max.NAME, out, in, shape, outOfBoundsFactory);
 		return result;
 	}
 
 	/** Executes the "median" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.median.DefaultMedianFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.median.HistogramMedianFilter.class,
+		net.imagej.ops.filter.median.DefaultMedianFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> median(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape)
@@ -978,12 +1061,13 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.median.DefaultMedianFilter.class, out, in, shape);
+				Ops.Filter.Median.NAME, out, in, shape);
 		return result;
 	}
 
 	/** Executes the "median" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.median.DefaultMedianFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.median.HistogramMedianFilter.class,
+		net.imagej.ops.filter.median.DefaultMedianFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> median(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape,
@@ -992,13 +1076,45 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.median.DefaultMedianFilter.class, out, in, shape,
-				outOfBoundsFactory);
+				Ops.Filter.Median.NAME, out, in, shape, outOfBoundsFactory);
+		return result;
+	}
+
+	/** Executes the "quantile" filter operation on the given arguments. */
+	@OpMethod(
+		op = net.imagej.ops.filter.quantile.HistogramQuantileFilter.class)
+	public <T extends RealType<T>> RandomAccessibleInterval<T> quantile(
+		final RandomAccessibleInterval<T> out,
+		final RandomAccessibleInterval<T> in, final Shape shape,
+		final double quantile)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<T> result =
+			(RandomAccessibleInterval<T>) ops().run(
+				net.imagej.ops.filter.quantile.HistogramQuantileFilter.class, out, in,
+				shape, quantile);
+		return result;
+	}
+
+	/** Executes the "quantile" filter operation on the given arguments. */
+	@OpMethod(
+		op = net.imagej.ops.filter.quantile.HistogramQuantileFilter.class)
+	public <T extends RealType<T>> RandomAccessibleInterval<T> quantile(
+		final RandomAccessibleInterval<T> out,
+		final RandomAccessibleInterval<T> in, final Shape shape,
+		final OutOfBoundsFactory<T, T> outOfBoundsFactory, final double quantile)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<T> result =
+			(RandomAccessibleInterval<T>) ops().run(
+				net.imagej.ops.filter.quantile.HistogramQuantileFilter.class, out, in,
+				shape, outOfBoundsFactory, quantile);
 		return result;
 	}
 
 	/** Executes the "min" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.min.DefaultMinFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.min.RunningMinFilter.class,
+		net.imagej.ops.filter.min.DefaultMinFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> min(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape)
@@ -1006,12 +1122,13 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.min.DefaultMinFilter.class, out, in, shape);
+				Ops.Filter.Min.NAME, out, in, shape);
 		return result;
 	}
 
 	/** Executes the "min" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.min.DefaultMinFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.min.RunningMinFilter.class,
+		net.imagej.ops.filter.min.DefaultMinFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> min(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape,
@@ -1020,8 +1137,7 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.min.DefaultMinFilter.class, out, in, shape,
-				outOfBoundsFactory);
+				Ops.Filter.Min.NAME, out, in, shape, outOfBoundsFactory);
 		return result;
 	}
 
@@ -1057,7 +1173,8 @@ public class FilterNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "variance" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.variance.DefaultVarianceFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.variance.IntegralVarianceFilter.class,
+		net.imagej.ops.filter.variance.DefaultVarianceFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> variance(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape)
@@ -1065,13 +1182,13 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.variance.DefaultVarianceFilter.class, out, in,
-				shape);
+				Ops.Filter.Variance.NAME, out, in, shape);
 		return result;
 	}
 
 	/** Executes the "variance" filter operation on the given arguments. */
-	@OpMethod(op = net.imagej.ops.filter.variance.DefaultVarianceFilter.class)
+	@OpMethod(ops = { net.imagej.ops.filter.variance.IntegralVarianceFilter.class,
+		net.imagej.ops.filter.variance.DefaultVarianceFilter.class })
 	public <T extends RealType<T>> RandomAccessibleInterval<T> variance(
 		final RandomAccessibleInterval<T> out,
 		final RandomAccessibleInterval<T> in, final Shape shape,
@@ -1080,8 +1197,7 @@ public class FilterNamespace extends AbstractNamespace {
 		@SuppressWarnings("unchecked")
 		final RandomAccessibleInterval<T> result =
 			(RandomAccessibleInterval<T>) ops().run(
-				net.imagej.ops.filter.variance.DefaultVarianceFilter.class, out, in,
-				shape, outOfBoundsFactory);
+				Ops.Filter.Variance.NAME, out, in, shape, outOfBoundsFactory);
 		return result;
 	}
 
@@ -0,0 +1,351 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter.convolve;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+import net.imagej.ops.OpService;
+import net.imagej.ops.filter.fftSize.ComputeFFTSize;
+import net.imglib2.Dimensions;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+
+/**
+ * Cost model choosing how to convolve an image with a kernel.
+ * <p>
+ * The work of each strategy is estimated from the size of the image, the
+ * size and {@link SeparableKernel decomposition} of the kernel, and the
+ * padded size of the FFT as computed by {@link ComputeFFTSize}. It is
+ * weighted by the time each strategy takes per unit of work on this machine,
+ * which is measured whenever a convolution runs long enough to be timed
+ * reliably.
+ * </p>
+ * <p>
+ * Measurements are kept for the session only, unless the
+ * {@value #FILE_PROPERTY} system property names a file to persist them to, so
+ * that the choice improves across sessions. The file is rewritten every
+ * {@value #SAVE_INTERVAL} measurements and when the JVM shuts down, by
+ * replacing it with a complete temporary file, so that concurrent readers
+ * never see a partial one.
+ * </p>
+ * 
+ * @author agent
+ */
+final class ConvolveCosts {
+
+	/** System property giving the file to persist the costs to. */
+	static final String FILE_PROPERTY = "imagej.ops.convolve.costs";
+
+	/** Minimum duration of a measured convolution, in nanoseconds. */
+	static final long MIN_MEASURED_TIME = 10000000;
+
+	/** Weight of a new measurement against the previous estimate. */
+	private static final double WEIGHT = 0.25;
+
+	/** Maximum factor by which a single measurement changes an estimate. */
+	private static final double MAX_CHANGE = 2;
+
+	/** Number of measurements after which the costs are saved. */
+	static final int SAVE_INTERVAL = 16;
+
+	/** The ways to convolve an image. */
+	enum Strategy {
+		/** Sums the products of every kernel element; see ConvolveNaiveImg. */
+		NAIVE(1),
+		/** Convolves each dimension in turn; see ConvolveSeparable. */
+		SEPARABLE(0.75),
+		/** Multiplies the transforms of image and kernel; see ConvolveFFTImg. */
+		FFT(4);
+
+		/** Default time per unit of work, in nanoseconds. */
+		private final double defaultCost;
+
+		private Strategy(final double defaultCost) {
+			this.defaultCost = defaultCost;
+		}
+	}
+
+	/** Time per unit of work of each strategy, in nanoseconds. */
+	private static Map<Strategy, Double> costs;
+
+	/** Number of measurements since the costs were last loaded or saved. */
+	private static int unsaved;
+
+	/** Whether the costs are saved when the JVM shuts down. */
+	private static boolean savedOnShutdown;
+
+	private ConvolveCosts() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	/**
+	 * Chooses the strategy which is estimated to convolve the given image
+	 * with the given kernel the fastest.
+	 * 
+	 * @param borderSize the border added to the image for the FFT, or null
+	 */
+	static Strategy choose(final OpService ops, final Dimensions image,
+		final RandomAccessibleInterval<? extends RealType<?>> kernel,
+		final long[] borderSize)
+	{
+		Strategy best = null;
+		double bestTime = Double.POSITIVE_INFINITY;
+		for (final Strategy strategy : Strategy.values()) {
+			final double time =
+				get(strategy) * work(strategy, ops, image, kernel, borderSize);
+			if (best == null || time < bestTime) {
+				best = strategy;
+				bestTime = time;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Estimates the work of convolving the given image with the given kernel
+	 * using the given strategy.
+	 * 
+	 * @param borderSize the border added to the image for the FFT, or null
+	 * @return the work, or {@link Double#POSITIVE_INFINITY} if the strategy
+	 *         does not apply
+	 */
+	static double work(final Strategy strategy, final OpService ops,
+		final Dimensions image,
+		final RandomAccessibleInterval<? extends RealType<?>> kernel,
+		final long[] borderSize)
+	{
+		final int numDims = image.numDimensions();
+		final double size = Intervals.numElements(image);
+		switch (strategy) {
+			case NAIVE:
+				return size * Intervals.numElements(kernel);
+			case SEPARABLE:
+				// each line, extended by the kernel, is read into an array
+				if (kernel.numDimensions() != numDims) break;
+				boolean fits = true;
+				for (int d = 0; d < numDims; d++) {
+					fits &= image.dimension(d) + kernel.dimension(d) - 1 <=
+						Integer.MAX_VALUE;
+				}
+				if (!fits) break;
+				final SeparableKernel separable = SeparableKernel.decompose(kernel);
+				if (separable == null) break;
+				return size * separable.cost(image);
+			case FFT:
+				final double padded = paddedSize(ops, image, kernel, borderSize);
+				return padded * Math.log(padded) / Math.log(2);
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/** Gets the time per unit of work of the given strategy, in nanoseconds. */
+	static synchronized double get(final Strategy strategy) {
+		if (costs == null) load();
+		return costs.get(strategy);
+	}
+
+	/**
+	 * Records that the given strategy took the given time, in nanoseconds, for
+	 * the given work. Measurements which are too short to be reliable are
+	 * ignored.
+	 */
+	static void update(final Strategy strategy, final double work,
+		final long time)
+	{
+		if (time < MIN_MEASURED_TIME || !(work > 0) || Double.isInfinite(work)) {
+			return;
+		}
+		final Properties properties;
+		synchronized (ConvolveCosts.class) {
+			final double previous = get(strategy);
+			final double measured = Math.max(previous / MAX_CHANGE, Math.min(
+				previous * MAX_CHANGE, time / work));
+			costs.put(strategy, (1 - WEIGHT) * previous + WEIGHT * measured);
+			if (++unsaved < SAVE_INTERVAL) {
+				saveOnShutdown();
+				return;
+			}
+			properties = snapshot();
+		}
+		write(properties);
+	}
+
+	/** Writes any measurements which are not saved yet to the file. */
+	static void save() {
+		final Properties properties;
+		synchronized (ConvolveCosts.class) {
+			if (unsaved == 0) return;
+			properties = snapshot();
+		}
+		write(properties);
+	}
+
+	/**
+	 * Reads the costs from the file given by the {@value #FILE_PROPERTY}
+	 * system property, falling back to the defaults for any costs which are
+	 * not recorded.
+	 */
+	static synchronized void load() {
+		costs = new EnumMap<Strategy, Double>(Strategy.class);
+		unsaved = 0;
+		final Properties properties = new Properties();
+		final File file = file();
+		if (file != null && file.exists()) {
+			try {
+				final InputStream in = new FileInputStream(file);
+				try {
+					properties.load(in);
+				}
+				finally {
+					in.close();
+				}
+			}
+			catch (final IOException e) {
+				// NB: Start over from the defaults.
+			}
+		}
+		for (final Strategy strategy : Strategy.values()) {
+			costs.put(strategy, parse(properties.getProperty(key(strategy)),
+				strategy.defaultCost));
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Copies the costs, and marks them as saved. */
+	private static Properties snapshot() {
+		final Properties properties = new Properties();
+		for (final Strategy strategy : Strategy.values()) {
+			properties.setProperty(key(strategy), costs.get(strategy).toString());
+		}
+		unsaved = 0;
+		return properties;
+	}
+
+	private static void saveOnShutdown() {
+		if (savedOnShutdown || file() == null) return;
+		savedOnShutdown = true;
+		Runtime.getRuntime().addShutdownHook(new Thread("ConvolveCosts") {
+
+			@Override
+			public void run() {
+				save();
+			}
+		});
+	}
+
+	/**
+	 * Writes the given costs to a temporary file next to the file, which then
+	 * replaces it.
+	 */
+	private static void write(final Properties properties) {
+		final File file = file();
+		if (file == null) return;
+		try {
+			final File dir = file.getAbsoluteFile().getParentFile();
+			if (!dir.exists()) dir.mkdirs();
+			final File temp = File.createTempFile(file.getName(), ".tmp", dir);
+			try {
+				final OutputStream out = new FileOutputStream(temp);
+				try {
+					properties.store(out,
+						"Convolution costs, in nanoseconds per unit of work");
+				}
+				finally {
+					out.close();
+				}
+				// NB: Renaming over an existing file fails on some platforms.
+				if (!temp.renameTo(file) && (!file.delete() || !temp.renameTo(file)))
+				{
+					throw new IOException("Cannot replace " + file);
+				}
+			}
+			finally {
+				temp.delete();
+			}
+		}
+		catch (final IOException e) {
+			// NB: The costs are then kept for this session only.
+		}
+	}
+
+	/** Gets the file to persist the costs to, or null if there is none. */
+	private static File file() {
+		final String path = System.getProperty(FILE_PROPERTY);
+		return path == null || path.isEmpty() ? null : new File(path);
+	}
+
+	private static String key(final Strategy strategy) {
+		return strategy.name().toLowerCase();
+	}
+
+	private static double parse(final String value, final double defaultValue) {
+		if (value == null) return defaultValue;
+		try {
+			final double cost = Double.parseDouble(value);
+			return cost > 0 && !Double.isInfinite(cost) ? cost : defaultValue;
+		}
+		catch (final NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Gets the number of elements of the image padded for the FFT, as by
+	 * {@link ConvolveFFTImg}.
+	 */
+	private static double paddedSize(final OpService ops, final Dimensions image,
+		final RandomAccessibleInterval<? extends RealType<?>> kernel,
+		final long[] borderSize)
+	{
+		final int numDims = image.numDimensions();
+		final long[] extendedDims = new long[numDims];
+		for (int d = 0; d < numDims; d++) {
+			extendedDims[d] = borderSize == null ? image.dimension(d) +
+				kernel.dimension(d) - 1 : Math.max(kernel.dimension(d), image
+				.dimension(d)) + 2 * borderSize[d];
+		}
+		final long[] paddedDims = new long[numDims];
+		ops.run(ComputeFFTSize.class, extendedDims, paddedDims,
+			new long[numDims], true, true);
+		return Intervals.numElements(paddedDims);
+	}
+
+}
@@ -30,16 +30,15 @@
 
 package net.imagej.ops.filter.convolve;
 
-import net.imagej.ops.Contingent;
 import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
 import net.imagej.ops.filter.AbstractFFTFilterImg;
+import net.imagej.ops.filter.convolve.ConvolveCosts.Strategy;
 import net.imglib2.Interval;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.img.Img;
 import net.imglib2.type.numeric.ComplexType;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.util.Intervals;
 
 import org.scijava.Priority;
 import org.scijava.plugin.Parameter;
@@ -47,6 +46,11 @@ import org.scijava.plugin.Plugin;
 
 /**
  * Convolve op for (@link Img)
+ * <p>
+ * {@link ConvolveImg} chooses this op when {@link ConvolveCosts} estimates it
+ * to be the fastest strategy, typically for large kernels which are not
+ * separable.
+ * </p>
  * 
  * @author Brian Northan
  * @param <I>
@@ -57,13 +61,20 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Filter.Convolve.class, name = Ops.Filter.Convolve.NAME,
 	priority = Priority.HIGH_PRIORITY)
 public class ConvolveFFTImg<I extends RealType<I>, O extends RealType<O>, K extends RealType<K>, C extends ComplexType<C>>
-	extends AbstractFFTFilterImg<I, O, K, C> implements Ops.Filter.Convolve,
-	Contingent
+	extends AbstractFFTFilterImg<I, O, K, C> implements Ops.Filter.Convolve
 {
 
 	@Parameter
 	private OpService ops;
 
+	@Override
+	public void compute(final Img<I> input, final Img<O> output) {
+		final long start = System.nanoTime();
+		super.compute(input, output);
+		ConvolveCosts.update(Strategy.FFT, ConvolveCosts.work(Strategy.FFT, ops,
+			input, getKernel(), getBorderSize()), System.nanoTime() - start);
+	}
+
 	/**
 	 * run the filter (ConvolveFFTRAI) on the rais
 	 */
@@ -76,11 +87,4 @@ public class ConvolveFFTImg<I extends RealType<I>, O extends RealType<O>, K exte
 			fftKernel, output);
 	}
 
-	@Override
-	public boolean conforms() {
-		// TODO: only conforms if the kernel is sufficiently large (else the
-		// naive approach should be used) -> what is a good heuristic??
-		return Intervals.numElements(getKernel()) > 9;
-	}
-
 }
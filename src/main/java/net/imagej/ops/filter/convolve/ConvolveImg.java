@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imagej.ops.filter.convolve;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.Op;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.filter.AbstractFilterImg;
+import net.imagej.ops.filter.convolve.ConvolveCosts.Strategy;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Convolves an image with whichever of {@link ConvolveNaiveImg},
+ * {@link ConvolveSeparable} and {@link ConvolveFFTImg} {@link ConvolveCosts}
+ * estimates to be the fastest.
+ * <p>
+ * The strategy is chosen once per call, so that the choice stays consistent
+ * while the costs are updated concurrently. Each convolver can still be run
+ * directly by its class.
+ * </p>
+ * 
+ * @author agent
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ */
+@Plugin(type = Ops.Filter.Convolve.class, name = Ops.Filter.Convolve.NAME,
+	priority = Priority.HIGH_PRIORITY + 2)
+public class ConvolveImg<I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+	extends AbstractFilterImg<I, O, K> implements Ops.Filter.Convolve, Contingent
+{
+
+	@Parameter
+	private OpService ops;
+
+	@Override
+	public void compute(final Img<I> input, final Img<O> output) {
+		final Strategy strategy =
+			ConvolveCosts.choose(ops, input, getKernel(), getBorderSize());
+		ops.run(convolver(strategy), output, input, getKernel(),
+			getBorderSize(), getOBFInput(), getOBFKernel());
+	}
+
+	@Override
+	public boolean conforms() {
+		return getInput() != null && getKernel() != null;
+	}
+
+	// -- Helper methods --
+
+	/** Gets the convolver implementing the given strategy. */
+	private static Class<? extends Op> convolver(final Strategy strategy) {
+		switch (strategy) {
+			case NAIVE:
+				return ConvolveNaiveImg.class;
+			case SEPARABLE:
+				return ConvolveSeparable.class;
+			default:
+				return ConvolveFFTImg.class;
+		}
+	}
+
+}
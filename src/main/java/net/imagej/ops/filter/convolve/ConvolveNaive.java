@@ -31,7 +31,6 @@
 package net.imagej.ops.filter.convolve;
 
 import net.imagej.ops.AbstractComputerOp;
-import net.imagej.ops.Contingent;
 import net.imagej.ops.Ops;
 import net.imglib2.Cursor;
 import net.imglib2.FinalInterval;
@@ -39,7 +38,6 @@ import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.util.Intervals;
 import net.imglib2.view.Views;
 
 import org.scijava.plugin.Parameter;
@@ -47,12 +45,16 @@ import org.scijava.plugin.Plugin;
 
 /**
  * Convolves an image naively.
+ * <p>
+ * Whether to convolve naively is decided for whole images, by
+ * {@link ConvolveImg}; this op convolves with any kernel it is given.
+ * </p>
  */
 @Plugin(type = Ops.Filter.Convolve.class, name = Ops.Filter.Convolve.NAME)
 public class ConvolveNaive<I extends RealType<I>, K extends RealType<K>, O extends RealType<O>>
 	extends
 	AbstractComputerOp<RandomAccessible<I>, RandomAccessibleInterval<O>>
-	implements Ops.Filter.Convolve, Contingent
+	implements Ops.Filter.Convolve
 {
 
 	@Parameter
@@ -62,7 +64,7 @@ public class ConvolveNaive<I extends RealType<I>, K extends RealType<K>, O exten
 	public void compute(final RandomAccessible<I> input,
 		final RandomAccessibleInterval<O> output)
 	{
-		// TODO: try a decomposition of the kernel into n 1-dim kernels
+		// NB: Separable kernels of Imgs are decomposed by ConvolveSeparable.
 
 		final long[] min = new long[input.numDimensions()];
 		final long[] max = new long[input.numDimensions()];
@@ -115,10 +117,4 @@ public class ConvolveNaive<I extends RealType<I>, K extends RealType<K>, O exten
 		}
 	}
 
-	@Override
-	public boolean conforms() {
-		// conforms only if the kernel is sufficiently small
-		return Intervals.numElements(kernel) <= 9;
-	}
-
 }
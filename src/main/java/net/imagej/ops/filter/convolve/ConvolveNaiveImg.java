@@ -30,16 +30,15 @@
 
 package net.imagej.ops.filter.convolve;
 
-import net.imagej.ops.Contingent;
 import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
 import net.imagej.ops.filter.AbstractFilterImg;
+import net.imagej.ops.filter.convolve.ConvolveCosts.Strategy;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.img.Img;
 import net.imglib2.outofbounds.OutOfBoundsConstantValueFactory;
 import net.imglib2.outofbounds.OutOfBoundsFactory;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.util.Intervals;
 import net.imglib2.util.Util;
 import net.imglib2.view.Views;
 
@@ -49,11 +48,15 @@ import org.scijava.plugin.Plugin;
 
 /**
  * Convolves an image naively (no FFTs).
+ * <p>
+ * {@link ConvolveImg} chooses this op when {@link ConvolveCosts} estimates it
+ * to be the fastest strategy, typically for small kernels.
+ * </p>
  */
 @Plugin(type = Ops.Filter.Convolve.class, name = Ops.Filter.Convolve.NAME,
 	priority = Priority.HIGH_PRIORITY)
 public class ConvolveNaiveImg<I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
-	extends AbstractFilterImg<I, O, K> implements Ops.Filter.Convolve, Contingent
+	extends AbstractFilterImg<I, O, K> implements Ops.Filter.Convolve
 {
 
 	@Parameter
@@ -61,6 +64,7 @@ public class ConvolveNaiveImg<I extends RealType<I>, O extends RealType<O>, K ex
 
 	@Override
 	public void compute(final Img<I> img, final Img<O> out) {
+		final long start = System.nanoTime();
 		if (getOBFInput() == null) {
 			setOBFInput(new OutOfBoundsConstantValueFactory<I, RandomAccessibleInterval<I>>(
 				Util.getTypeFromInterval(img).createVariable()));
@@ -84,12 +88,8 @@ public class ConvolveNaiveImg<I extends RealType<I>, O extends RealType<O>, K ex
 			Views.interval(Views.extend(out, obfOutput), out);
 
 		ops.filter().convolve(extendedOut, extendedIn, getKernel());
-	}
-
-	@Override
-	public boolean conforms() {
-		// conforms only if the kernel is sufficiently small
-		return Intervals.numElements(getKernel()) <= 9;
+		ConvolveCosts.update(Strategy.NAIVE, ConvolveCosts.work(Strategy.NAIVE,
+			ops, img, getKernel(), getBorderSize()), System.nanoTime() - start);
 	}
 
 }
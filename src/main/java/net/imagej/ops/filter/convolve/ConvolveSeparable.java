@@ -0,0 +1,214 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter.convolve;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.filter.AbstractFilterImg;
+import net.imagej.ops.filter.convolve.ConvolveCosts.Strategy;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.AbstractLongChunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.outofbounds.OutOfBoundsConstantValueFactory;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Convolves an image with a kernel which is the sum of few separable terms,
+ * one dimension at a time (no FFTs).
+ * <p>
+ * Each term of the {@link SeparableKernel decomposed kernel} is applied as a
+ * sequence of one-dimensional convolutions, which read every line into a
+ * primitive buffer and are computed in parallel across lines. The passes in
+ * between are stored in {@link DoubleType} images, and the terms are summed in
+ * one too, unless there is a single term, which is written to the output
+ * directly. This costs the sum of the kernel sizes per pixel and term,
+ * instead of their product, so that it beats {@link ConvolveFFTImg} for
+ * large separable kernels, like Gaussians. The op conforms whenever the
+ * kernel is separable; {@link ConvolveImg} chooses it when
+ * {@link ConvolveCosts} estimates it to be the fastest strategy.
+ * </p>
+ * 
+ * @author agent
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ */
+@Plugin(type = Ops.Filter.Convolve.class, name = Ops.Filter.Convolve.NAME,
+	priority = Priority.HIGH_PRIORITY + 1)
+public class ConvolveSeparable<I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+	extends AbstractFilterImg<I, O, K> implements Ops.Filter.Convolve,
+	Contingent, Parallel
+{
+
+	@Parameter
+	private OpService ops;
+
+	@Override
+	public void compute(final Img<I> input, final Img<O> output) {
+		final long start = System.nanoTime();
+		final SeparableKernel separable = SeparableKernel.decompose(getKernel());
+		if (separable == null) {
+			throw new IllegalArgumentException("Kernel is not separable");
+		}
+		if (getOBFInput() == null) {
+			setOBFInput(new OutOfBoundsConstantValueFactory<I, RandomAccessibleInterval<I>>(
+				Util.getTypeFromInterval(input).createVariable()));
+		}
+		final RandomAccessible<I> extended = Views.extend(input, getOBFInput());
+
+		// NB: Several terms are summed at double precision before the output.
+		final RandomAccessibleInterval<? extends RealType<?>> sum =
+			separable.rank() == 1 ? output : ops.create().img(input,
+				new DoubleType());
+
+		// sum the terms, one pass per dimension each
+		final int numDims = input.numDimensions();
+		for (int t = 0; t < separable.rank(); t++) {
+			final long[] min = new long[numDims];
+			final long[] max = new long[numDims];
+			for (int d = 0; d < numDims; d++) {
+				final int length = separable.factor(t, d).length;
+				min[d] = input.min(d) - length + 1 + length / 2;
+				max[d] = input.max(d) + length / 2;
+			}
+			RandomAccessible<? extends RealType<?>> source = extended;
+			for (int d = 0; d < numDims; d++) {
+				min[d] = input.min(d);
+				max[d] = input.max(d);
+				final RandomAccessibleInterval<? extends RealType<?>> target =
+					d == numDims - 1 ? sum : ops.create().img(
+						new FinalInterval(min, max), new DoubleType());
+				convolve(source, target, d, separable.factor(t, d), d == numDims - 1 &&
+					t > 0);
+				source = target;
+			}
+		}
+
+		if (sum != output) {
+			final Cursor<? extends RealType<?>> from =
+				Views.flatIterable(sum).cursor();
+			final Cursor<O> to = Views.flatIterable(output).cursor();
+			while (to.hasNext()) {
+				to.next().setReal(from.next().getRealDouble());
+			}
+		}
+		ConvolveCosts.update(Strategy.SEPARABLE, Intervals.numElements(input) *
+			separable.cost(input), System.nanoTime() - start);
+	}
+
+	@Override
+	public boolean conforms() {
+		if (getInput() == null) return false;
+		return !Double.isInfinite(ConvolveCosts.work(Strategy.SEPARABLE, ops,
+			getInput(), getKernel(), getBorderSize()));
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Convolves every line of the target along the given dimension with the
+	 * given one-dimensional kernel, reading the source over the line extended
+	 * by the kernel.
+	 * 
+	 * @param accumulate whether to add to the target, rather than overwrite it
+	 */
+	private void convolve(final RandomAccessible<? extends RealType<?>> source,
+		final RandomAccessibleInterval<? extends RealType<?>> target,
+		final int dim, final double[] kernel, final boolean accumulate)
+	{
+		final int numDims = target.numDimensions();
+		final int last = kernel.length - 1;
+		final int targetLength = (int) target.dimension(dim);
+		final long numLines = Intervals.numElements(target) / targetLength;
+
+		ops.run(ChunkerOp.class, new AbstractLongChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final RandomAccess<? extends RealType<?>> in = source.randomAccess();
+				final RandomAccess<? extends RealType<?>> out = target.randomAccess();
+				final double[] line = new double[targetLength + last];
+
+				for (long i = 0; i < numSteps && !monitor.isCanceled(); i++) {
+					// locate the line
+					long index = startIndex + i * stepSize;
+					for (int d = 0; d < numDims; d++) {
+						if (d == dim) continue;
+						final long x = target.min(d) + index % target.dimension(d);
+						in.setPosition(x, d);
+						out.setPosition(x, d);
+						index /= target.dimension(d);
+					}
+
+					// read the line
+					in.setPosition(target.min(dim) - last + kernel.length / 2, dim);
+					for (int x = 0; x < line.length; x++) {
+						line[x] = in.get().getRealDouble();
+						in.fwd(dim);
+					}
+
+					// convolve the line
+					out.setPosition(target.min(dim), dim);
+					for (int x = 0; x < targetLength; x++) {
+						double value = 0;
+						for (int k = 0; k <= last; k++) {
+							value += kernel[k] * line[x + last - k];
+						}
+						final RealType<?> t = out.get();
+						t.setReal(accumulate ? t.getRealDouble() + value : value);
+						out.fwd(dim);
+					}
+				}
+			}
+		}, numLines);
+	}
+
+}
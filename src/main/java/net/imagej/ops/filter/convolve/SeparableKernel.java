@@ -0,0 +1,335 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter.convolve;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.imglib2.Cursor;
+import net.imglib2.Dimensions;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * A convolution kernel written as a sum of outer products of one-dimensional
+ * kernels, one per dimension.
+ * <p>
+ * A kernel which is such an outer product, like a Gaussian, is called
+ * separable: convolving with it amounts to convolving with each of its
+ * one-dimensional factors in turn, which costs the sum rather than the product
+ * of the kernel sizes per pixel. A two-dimensional kernel of rank {@code r}
+ * is the sum of {@code r} such products, found by a singular value
+ * decomposition; kernels of other dimensionality are only recognized when
+ * they are separable.
+ * </p>
+ * <p>
+ * The decomposition of each kernel is cached, as every convolver considered
+ * for it asks for it while the op is matched, and again when it runs; it is
+ * computed anew when the values of the kernel change.
+ * </p>
+ * 
+ * @author agent
+ */
+final class SeparableKernel {
+
+	/**
+	 * Relative error, in the Frobenius norm, up to which a decomposition is
+	 * considered exact. This is about the precision of a kernel stored as
+	 * {@code float}s.
+	 */
+	static final double TOLERANCE = 1e-6;
+
+	/** Maximum number of elements of a kernel to decompose by SVD. */
+	private static final long MAX_SVD_SIZE = 1 << 16;
+
+	/** Maximum number of sweeps of the Jacobi SVD. */
+	private static final int MAX_SWEEPS = 64;
+
+	/** Last decomposition of each kernel, keyed by the kernel. */
+	private static final Map<Object, Decomposition> cache =
+		new WeakHashMap<Object, Decomposition>();
+
+	/** One-dimensional factors, indexed by term and dimension. */
+	private final double[][][] factors;
+
+	private SeparableKernel(final double[][][] factors) {
+		this.factors = factors;
+	}
+
+	/**
+	 * Decomposes the given kernel.
+	 * 
+	 * @return the decomposition, or null if the kernel is not the sum of few
+	 *         enough separable terms, or is zero
+	 */
+	static SeparableKernel decompose(
+		final RandomAccessibleInterval<? extends RealType<?>> kernel)
+	{
+		final int numDims = kernel.numDimensions();
+		final long size = Intervals.numElements(kernel);
+		if (size > Integer.MAX_VALUE) return null;
+		final double[] values = new double[(int) size];
+		final Cursor<? extends RealType<?>> cursor =
+			Views.flatIterable(kernel).cursor();
+		double norm = 0;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = cursor.next().getRealDouble();
+			norm += values[i] * values[i];
+		}
+		// NB: A zero kernel has no meaningful relative tolerance.
+		if (norm == 0) return null;
+
+		synchronized (cache) {
+			final Decomposition cached = cache.get(kernel);
+			if (cached != null && Arrays.equals(cached.values, values)) {
+				return cached.kernel;
+			}
+		}
+		final int[] dims = new int[numDims];
+		for (int d = 0; d < numDims; d++) {
+			dims[d] = (int) kernel.dimension(d);
+		}
+		final SeparableKernel separable =
+			numDims == 2 && size <= MAX_SVD_SIZE ? decomposeSVD(values, dims[0],
+				dims[1], norm) : decomposeSeparable(values, dims, norm);
+		synchronized (cache) {
+			cache.put(kernel, new Decomposition(values, separable));
+		}
+		return separable;
+	}
+
+	/** Gets the number of terms. */
+	int rank() {
+		return factors.length;
+	}
+
+	/** Gets the factor of the given term along the given dimension. */
+	double[] factor(final int term, final int dim) {
+		return factors[term][dim];
+	}
+
+	/**
+	 * Estimates the number of multiply-adds per pixel needed to convolve an
+	 * image of the given dimensions with this kernel, one dimension after the
+	 * other. Each pass computes its dimension over the image, and the
+	 * remaining dimensions over the image extended by the kernel.
+	 */
+	double cost(final Dimensions image) {
+		final int numDims = image.numDimensions();
+		double total = 0;
+		for (int d = 0; d < numDims; d++) {
+			double volume = factors[0][d].length;
+			for (int e = 0; e < numDims; e++) {
+				final double n = image.dimension(e);
+				volume *= e <= d ? 1 : (n + factors[0][e].length - 1) / n;
+			}
+			total += volume;
+		}
+		return rank() * total;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Decomposes a kernel of the given dimensions, whose values are given in
+	 * flat iteration order, into a single separable term, if possible.
+	 * <p>
+	 * The factors are the lines through the element of largest magnitude.
+	 * </p>
+	 */
+	private static SeparableKernel decomposeSeparable(final double[] values,
+		final int[] dims, final double norm)
+	{
+		final int numDims = dims.length;
+		int pivot = 0;
+		for (int i = 1; i < values.length; i++) {
+			if (Math.abs(values[i]) > Math.abs(values[pivot])) pivot = i;
+		}
+		final double[][] term = new double[numDims][];
+		final int[] pos = new int[numDims];
+		int stride = 1;
+		for (int d = 0; d < numDims; d++) {
+			pos[d] = pivot / stride % dims[d];
+			final double scale = d == 0 ? 1 : values[pivot];
+			term[d] = new double[dims[d]];
+			for (int x = 0; x < dims[d]; x++) {
+				term[d][x] = values[pivot + (x - pos[d]) * stride] / scale;
+			}
+			stride *= dims[d];
+		}
+
+		// check the product against the kernel
+		double error = 0;
+		for (int i = 0; i < values.length; i++) {
+			double product = 1;
+			int index = i;
+			for (int d = 0; d < numDims; d++) {
+				product *= term[d][index % dims[d]];
+				index /= dims[d];
+			}
+			error += (values[i] - product) * (values[i] - product);
+		}
+		if (error > TOLERANCE * TOLERANCE * norm) return null;
+		return new SeparableKernel(new double[][][] { term });
+	}
+
+	/**
+	 * Decomposes a two-dimensional kernel, whose values are given in flat
+	 * iteration order, by a one-sided Jacobi singular value decomposition. The
+	 * terms are the singular triplets, in order of decreasing singular value,
+	 * until the remaining ones are negligible.
+	 */
+	private static SeparableKernel decomposeSVD(final double[] values,
+		final int width, final int height, final double norm)
+	{
+		// NB: Orthogonalize the shorter side, as the rank cannot exceed it.
+		final boolean transpose = height > width;
+		final int numCols = transpose ? width : height;
+		final int numRows = transpose ? height : width;
+		final double[][] u = new double[numCols][numRows];
+		final double[][] v = new double[numCols][numCols];
+		for (int c = 0; c < numCols; c++) {
+			for (int r = 0; r < numRows; r++) {
+				u[c][r] = values[transpose ? c + r * width : r + c * width];
+			}
+			v[c][c] = 1;
+		}
+
+		for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+			boolean rotated = false;
+			for (int p = 0; p < numCols - 1; p++) {
+				for (int q = p + 1; q < numCols; q++) {
+					rotated |= rotate(u[p], u[q], v[p], v[q]);
+				}
+			}
+			if (!rotated) break;
+		}
+
+		// sort the terms by singular value
+		final Integer[] order = new Integer[numCols];
+		final double[] squares = new double[numCols];
+		for (int c = 0; c < numCols; c++) {
+			order[c] = c;
+			squares[c] = dot(u[c], u[c]);
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				return Double.compare(squares[b], squares[a]);
+			}
+		});
+
+		// keep terms until the remainder is negligible
+		double remainder = 0;
+		for (int c = 0; c < numCols; c++) {
+			remainder += squares[c];
+		}
+		int rank = 0;
+		while (rank < numCols && remainder > TOLERANCE * TOLERANCE * norm) {
+			remainder -= squares[order[rank++]];
+		}
+
+		final double[][][] factors = new double[rank][][];
+		for (int t = 0; t < rank; t++) {
+			final int c = order[t];
+			factors[t] = transpose ? new double[][] { v[c], u[c] }
+				: new double[][] { u[c], v[c] };
+		}
+		return new SeparableKernel(factors);
+	}
+
+	/**
+	 * Rotates two columns of the SVD so that they become orthogonal, applying
+	 * the same rotation to the corresponding columns of V.
+	 * 
+	 * @return true iff the columns were not orthogonal yet
+	 */
+	private static boolean rotate(final double[] up, final double[] uq,
+		final double[] vp, final double[] vq)
+	{
+		final double alpha = dot(up, up);
+		final double beta = dot(uq, uq);
+		final double gamma = dot(up, uq);
+		if (Math.abs(gamma) <= 1e-15 * Math.sqrt(alpha * beta)) return false;
+
+		final double zeta = (beta - alpha) / (2 * gamma);
+		final double t =
+			(zeta < 0 ? -1 : 1) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+		final double c = 1 / Math.sqrt(1 + t * t);
+		final double s = c * t;
+		rotate(up, uq, c, s);
+		rotate(vp, vq, c, s);
+		return true;
+	}
+
+	private static void rotate(final double[] a, final double[] b,
+		final double c, final double s)
+	{
+		for (int i = 0; i < a.length; i++) {
+			final double x = a[i];
+			final double y = b[i];
+			a[i] = c * x - s * y;
+			b[i] = s * x + c * y;
+		}
+	}
+
+	private static double dot(final double[] a, final double[] b) {
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+
+	// -- Helper classes --
+
+	/** Decomposition of a kernel with the given values. */
+	private static class Decomposition {
+
+		private final double[] values;
+
+		/** The decomposition, or null if there is none. */
+		private final SeparableKernel kernel;
+
+		private Decomposition(final double[] values,
+			final SeparableKernel kernel)
+		{
+			this.values = values;
+			this.kernel = kernel;
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.filter.correlate;
+
+import net.imagej.ops.Ops;
+import net.imagej.ops.filter.AbstractBlockwiseFFTFilterRAI;
+import net.imglib2.Cursor;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.complex.ComplexFloatType;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Correlate op for (@link RandomAccessibleInterval) which transforms the image
+ * block by block, so that its memory use is bounded whatever the size of the
+ * image.
+ * 
+ * @author agent
+ * @param <I>
+ * @param <O>
+ * @param <K>
+ */
+@Plugin(type = Ops.Filter.Correlate.class, name = Ops.Filter.Correlate.NAME,
+	priority = Priority.LOW_PRIORITY)
+public class CorrelateFFTBlockwise<I extends RealType<I>, O extends RealType<O>, K extends RealType<K>>
+	extends AbstractBlockwiseFFTFilterRAI<I, O, K> implements
+	Ops.Filter.Correlate
+{
+
+	@Override
+	protected long inputOffset(final long kernelSize) {
+		// NB: The center of the kernel is applied to the output position.
+		return -(kernelSize / 2);
+	}
+
+	@Override
+	protected long validOffset(final long kernelSize) {
+		return 0;
+	}
+
+	@Override
+	protected void frequencyOperation(final Img<ComplexFloatType> a,
+		final Img<ComplexFloatType> b)
+	{
+		final Cursor<ComplexFloatType> cursorA = a.cursor();
+		final Cursor<ComplexFloatType> cursorB = b.cursor();
+		final ComplexFloatType temp = new ComplexFloatType();
+
+		while (cursorA.hasNext()) {
+			temp.set(cursorB.next());
+			temp.complexConjugate();
+			cursorA.next().mul(temp);
+		}
+	}
+
+}
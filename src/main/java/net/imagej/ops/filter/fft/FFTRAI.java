@@ -35,6 +35,7 @@ import java.util.concurrent.Executors;
 
 import net.imagej.ops.AbstractComputerOp;
 import net.imagej.ops.Ops;
+import net.imagej.ops.thread.ExecutionContext;
 import net.imglib2.FinalDimensions;
 import net.imglib2.Interval;
 import net.imglib2.RandomAccessibleInterval;
@@ -109,14 +110,23 @@ public class FFTRAI<T extends RealType<T>, C extends ComplexType<C>>
 			inputRAI = input;
 		}
 
-		// TODO: proper use of Executor service
-		final int numThreads = Runtime.getRuntime().availableProcessors();
-		final ExecutorService service = Executors.newFixedThreadPool(numThreads);
+		// NB: Within a parallel op, the threads of the context executor may all
+		// be waiting on this one, so FFTMethods gets threads of its own.
+		final ExecutionContext context = ExecutionContext.current();
+		final ExecutorService service =
+			context.getExecutor() != null && context.getDepth() == 0 ? context
+				.getExecutor() : Executors.newFixedThreadPool(context
+				.getParallelism());
 
-		FFTMethods.realToComplex(inputRAI, output, 0, false, service);
+		try {
+			FFTMethods.realToComplex(inputRAI, output, 0, false, service);
 
-		for (int d = 1; d < input.numDimensions(); d++)
-			FFTMethods.complexToComplex(output, d, true, false, service);
+			for (int d = 1; d < input.numDimensions(); d++)
+				FFTMethods.complexToComplex(output, d, true, false, service);
+		}
+		finally {
+			if (service != context.getExecutor()) service.shutdown();
+		}
 	}
 
 }
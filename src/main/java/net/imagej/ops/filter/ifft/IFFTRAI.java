@@ -35,6 +35,7 @@ import java.util.concurrent.Executors;
 
 import net.imagej.ops.AbstractComputerOp;
 import net.imagej.ops.Ops;
+import net.imagej.ops.thread.ExecutionContext;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.fft2.FFTMethods;
 import net.imglib2.type.numeric.ComplexType;
@@ -60,15 +61,24 @@ public class IFFTRAI<C extends ComplexType<C>, T extends RealType<T>>
 	public void compute(final RandomAccessibleInterval<C> input,
 		final RandomAccessibleInterval<T> output)
 	{
-		// TODO: proper use of Executor service
-		final int numThreads = Runtime.getRuntime().availableProcessors();
-		final ExecutorService service = Executors.newFixedThreadPool(numThreads);
+		// NB: Within a parallel op, the threads of the context executor may all
+		// be waiting on this one, so FFTMethods gets threads of its own.
+		final ExecutionContext context = ExecutionContext.current();
+		final ExecutorService service =
+			context.getExecutor() != null && context.getDepth() == 0 ? context
+				.getExecutor() : Executors.newFixedThreadPool(context
+				.getParallelism());
 
-		for (int d = input.numDimensions() - 1; d > 0; d--)
-			FFTMethods.complexToComplex(input, d, false, true, service);
+		try {
+			for (int d = input.numDimensions() - 1; d > 0; d--)
+				FFTMethods.complexToComplex(input, d, false, true, service);
 
-		FFTMethods.complexToReal(input, output, FFTMethods
-			.unpaddingIntervalCentered(input, output), 0, true, service);
+			FFTMethods.complexToReal(input, output, FFTMethods
+				.unpaddingIntervalCentered(input, output), 0, true, service);
+		}
+		finally {
+			if (service != context.getExecutor()) service.shutdown();
+		}
 	}
 
 }
@@ -213,6 +213,54 @@ public class ImageNamespace extends AbstractNamespace {
 		return result;
 	}
 
+	// -- integral --
+
+	/** Executes the "integral" operation on the given arguments. */
+	@OpMethod(op = Ops.Image.Integral.class)
+	public Object integral(final Object... args) {
+		return ops().run(Ops.Image.Integral.NAME, args);
+	}
+
+	/** Executes the "integral" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.image.integral.DefaultIntegralImg.class)
+	public <I extends RealType<I>, O extends RealType<O>>
+		RandomAccessibleInterval<O> integral(final RandomAccessibleInterval<I> in)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.image.integral.DefaultIntegralImg.class, in);
+		return result;
+	}
+
+	/** Executes the "integral" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.image.integral.DefaultIntegralImg.class)
+	public <I extends RealType<I>, O extends RealType<O>>
+		RandomAccessibleInterval<O> integral(final RandomAccessibleInterval<I> in,
+			final int order)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.image.integral.DefaultIntegralImg.class, null, in,
+				order);
+		return result;
+	}
+
+	/** Executes the "integral" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.image.integral.DefaultIntegralImg.class)
+	public <I extends RealType<I>, O extends RealType<O>>
+		RandomAccessibleInterval<O> integral(final RandomAccessibleInterval<O> out,
+			final RandomAccessibleInterval<I> in, final int order)
+	{
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> result =
+			(RandomAccessibleInterval<O>) ops().run(
+				net.imagej.ops.image.integral.DefaultIntegralImg.class, out, in,
+				order);
+		return result;
+	}
+
 	// -- invert --
 
 	/** Executes the "invert" operation on the given arguments. */
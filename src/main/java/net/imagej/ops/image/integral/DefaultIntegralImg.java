@@ -0,0 +1,244 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.image.integral;
+
+import net.imagej.ops.AbstractHybridOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.FinalDimensions;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.view.Views;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Computes the integral image (summed-area table) of an n-dimensional image,
+ * i.e. the sums of the input values, raised to the given power, over all
+ * boxes spanning from the minimum of the input to each position.
+ * <p>
+ * The output is one larger than the input in every dimension: its first row
+ * (resp. plane, ...) along each dimension is zero, and the element at offset
+ * {@code x + 1} from its minimum holds the sum over the input elements at
+ * offsets {@code 0..x}. The sum over any box of the input then follows from
+ * the {@code 2^n} corners of the box in the integral image.
+ * </p>
+ * <p>
+ * Integer inputs are summed into {@link LongType}s, when the output is
+ * created by this op and the powers of the values have at most 32 bits, and
+ * any other input into {@link DoubleType}s. Sums into an {@link IntegerType}
+ * output are exact: even if the sums over the whole image overflow, the sums
+ * over boxes computed from them are correct as long as they fit.
+ * </p>
+ * 
+ * @author agent
+ * @param <I> type of the input
+ * @param <O> type of the sums
+ */
+@Plugin(type = Ops.Image.Integral.class, name = Ops.Image.Integral.NAME)
+public class DefaultIntegralImg<I extends RealType<I>, O extends RealType<O>>
+	extends
+	AbstractHybridOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<O>>
+	implements Ops.Image.Integral, Contingent, Parallel
+{
+
+	/** The power to which the input values are raised, e.g. 2 for squares. */
+	@Parameter(required = false)
+	private int order = 1;
+
+	@Parameter
+	private OpService ops;
+
+	@Override
+	public boolean conforms() {
+		if (order < 1) return false;
+		final RandomAccessibleInterval<O> output = getOutput();
+		if (output == null) return true;
+		final RandomAccessibleInterval<I> input = getInput();
+		if (input.numDimensions() != output.numDimensions()) return false;
+		for (int d = 0; d < input.numDimensions(); d++) {
+			if (input.dimension(d) + 1 != output.dimension(d)) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public RandomAccessibleInterval<O> createOutput(
+		final RandomAccessibleInterval<I> input)
+	{
+		final long[] dims = new long[input.numDimensions()];
+		for (int d = 0; d < dims.length; d++) {
+			dims[d] = input.dimension(d) + 1;
+		}
+		final I type = input.randomAccess().get();
+		final RealType<?> sumType =
+			type instanceof IntegerType && type.getBitsPerPixel() * order <= 32
+				? new LongType() : new DoubleType();
+		@SuppressWarnings("unchecked")
+		final RandomAccessibleInterval<O> output =
+			(RandomAccessibleInterval<O>) ops.create().img(new FinalDimensions(dims),
+				sumType);
+		return output;
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<O> output)
+	{
+		final boolean exact = input.randomAccess().get() instanceof IntegerType &&
+			output.randomAccess().get() instanceof IntegerType;
+
+		// copy the powers of the values, leaving a border of zeroes
+		final IterableInterval<O> all = Views.iterable(output);
+		ops.run(ChunkerOp.class, new CursorBasedChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final Cursor<O> cursor = all.localizingCursor();
+				final RandomAccess<I> access = input.randomAccess();
+				setToStart(cursor, startIndex);
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					if (setInputPosition(cursor, access, input, output)) {
+						power(access.get(), cursor.get(), exact);
+					}
+					else {
+						cursor.get().setZero();
+					}
+					cursor.jumpFwd(stepSize);
+					ctr++;
+				}
+			}
+		}, all.size(), all);
+
+		// accumulate along each dimension in turn
+		for (int d = 0; d < output.numDimensions(); d++) {
+			accumulate(output, d);
+		}
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Positions the input access at the element which belongs to the given
+	 * output position.
+	 * 
+	 * @return false iff the output position is on the zero border
+	 */
+	private boolean setInputPosition(final Cursor<O> cursor,
+		final RandomAccess<I> access, final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<O> output)
+	{
+		for (int d = 0; d < output.numDimensions(); d++) {
+			final long offset = cursor.getLongPosition(d) - output.min(d);
+			if (offset == 0) return false;
+			access.setPosition(input.min(d) + offset - 1, d);
+		}
+		return true;
+	}
+
+	private void power(final I value, final O result, final boolean exact) {
+		if (exact) {
+			final long v = ((IntegerType<?>) value).getIntegerLong();
+			long p = v;
+			for (int i = 1; i < order; i++) {
+				p *= v;
+			}
+			((IntegerType<?>) result).setInteger(p);
+		}
+		else {
+			final double v = value.getRealDouble();
+			double p = v;
+			for (int i = 1; i < order; i++) {
+				p *= v;
+			}
+			result.setReal(p);
+		}
+	}
+
+	/** Replaces each line along the given dimension by its running sums. */
+	private void accumulate(final RandomAccessibleInterval<O> output,
+		final int dim)
+	{
+		final long[] min = new long[output.numDimensions()];
+		final long[] max = new long[output.numDimensions()];
+		output.min(min);
+		output.max(max);
+		max[dim] = min[dim];
+		final IterableInterval<O> starts = Views.interval(output, min, max);
+		final long length = output.dimension(dim);
+
+		ops.run(ChunkerOp.class, new CursorBasedChunk() {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final Cursor<O> cursor = starts.localizingCursor();
+				final RandomAccess<O> access = output.randomAccess();
+				setToStart(cursor, startIndex);
+				final O sum = cursor.get().createVariable();
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					access.setPosition(cursor);
+					sum.set(access.get());
+					for (long i = 1; i < length; i++) {
+						access.fwd(dim);
+						sum.add(access.get());
+						access.get().set(sum);
+					}
+					cursor.jumpFwd(stepSize);
+					ctr++;
+				}
+			}
+		}, starts.size(), starts);
+	}
+
+}
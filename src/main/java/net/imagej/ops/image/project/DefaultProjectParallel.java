@@ -38,6 +38,9 @@ import net.imagej.ops.Contingent;
 import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
 import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerBlockwise;
 import net.imagej.ops.thread.chunker.ChunkerOp;
 import net.imagej.ops.thread.chunker.CursorBasedChunk;
 import net.imglib2.Cursor;
@@ -70,19 +73,20 @@ public class DefaultProjectParallel<T, V> extends
 	public void compute(final RandomAccessibleInterval<T> input,
 		final IterableInterval<V> output)
 	{
-		opService.run(ChunkerOp.class, new CursorBasedChunk() {
+		final CursorBasedChunk chunk = new CursorBasedChunk(method) {
 
 			@Override
 			public void
-				execute(int startIndex, final int stepSize, final int numSteps)
+				execute(long startIndex, final long stepSize, final long numSteps)
 			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
 				final RandomAccess<T> access = input.randomAccess();
 				final Cursor<V> cursor = output.localizingCursor();
 
 				setToStart(cursor, startIndex);
 
-				int ctr = 0;
-				while (ctr < numSteps) {
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
 					for (int d = 0; d < input.numDimensions(); d++) {
 						if (d != dim) {
 							access
@@ -97,7 +101,11 @@ public class DefaultProjectParallel<T, V> extends
 					ctr++;
 				}
 			}
-		}, output.size());
+		};
+		if (ChunkerBlockwise.isBlocked(output)) {
+			opService.run(ChunkerOp.class, chunk, output.size(), output);
+		}
+		else opService.run(ChunkerOp.class, chunk, output.size());
 	}
 
 	@Override
@@ -34,13 +34,30 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import net.imagej.ops.BufferFactory;
 import net.imagej.ops.ComputerOp;
+import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
+import net.imagej.ops.map.ElementwiseMapOp;
+import net.imglib2.IterableInterval;
+import net.imglib2.type.Type;
 
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
+import org.scijava.util.GenericUtils;
 
 /**
  * Joins a list of {@link ComputerOp}s.
+ * <p>
+ * If all ops are {@link ElementwiseMapOp}s over the elements of an
+ * {@link IterableInterval}, and all their ops accept elements of the input's
+ * element type as both input and output, their ops are joined per element
+ * instead, and mapped in a single pass: no buffer image is needed, and each
+ * element is read and written once. Generic ops qualify when the bounds of
+ * their type parameters admit the element type. Any op which is declared for
+ * another element type (e.g., a conversion to a fixed type) requires the
+ * buffer image from the {@link BufferFactory}.
+ * </p>
  * 
  * @author Christian Dietz (University of Konstanz)
  * @author Curtis Rueden
@@ -50,6 +67,9 @@ public class DefaultJoinComputers<A> extends
 	AbstractJoinComputers<A, ComputerOp<A, A>>
 {
 
+	@Parameter
+	private OpService opService;
+
 	@Override
 	public void compute(final A input, final A output) {
 		final List<? extends ComputerOp<A, A>> ops = getOps();
@@ -61,6 +81,11 @@ public class DefaultJoinComputers<A> extends
 			return;
 		}
 
+		if (isFusable(input, output)) {
+			computeFused(input, output);
+			return;
+		}
+
 		final A buffer = getBuffer(input);
 
 		A tmpOutput = output;
@@ -94,7 +119,82 @@ public class DefaultJoinComputers<A> extends
 
 		joiner.setOps(ops);
 		joiner.setBufferFactory(getBufferFactory());
+		joiner.opService = opService;
 
 		return joiner;
 	}
+
+	// -- Helper methods --
+
+	/** Checks whether the ops can be joined per element of the input. */
+	private boolean isFusable(final A input, final A output) {
+		if (opService == null || !(input instanceof IterableInterval) ||
+			!(output instanceof IterableInterval))
+		{
+			return false;
+		}
+		final IterableInterval<?> elements = (IterableInterval<?>) input;
+		final IterableInterval<?> outElements = (IterableInterval<?>) output;
+		if (elements.size() == 0 || outElements.size() == 0) return false;
+		final Object element = elements.firstElement();
+		if (!(element instanceof Type) ||
+			outElements.firstElement().getClass() != element.getClass())
+		{
+			return false;
+		}
+		for (final ComputerOp<A, A> op : getOps()) {
+			if (!(op instanceof ElementwiseMapOp)) return false;
+			final ComputerOp<?, ?> elementOp =
+				((ElementwiseMapOp<?, ?>) op).getOp();
+			// NB: The per-element buffers are of the input's element type.
+			if (!accepts(elementOp, 0, element.getClass()) ||
+				!accepts(elementOp, 1, element.getClass()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given type parameter of the given {@link ComputerOp}
+	 * admits the given class. A type parameter which is not fixed by the op's
+	 * class resolves to a type variable, which admits any subclass of its
+	 * bound.
+	 */
+	private boolean accepts(final ComputerOp<?, ?> op, final int index,
+		final Class<?> c)
+	{
+		if (op == null) return false;
+		final java.lang.reflect.Type type =
+			GenericUtils.getTypeParameter(op.getClass(), ComputerOp.class, index);
+		final Class<?> declared =
+			type == null ? null : GenericUtils.getClass(type);
+		return declared != null && declared.isAssignableFrom(c);
+	}
+
+	/** Maps the join of the ops of the element-wise maps, in one pass. */
+	private void computeFused(final A input, final A output) {
+		final ArrayList<ComputerOp<Object, Object>> elementOps =
+			new ArrayList<ComputerOp<Object, Object>>();
+		for (final ComputerOp<A, A> op : getOps()) {
+			@SuppressWarnings("unchecked")
+			final ComputerOp<Object, Object> elementOp =
+				((ElementwiseMapOp<Object, Object>) op).getOp();
+			elementOps.add(elementOp);
+		}
+
+		final DefaultJoinComputers<Object> joiner =
+			new DefaultJoinComputers<Object>();
+		joiner.setOps(elementOps);
+		joiner.setBufferFactory(new BufferFactory<Object, Object>() {
+
+			@Override
+			public Object createBuffer(final Object element) {
+				return ((Type<?>) element).createVariable();
+			}
+		});
+		opService.run(Ops.Map.class, output, input, joiner);
+	}
+
 }
@@ -0,0 +1,132 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.map.PrimitiveArrays.Kind;
+import net.imagej.ops.thread.chunker.AbstractLongChunk;
+import net.imagej.ops.thread.chunker.ChunkerBlockwise;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.LongChunk;
+import net.imglib2.IterableInterval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.planar.PlanarImg;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Parallelized {@link MapOp} which applies a {@link PrimitiveKernel} directly
+ * to the primitive arrays backing {@link ArrayImg}s and {@link PlanarImg}s.
+ * <p>
+ * Input and output must have the same dimensions and pixel type, which must
+ * be one of the native byte, short, int, float or double types; they may be
+ * the same image. Any other case is left to the general {@link MapOp}s.
+ * </p>
+ * 
+ * @author agent
+ * @param <A> type of the input and output pixels
+ */
+@Plugin(type = Ops.Map.class, name = Ops.Map.NAME,
+	priority = Priority.LOW_PRIORITY + 10)
+public class MapArraysToArraysParallel<A extends RealType<A>> extends
+	AbstractMapComputer<A, A, IterableInterval<A>, IterableInterval<A>> implements
+	ElementwiseMapOp<A, A>, Contingent, Parallel
+{
+
+	@Parameter
+	private OpService opService;
+
+	@Override
+	public boolean conforms() {
+		return getOp() instanceof PrimitiveKernel && getOutput() != null &&
+			isValid(getInput(), getOutput());
+	}
+
+	@Override
+	public void compute(final IterableInterval<A> input,
+		final IterableInterval<A> output)
+	{
+		if (!isValid(input, output)) {
+			throw new IllegalArgumentException(
+				"Input and output are not backed by matching primitive arrays!");
+		}
+		final Kind kind = PrimitiveArrays.kind(input.firstElement());
+		final Object[] src = PrimitiveArrays.arrays(input);
+		final Object[] dst = PrimitiveArrays.arrays(output);
+
+		final LongChunk chunk = new AbstractLongChunk(getOp()) {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final PrimitiveKernel kernel =
+					(PrimitiveKernel) getOp().getIndependentInstance();
+				if (stepSize == 1) {
+					PrimitiveArrays.map(kernel, kind, src, dst, startIndex, numSteps);
+					return;
+				}
+				for (long i = 0; i < numSteps; i++) {
+					PrimitiveArrays.map(kernel, kind, src, dst, startIndex + i *
+						stepSize, 1);
+				}
+			}
+		};
+		if (ChunkerBlockwise.isBlocked(input)) {
+			opService.run(ChunkerOp.class, chunk, input.size(), input);
+		}
+		else opService.run(ChunkerOp.class, chunk, input.size());
+	}
+
+	// -- Helper methods --
+
+	private boolean isValid(final IterableInterval<A> input,
+		final IterableInterval<A> output)
+	{
+		if (input.numDimensions() != output.numDimensions()) return false;
+		for (int d = 0; d < input.numDimensions(); d++) {
+			if (input.dimension(d) != output.dimension(d)) return false;
+		}
+		if (input.size() == 0) return false;
+		final Kind kind = PrimitiveArrays.kind(input.firstElement());
+		return kind != null &&
+			kind == PrimitiveArrays.kind(output.firstElement()) &&
+			PrimitiveArrays.arrays(input) != null &&
+			PrimitiveArrays.arrays(output) != null;
+	}
+
+}
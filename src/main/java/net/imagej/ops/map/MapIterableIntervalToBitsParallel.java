@@ -0,0 +1,170 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import net.imagej.ops.ComputerOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.AbstractLongChunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.planar.PlanarImg;
+import net.imglib2.type.logic.BitType;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Parallelized {@link MapOp} which writes {@link BitType} outputs backed by
+ * {@link ArrayImg}s or {@link PlanarImg}s one 64-bit word at a time.
+ * <p>
+ * Neighboring {@link BitType} pixels share a {@code long} word, so writing
+ * them pixel by pixel from several threads loses updates. Here, each chunk
+ * covers whole words of the output: the bits of a word are computed into a
+ * local {@code long}, which is then stored in one go, so no two threads ever
+ * write to the same word. The input must have the same iteration order as the
+ * output.
+ * </p>
+ * <p>
+ * The generic parallel maps refuse such packed outputs, so that bit images with
+ * any other storage are mapped serially.
+ * </p>
+ * 
+ * @author agent
+ * @param <A> mapped on {@link BitType}
+ */
+@Plugin(type = Ops.Map.class, name = Ops.Map.NAME,
+	priority = Priority.LOW_PRIORITY + 9)
+public class MapIterableIntervalToBitsParallel<A> extends
+	AbstractMapComputer<A, BitType, IterableInterval<A>, IterableInterval<BitType>>
+	implements ElementwiseMapOp<A, BitType>, Contingent, Parallel
+{
+
+	/** Number of pixels per word of {@link BitType} storage. */
+	private static final int WORD_SIZE = 64;
+
+	@Parameter
+	private OpService opService;
+
+	@Override
+	public boolean conforms() {
+		return getOutput() != null && isValid(getInput(), getOutput());
+	}
+
+	@Override
+	public void compute(final IterableInterval<A> input,
+		final IterableInterval<BitType> output)
+	{
+		if (!isValid(input, output)) {
+			throw new IllegalArgumentException(
+				"Output is not a bit image with the iteration order of the input!");
+		}
+		final Object[] words = PrimitiveArrays.arrays(output);
+		final long planeSize = output.size() / words.length;
+		final long wordsPerPlane = (planeSize + WORD_SIZE - 1) / WORD_SIZE;
+
+		opService.run(ChunkerOp.class, new AbstractLongChunk(getOp()) {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final ComputerOp<A, BitType> safe = getOp().getIndependentInstance();
+				final Cursor<A> cursor = input.cursor();
+				if (stepSize == 1) {
+					mapWords(safe, cursor, words, planeSize, wordsPerPlane, startIndex,
+						numSteps);
+					return;
+				}
+				for (long i = 0; i < numSteps; i++) {
+					mapWords(safe, cursor, words, planeSize, wordsPerPlane, startIndex +
+						i * stepSize, 1);
+				}
+			}
+		}, wordsPerPlane * words.length);
+	}
+
+	// -- Helper methods --
+
+	private boolean isValid(final IterableInterval<A> input,
+		final IterableInterval<BitType> output)
+	{
+		if (output.size() == 0 || !input.iterationOrder().equals(output
+			.iterationOrder()))
+		{
+			return false;
+		}
+		if (!(output.firstElement() instanceof BitType)) return false;
+		final Object[] words = PrimitiveArrays.arrays(output);
+		return words != null && words[0] instanceof long[];
+	}
+
+	/**
+	 * Computes a run of consecutive words of the output. Words are numbered
+	 * plane by plane; the last word of each plane may be partial.
+	 */
+	private static <A> void mapWords(final ComputerOp<A, BitType> op,
+		final Cursor<A> cursor, final Object[] words, final long planeSize,
+		final long wordsPerPlane, final long firstWord, final long numWords)
+	{
+		final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+		final BitType bit = new BitType();
+
+		long plane = firstWord / wordsPerPlane;
+		long word = firstWord % wordsPerPlane;
+		cursor.reset();
+		cursor.jumpFwd(plane * planeSize + word * WORD_SIZE);
+
+		for (long w = 0; w < numWords && !monitor.isCanceled(); w++) {
+			final int bits = (int) Math.min(WORD_SIZE, planeSize - word * WORD_SIZE);
+			long value = 0;
+			for (int b = 0; b < bits; b++) {
+				cursor.fwd();
+				op.compute(cursor.get(), bit);
+				if (bit.get()) value |= 1L << b;
+			}
+			((long[]) words[(int) plane])[(int) word] = value;
+
+			if (++word == wordsPerPlane) {
+				word = 0;
+				plane++;
+			}
+		}
+	}
+
+}
@@ -48,7 +48,7 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Map.class, name = Ops.Map.NAME, priority = Priority.LOW_PRIORITY + 1)
 public class MapIterableIntervalToIterableInterval<A, B> extends
 	AbstractMapComputer<A, B, IterableInterval<A>, IterableInterval<B>> implements
-	Contingent
+	ElementwiseMapOp<A, B>, Contingent
 {
 
 	@Override
@@ -55,7 +55,7 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Map.class, name = Ops.Map.NAME, priority = Priority.LOW_PRIORITY)
 public class MapIterableIntervalToRAI<A, B> extends
 	AbstractMapComputer<A, B, IterableInterval<A>, RandomAccessibleInterval<B>>
-	implements Contingent
+	implements ElementwiseMapOp<A, B>, Contingent
 {
 
 	@Override
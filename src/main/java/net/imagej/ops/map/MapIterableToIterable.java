@@ -45,7 +45,8 @@ import org.scijava.plugin.Plugin;
  */
 @Plugin(type = Ops.Map.class, name = Ops.Map.NAME, priority = Priority.LOW_PRIORITY - 1)
 public class MapIterableToIterable<A, B> extends
-	AbstractMapComputer<A, B, Iterable<A>, Iterable<B>>
+	AbstractMapComputer<A, B, Iterable<A>, Iterable<B>> implements
+	ElementwiseMapOp<A, B>
 {
 
 	@Override
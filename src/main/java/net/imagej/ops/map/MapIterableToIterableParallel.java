@@ -35,6 +35,9 @@ import net.imagej.ops.Contingent;
 import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
 import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerBlockwise;
 import net.imagej.ops.thread.chunker.ChunkerOp;
 import net.imagej.ops.thread.chunker.CursorBasedChunk;
 import net.imglib2.Cursor;
@@ -55,7 +58,7 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Map.class, name = Ops.Map.NAME, priority = Priority.LOW_PRIORITY + 3)
 public class MapIterableToIterableParallel<A, B> extends
 	AbstractMapComputer<A, B, IterableInterval<A>, IterableInterval<B>> implements
-	Contingent, Parallel
+	ElementwiseMapOp<A, B>, Contingent, Parallel
 {
 
 	@Parameter
@@ -63,7 +66,8 @@ public class MapIterableToIterableParallel<A, B> extends
 
 	@Override
 	public boolean conforms() {
-		return getOutput() == null || isValid(getInput(), getOutput());
+		return getOutput() == null || isValid(getInput(), getOutput()) &&
+			!PrimitiveArrays.isPacked(getOutput());
 	}
 
 	private boolean isValid(final IterableInterval<A> input,
@@ -81,12 +85,13 @@ public class MapIterableToIterableParallel<A, B> extends
 				"Input and Output do not have the same iteration order!");
 		}
 
-		opService.run(ChunkerOp.class, new CursorBasedChunk() {
+		final CursorBasedChunk chunk = new CursorBasedChunk(getOp()) {
 
 			@Override
-			public void execute(final int startIndex, final int stepSize,
-				final int numSteps)
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
 			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
 				final ComputerOp<A, B> safe = getOp().getIndependentInstance();
 				
 				final Cursor<A> inCursor = input.cursor();
@@ -95,14 +100,22 @@ public class MapIterableToIterableParallel<A, B> extends
 				setToStart(inCursor, startIndex);
 				setToStart(outCursor, startIndex);
 
-				int ctr = 0;
-				while (ctr < numSteps) {
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
 					safe.compute(inCursor.get(), outCursor.get());
 					inCursor.jumpFwd(stepSize);
 					outCursor.jumpFwd(stepSize);
 					ctr++;
 				}
 			}
-		}, input.size());
+		};
+		if (PrimitiveArrays.isPacked(output)) {
+			// NB: Threads would overwrite each other's pixels in shared entries.
+			chunk.execute(0L, 1L, input.size());
+		}
+		else if (ChunkerBlockwise.isBlocked(input)) {
+			opService.run(ChunkerOp.class, chunk, input.size(), input);
+		}
+		else opService.run(ChunkerOp.class, chunk, input.size());
 	}
 }
@@ -31,9 +31,13 @@
 package net.imagej.ops.map;
 
 import net.imagej.ops.ComputerOp;
+import net.imagej.ops.Contingent;
 import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
 import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerBlockwise;
 import net.imagej.ops.thread.chunker.ChunkerOp;
 import net.imagej.ops.thread.chunker.CursorBasedChunk;
 import net.imglib2.Cursor;
@@ -55,22 +59,28 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Map.class, name = Ops.Map.NAME, priority = Priority.LOW_PRIORITY + 2)
 public class MapIterableToRAIParallel<A, B> extends
 	AbstractMapComputer<A, B, IterableInterval<A>, RandomAccessibleInterval<B>>
-	implements Parallel
+	implements ElementwiseMapOp<A, B>, Contingent, Parallel
 {
 
 	@Parameter
 	private OpService opService;
 
+	@Override
+	public boolean conforms() {
+		return getOutput() == null || !PrimitiveArrays.isPacked(getOutput());
+	}
+
 	@Override
 	public void compute(final IterableInterval<A> input,
 		final RandomAccessibleInterval<B> output)
 	{
-		opService.run(ChunkerOp.class, new CursorBasedChunk() {
+		final CursorBasedChunk chunk = new CursorBasedChunk(getOp()) {
 
 			@Override
-			public void execute(final int startIndex, final int stepSize,
-				final int numSteps)
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
 			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
 				final ComputerOp<A, B> safe = getOp().getIndependentInstance();
 				final Cursor<A> cursor = input.localizingCursor();
 
@@ -78,15 +88,23 @@ public class MapIterableToRAIParallel<A, B> extends
 
 				final RandomAccess<B> rndAccess = output.randomAccess();
 
-				int ctr = 0;
-				while (ctr < numSteps) {
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
 					rndAccess.setPosition(cursor);
 					safe.compute(cursor.get(), rndAccess.get());
 					cursor.jumpFwd(stepSize);
 					ctr++;
 				}
 			}
-		}, input.size());
+		};
+		if (PrimitiveArrays.isPacked(output)) {
+			// NB: Threads would overwrite each other's pixels in shared entries.
+			chunk.execute(0L, 1L, input.size());
+		}
+		else if (ChunkerBlockwise.isBlocked(input)) {
+			opService.run(ChunkerOp.class, chunk, input.size(), input);
+		}
+		else opService.run(ChunkerOp.class, chunk, input.size());
 	}
 
 }
@@ -0,0 +1,259 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.NaryComputerOp;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerBlockwise;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.Interval;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Parallelized {@link MapOp} which combines two to four inputs into a single
+ * {@link IterableInterval} output, pixel by pixel, using a
+ * {@link NaryComputerOp}.
+ * <p>
+ * The inputs may be {@link IterableInterval}s or
+ * {@link RandomAccessibleInterval}s with the dimensions of the output. Inputs
+ * which have the iteration order of the output are iterated alongside it with
+ * their own cursors; only the others are read by random access, at the
+ * position of the output cursor relative to the output's minimum, so that
+ * inputs and output may be offset against each other.
+ * </p>
+ * 
+ * @author agent
+ * @param <A> type of the input pixels
+ * @param <B> type of the output pixels
+ */
+@Plugin(type = Ops.Map.class, name = Ops.Map.NAME,
+	priority = Priority.LOW_PRIORITY + 3)
+public class MapNaryParallel<A, B> extends
+	AbstractComputerOp<Interval, IterableInterval<B>> implements
+	MapOp<List<A>, B, NaryComputerOp<A, B>>, Contingent, Parallel
+{
+
+	@Parameter
+	private Interval in2;
+
+	@Parameter(required = false)
+	private Interval in3;
+
+	@Parameter(required = false)
+	private Interval in4;
+
+	@Parameter
+	private NaryComputerOp<A, B> op;
+
+	@Parameter
+	private OpService opService;
+
+	@Override
+	public NaryComputerOp<A, B> getOp() {
+		return op;
+	}
+
+	@Override
+	public void setOp(final NaryComputerOp<A, B> op) {
+		this.op = op;
+	}
+
+	@Override
+	public boolean conforms() {
+		return getOutput() != null && isValid(inputs(getInput()), getOutput()) &&
+			!PrimitiveArrays.isPacked(getOutput());
+	}
+
+	@Override
+	public void compute(final Interval input, final IterableInterval<B> output) {
+		final List<Interval> inputs = inputs(input);
+		if (!isValid(inputs, output)) {
+			throw new IllegalArgumentException(
+				"Inputs and output do not have the same dimensions!");
+		}
+
+		// NB: Inputs in the iteration order of the output get their own cursor.
+		final boolean[] flat = new boolean[inputs.size()];
+		boolean localize = false;
+		for (int i = 0; i < flat.length; i++) {
+			flat[i] = sameOrder(inputs.get(i), output);
+			if (!flat[i]) localize = true;
+		}
+		final boolean localizing = localize;
+
+		// NB: Random access inputs are read at their own offset to the output.
+		final long[][] offsets = new long[flat.length][];
+		for (int i = 0; i < flat.length; i++) {
+			if (flat[i]) continue;
+			final Interval in = inputs.get(i);
+			final long[] offset = new long[in.numDimensions()];
+			boolean shifted = false;
+			for (int d = 0; d < offset.length; d++) {
+				offset[d] = in.min(d) - output.min(d);
+				if (offset[d] != 0) shifted = true;
+			}
+			if (shifted) offsets[i] = offset;
+		}
+
+		final CursorBasedChunk chunk = new CursorBasedChunk(getOp()) {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final NaryComputerOp<A, B> safe = getOp().getIndependentInstance();
+
+				final Cursor<B> outCursor =
+					localizing ? output.localizingCursor() : output.cursor();
+				setToStart(outCursor, startIndex);
+
+				final List<Cursor<A>> cursors = new ArrayList<Cursor<A>>();
+				final List<RandomAccess<A>> accesses =
+					new ArrayList<RandomAccess<A>>();
+				for (int i = 0; i < flat.length; i++) {
+					if (flat[i]) {
+						final Cursor<A> c = MapNaryParallel.<A> iterable(inputs
+							.get(i)).cursor();
+						setToStart(c, startIndex);
+						cursors.add(c);
+						accesses.add(null);
+					}
+					else {
+						cursors.add(null);
+						RandomAccessible<A> in =
+							MapNaryParallel.<A> randomAccessible(inputs.get(i));
+						if (offsets[i] != null) in = Views.offset(in, offsets[i]);
+						accesses.add(in.randomAccess());
+					}
+				}
+
+				final List<A> values = new ArrayList<A>(flat.length);
+				for (int i = 0; i < flat.length; i++) {
+					values.add(null);
+				}
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					for (int i = 0; i < flat.length; i++) {
+						if (flat[i]) {
+							values.set(i, cursors.get(i).get());
+						}
+						else {
+							final RandomAccess<A> ra = accesses.get(i);
+							ra.setPosition(outCursor);
+							values.set(i, ra.get());
+						}
+					}
+					safe.compute(values, outCursor.get());
+
+					outCursor.jumpFwd(stepSize);
+					for (int i = 0; i < flat.length; i++) {
+						if (flat[i]) cursors.get(i).jumpFwd(stepSize);
+					}
+					ctr++;
+				}
+			}
+		};
+		if (PrimitiveArrays.isPacked(output)) {
+			// NB: Threads would overwrite each other's pixels in shared entries.
+			chunk.execute(0L, 1L, output.size());
+		}
+		else if (ChunkerBlockwise.isBlocked(output)) {
+			opService.run(ChunkerOp.class, chunk, output.size(), output);
+		}
+		else opService.run(ChunkerOp.class, chunk, output.size());
+	}
+
+	// -- Helper methods --
+
+	/** Gets the inputs which were given, in order. */
+	private List<Interval> inputs(final Interval input) {
+		final List<Interval> inputs = new ArrayList<Interval>(4);
+		inputs.add(input);
+		inputs.add(in2);
+		if (in3 != null) inputs.add(in3);
+		if (in4 != null) inputs.add(in4);
+		return inputs;
+	}
+
+	private boolean isValid(final List<Interval> inputs,
+		final IterableInterval<B> output)
+	{
+		for (final Interval in : inputs) {
+			if (in == null || !Intervals.equalDimensions(in, output)) return false;
+			// NB: Inputs which cannot be iterated in step need random access.
+			if (!sameOrder(in, output) && !(in instanceof RandomAccessible)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean sameOrder(final Interval in,
+		final IterableInterval<B> output)
+	{
+		return in instanceof IterableInterval &&
+			((IterableInterval<?>) in).iterationOrder().equals(
+				output.iterationOrder());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> IterableInterval<T> iterable(final Interval in) {
+		return (IterableInterval<T>) in;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> RandomAccessible<T> randomAccessible(final Interval in) {
+		return (RandomAccessible<T>) in;
+	}
+
+}
@@ -31,9 +31,13 @@
 package net.imagej.ops.map;
 
 import net.imagej.ops.ComputerOp;
+import net.imagej.ops.Contingent;
 import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
 import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerBlockwise;
 import net.imagej.ops.thread.chunker.ChunkerOp;
 import net.imagej.ops.thread.chunker.CursorBasedChunk;
 import net.imglib2.Cursor;
@@ -51,34 +55,48 @@ import org.scijava.plugin.Plugin;
  */
 @Plugin(type = Ops.Map.class, name = Ops.Map.NAME, priority = Priority.LOW_PRIORITY + 5)
 public class MapParallel<A> extends
-	AbstractMapInplace<A, IterableInterval<A>> implements Parallel
+	AbstractMapInplace<A, IterableInterval<A>> implements Contingent, Parallel
 {
 
 	@Parameter
 	private OpService opService;
 
+	@Override
+	public boolean conforms() {
+		return getInput() == null || !PrimitiveArrays.isPacked(getInput());
+	}
+
 	@Override
 	public void compute(final IterableInterval<A> arg) {
-		opService.run(ChunkerOp.class, new CursorBasedChunk() {
+		final CursorBasedChunk chunk = new CursorBasedChunk(getOp()) {
 
 			@Override
-			public void execute(final int startIndex, final int stepSize,
-				final int numSteps)
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
 			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
 				final ComputerOp<A, A> safe = getOp().getIndependentInstance();
 				final Cursor<A> inCursor = arg.cursor();
 
 				setToStart(inCursor, startIndex);
 
-				int ctr = 0;
-				while (ctr < numSteps) {
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
 					final A t = inCursor.get();
 					safe.compute(t, t);
 					inCursor.jumpFwd(stepSize);
 					ctr++;
 				}
 			}
-		}, arg.size());
+		};
+		if (PrimitiveArrays.isPacked(arg)) {
+			// NB: Threads would overwrite each other's pixels in shared entries.
+			chunk.execute(0L, 1L, arg.size());
+		}
+		else if (ChunkerBlockwise.isBlocked(arg)) {
+			opService.run(ChunkerOp.class, chunk, arg.size(), arg);
+		}
+		else opService.run(ChunkerOp.class, chunk, arg.size());
 	}
 
 }
@@ -55,7 +55,7 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Map.class, name = Ops.Map.NAME, priority = Priority.LOW_PRIORITY)
 public class MapRAIToIterableInterval<A, B> extends
 	AbstractMapComputer<A, B, RandomAccessibleInterval<A>, IterableInterval<B>>
-	implements Contingent
+	implements ElementwiseMapOp<A, B>, Contingent
 {
 
 	@Override
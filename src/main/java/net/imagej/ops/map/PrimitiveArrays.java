@@ -0,0 +1,235 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import java.lang.reflect.Array;
+
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
+import net.imglib2.img.planar.PlanarImg;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.ShortType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+
+/**
+ * Utility methods for applying {@link PrimitiveKernel}s to the primitive
+ * arrays backing {@link ArrayImg}s and {@link PlanarImg}s.
+ * <p>
+ * Both images iterate in flat order, so the elements of an image are the
+ * concatenation of its arrays: the single array of an {@link ArrayImg}, or
+ * the planes of a {@link PlanarImg}, which all have the same length.
+ * </p>
+ * 
+ * @author agent
+ */
+final class PrimitiveArrays {
+
+	/** Maximum number of elements processed between checks for cancelation. */
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	/** Supported pixel types, by the primitive arithmetic they use. */
+	enum Kind {
+		BYTE, UNSIGNED_BYTE, SHORT, UNSIGNED_SHORT, INT, UNSIGNED_INT, FLOAT, DOUBLE
+	}
+
+	private PrimitiveArrays() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	// -- Utility methods --
+
+	/**
+	 * Checks whether the given image packs several pixels into each entry of its
+	 * storage, as {@link BitType} images do. Pixels of such images must not be
+	 * written by several threads at once, unless the threads write whole
+	 * entries (see {@link MapIterableIntervalToBitsParallel}).
+	 */
+	static boolean isPacked(final Object image) {
+		final Object type;
+		if (image instanceof IterableInterval) {
+			final IterableInterval<?> ii = (IterableInterval<?>) image;
+			if (ii.size() == 0) return false;
+			type = ii.firstElement();
+		}
+		else if (image instanceof RandomAccessibleInterval) {
+			final RandomAccessibleInterval<?> rai =
+				(RandomAccessibleInterval<?>) image;
+			if (Intervals.numElements(rai) == 0) return false;
+			type = Util.getTypeFromInterval(rai);
+		}
+		else return false;
+		return type instanceof NativeType &&
+			((NativeType<?>) type).getEntitiesPerPixel().getRatio() < 1;
+	}
+
+	/** Gets the kind of the given pixel type, or null if unsupported. */
+	static Kind kind(final Object type) {
+		final Class<?> c = type.getClass();
+		if (c == ByteType.class) return Kind.BYTE;
+		if (c == UnsignedByteType.class) return Kind.UNSIGNED_BYTE;
+		if (c == ShortType.class) return Kind.SHORT;
+		if (c == UnsignedShortType.class) return Kind.UNSIGNED_SHORT;
+		if (c == IntType.class) return Kind.INT;
+		if (c == UnsignedIntType.class) return Kind.UNSIGNED_INT;
+		if (c == FloatType.class) return Kind.FLOAT;
+		if (c == DoubleType.class) return Kind.DOUBLE;
+		return null;
+	}
+
+	/**
+	 * Gets the arrays backing the given image, in iteration order, or null if
+	 * it is not backed by primitive arrays.
+	 */
+	static Object[] arrays(final IterableInterval<?> image) {
+		if (image instanceof ArrayImg) {
+			final Object access = ((ArrayImg<?, ?>) image).update(null);
+			if (!(access instanceof ArrayDataAccess)) return null;
+			return new Object[] { ((ArrayDataAccess<?>) access)
+				.getCurrentStorageArray() };
+		}
+		if (image instanceof PlanarImg) {
+			final PlanarImg<?, ?> planar = (PlanarImg<?, ?>) image;
+			final Object[] arrays = new Object[planar.numSlices()];
+			for (int i = 0; i < arrays.length; i++) {
+				arrays[i] = planar.getPlane(i).getCurrentStorageArray();
+			}
+			return arrays;
+		}
+		return null;
+	}
+
+	/**
+	 * Applies the given kernel to a range of consecutive elements of the source
+	 * arrays, storing the results in the same elements of the destination
+	 * arrays. Stops early if the current task is canceled.
+	 */
+	static void map(final PrimitiveKernel kernel, final Kind kind,
+		final Object[] src, final Object[] dst, final long start,
+		final long length)
+	{
+		final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+		final int srcLength = Array.getLength(src[0]);
+		final int dstLength = Array.getLength(dst[0]);
+		long index = start;
+		final long end = start + length;
+		while (index < end && !monitor.isCanceled()) {
+			final int srcOffset = (int) (index % srcLength);
+			final int dstOffset = (int) (index % dstLength);
+			final int n = (int) Math.min(Math.min(end - index, BLOCK_SIZE), Math
+				.min(srcLength - srcOffset, dstLength - dstOffset));
+			map(kernel, kind, src[(int) (index / srcLength)], srcOffset,
+				dst[(int) (index / dstLength)], dstOffset, n);
+			index += n;
+		}
+	}
+
+	// -- Helper methods --
+
+	private static void map(final PrimitiveKernel kernel, final Kind kind,
+		final Object src, final int srcOffset, final Object dst,
+		final int dstOffset, final int n)
+	{
+		final int shift = dstOffset - srcOffset;
+		final int end = srcOffset + n;
+		switch (kind) {
+			case BYTE: {
+				final byte[] s = (byte[]) src, d = (byte[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = (byte) kernel.computeLong(s[i]);
+				}
+				break;
+			}
+			case UNSIGNED_BYTE: {
+				final byte[] s = (byte[]) src, d = (byte[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = (byte) kernel.computeLong(s[i] & 0xff);
+				}
+				break;
+			}
+			case SHORT: {
+				final short[] s = (short[]) src, d = (short[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = (short) kernel.computeLong(s[i]);
+				}
+				break;
+			}
+			case UNSIGNED_SHORT: {
+				final short[] s = (short[]) src, d = (short[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = (short) kernel.computeLong(s[i] & 0xffff);
+				}
+				break;
+			}
+			case INT: {
+				final int[] s = (int[]) src, d = (int[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = (int) kernel.computeLong(s[i]);
+				}
+				break;
+			}
+			case UNSIGNED_INT: {
+				final int[] s = (int[]) src, d = (int[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = (int) kernel.computeLong(s[i] & 0xffffffffL);
+				}
+				break;
+			}
+			case FLOAT: {
+				final float[] s = (float[]) src, d = (float[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = (float) kernel.computeDouble(s[i]);
+				}
+				break;
+			}
+			case DOUBLE: {
+				final double[] s = (double[]) src, d = (double[]) dst;
+				for (int i = srcOffset; i < end; i++) {
+					d[i + shift] = kernel.computeDouble(s[i]);
+				}
+				break;
+			}
+		}
+	}
+
+}
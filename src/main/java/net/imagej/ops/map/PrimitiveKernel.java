@@ -0,0 +1,60 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import net.imagej.ops.ComputerOp;
+
+/**
+ * A pixel-wise computation on real values, which {@link MapOp}s can apply
+ * directly to the primitive arrays backing an image, instead of calling
+ * {@link ComputerOp#compute} on a type object per pixel.
+ * <p>
+ * A {@link ComputerOp} on {@link net.imglib2.type.numeric.RealType}s may
+ * implement this interface if its output depends only on the value of its
+ * input, and both are of the same type. The results must match those of the
+ * op itself: for integer types, {@link #computeLong} is called with the
+ * (unsigned, where applicable) value of the pixel, and its result is
+ * truncated to the bits of the type, as integer type arithmetic does; for
+ * floating-point types, {@link #computeDouble} is used.
+ * </p>
+ * 
+ * @author agent
+ * @see MapArraysToArraysParallel
+ */
+public interface PrimitiveKernel {
+
+	/** Computes the result for the given value of an integer pixel. */
+	long computeLong(long value);
+
+	/** Computes the result for the given value of a floating-point pixel. */
+	double computeDouble(double value);
+
+}
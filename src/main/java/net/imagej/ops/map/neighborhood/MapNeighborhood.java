@@ -71,9 +71,9 @@ public class MapNeighborhood<I, O> extends
 	{
 		// Call map on the neighborhoods iterable interval. This may use a
 		// threaded implementation of map.
+		// NB: Filters which only need the sums over rectangular neighborhoods
+		// use integral images instead; see AbstractIntegralFilter.
 		ops.map(output, shape.neighborhoodsSafe(input), getOp());
-		// TODO: optimization with integral images, if there is a rectangular
-		// neighborhood
 	}
 
 }
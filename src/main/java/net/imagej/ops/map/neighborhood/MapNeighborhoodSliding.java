@@ -0,0 +1,250 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map.neighborhood;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.map.MapOp;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.FinalDimensions;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.Type;
+import net.imglib2.util.Pair;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Evaluates a {@link SlidingWindowComputerOp} for each {@link Neighborhood} on
+ * the input {@link RandomAccessibleInterval}, by sliding the neighborhood
+ * along the lines of the image.
+ * <p>
+ * Each line along the first dimension starts by adding all values of its
+ * first neighborhood to the op. Moving to the next pixel then only removes
+ * the values of the face leaving the neighborhood and adds those of the face
+ * entering it, so the cost per pixel drops from {@code O(k^n)} to
+ * {@code O(k^(n-1))} for neighborhoods of width {@code k}. Lines are processed
+ * in parallel.
+ * </p>
+ * <p>
+ * This applies to shapes whose neighborhoods fill their bounding box, and to
+ * any {@link RectangleShape}: the center of a neighborhood which skips it is
+ * removed from the op while computing the result.
+ * </p>
+ * 
+ * @author agent
+ * @param <I> input type
+ * @param <O> output type
+ */
+@Plugin(type = Ops.Map.class, name = Ops.Map.NAME,
+	priority = Priority.LOW_PRIORITY + 3)
+public class MapNeighborhoodSliding<I, O> extends
+	AbstractComputerOp<RandomAccessibleInterval<I>, RandomAccessibleInterval<O>>
+	implements MapOp<Pair<I, Iterable<I>>, O, SlidingWindowComputerOp<I, O>>,
+	Contingent, Parallel
+{
+
+	@Parameter
+	private SlidingWindowComputerOp<I, O> op;
+
+	@Parameter
+	private Shape shape;
+
+	@Parameter
+	private OpService ops;
+
+	@Override
+	public SlidingWindowComputerOp<I, O> getOp() {
+		return op;
+	}
+
+	@Override
+	public void setOp(final SlidingWindowComputerOp<I, O> op) {
+		this.op = op;
+	}
+
+	@Override
+	public boolean conforms() {
+		if (shape instanceof RectangleShape) return true;
+		final RectangleWindow window =
+			new RectangleWindow(shape, getInput(), getInput());
+		return window.size() == window.volume();
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<O> output)
+	{
+		final RectangleWindow window = new RectangleWindow(shape, input, input);
+		final boolean skipCenter = window.isSkippingCenter();
+
+		// process the lines along the first dimension
+		final int numDims = input.numDimensions();
+		final long[] lineMin = new long[numDims];
+		final long[] lineMax = new long[numDims];
+		input.min(lineMin);
+		input.max(lineMax);
+		lineMax[0] = lineMin[0];
+		final IterableInterval<I> lines = Views.interval(input, lineMin, lineMax);
+		final long length = input.dimension(0);
+		final O outType = Util.getTypeFromInterval(output);
+		final boolean packed = outType instanceof NativeType &&
+			((NativeType<?>) outType).getEntitiesPerPixel().getRatio() < 1;
+
+		ops.run(ChunkerOp.class, new CursorBasedChunk(op) {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final SlidingWindowComputerOp<I, O> safe = op.getIndependentInstance();
+				final Cursor<I> cursor = lines.localizingCursor();
+				final RandomAccess<I> access = input.randomAccess();
+				final RandomAccess<I> center = input.randomAccess();
+				final RandomAccess<O> target = output.randomAccess();
+				// NB: Outputs which pack several pixels into each array entry are
+				// written one whole line at a time, so that workers never write to
+				// the same entry concurrently.
+				final RandomAccess<O> out = packed ? ops.create().img(
+					new FinalDimensions(length), outType).randomAccess() : target;
+				final long[] boxMin = new long[numDims];
+				final long[] boxMax = new long[numDims];
+				final long[] position = new long[numDims];
+				setToStart(cursor, startIndex);
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					for (int d = 0; d < numDims; d++) {
+						boxMin[d] = cursor.getLongPosition(d) + window.offset(d);
+						boxMax[d] = boxMin[d] + window.width(d) - 1;
+					}
+					center.setPosition(cursor);
+					target.setPosition(cursor);
+					if (packed) out.setPosition(0, 0);
+
+					safe.clear();
+					update(safe, access, boxMin, boxMax, true, position);
+					for (long x = 0; x < length; x++) {
+						if (x > 0) {
+							// slide the neighborhood by one pixel
+							final long first = boxMin[0], last = boxMax[0];
+							boxMax[0] = first;
+							update(safe, access, boxMin, boxMax, false, position);
+							boxMin[0] = boxMax[0] = last + 1;
+							update(safe, access, boxMin, boxMax, true, position);
+							boxMin[0] = first + 1;
+						}
+						if (skipCenter) {
+							safe.remove(center.get());
+							safe.computeWindow(center.get(), out.get());
+							safe.add(center.get());
+						}
+						else {
+							safe.computeWindow(center.get(), out.get());
+						}
+						center.fwd(0);
+						out.fwd(0);
+					}
+					if (packed) {
+						out.setPosition(0, 0);
+						synchronized (output) {
+							copyLine(out, target, length);
+						}
+					}
+
+					cursor.jumpFwd(stepSize);
+					ctr++;
+				}
+			}
+		}, lines.size(), lines);
+	}
+
+	// -- Helper methods --
+
+	/** Copies the values of a line along the first dimension. */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static void copyLine(final RandomAccess<?> from,
+		final RandomAccess<?> to, final long length)
+	{
+		for (long x = 0; x < length; x++) {
+			((Type) to.get()).set((Type) from.get());
+			from.fwd(0);
+			to.fwd(0);
+		}
+	}
+
+	/** Adds or removes all values of the given box. */
+	private static <I> void update(final SlidingWindowComputerOp<I, ?> op,
+		final RandomAccess<I> access, final long[] min, final long[] max,
+		final boolean add, final long[] position)
+	{
+		final int numDims = min.length;
+		// NB: Iterate along the longest dimension of a face.
+		final int inner = numDims == 1 || min[0] < max[0] ? 0 : 1;
+		System.arraycopy(min, 0, position, 0, numDims);
+		while (true) {
+			access.setPosition(position);
+			for (long i = min[inner]; i <= max[inner]; i++) {
+				if (add) op.add(access.get());
+				else op.remove(access.get());
+				access.fwd(inner);
+			}
+			int d = 0;
+			for (; d < numDims; d++) {
+				if (d == inner) continue;
+				if (position[d] < max[d]) {
+					position[d]++;
+					break;
+				}
+				position[d] = min[d];
+			}
+			if (d == numDims) return;
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map.neighborhood;
+
+import net.imagej.ops.ComputerOp;
+import net.imagej.ops.Contingent;
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.map.AbstractMapComputer;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.type.NativeType;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Evaluates a {@link ComputerOp} for each {@link Neighborhood} on the input
+ * {@link RandomAccessibleInterval}, one cache-sized tile at a time (see
+ * {@link NeighborhoodTiles}).
+ * <p>
+ * This takes over from {@link MapNeighborhood} for images of
+ * {@link NativeType}s which span several tiles.
+ * </p>
+ * 
+ * @author agent
+ * @param <I> input type
+ * @param <O> output type
+ */
+@Plugin(type = Ops.Map.class, name = Ops.Map.NAME,
+	priority = Priority.LOW_PRIORITY + 1)
+public class MapNeighborhoodTiled<I extends NativeType<I>, O extends NativeType<O>>
+	extends
+	AbstractMapComputer<Iterable<I>, O, RandomAccessibleInterval<I>, RandomAccessibleInterval<O>>
+	implements Contingent, Parallel
+{
+
+	@Parameter
+	private Shape shape;
+
+	@Parameter
+	private OpService ops;
+
+	@Override
+	public boolean conforms() {
+		return getOutput() != null && NeighborhoodTiles.isNative(getInput()) &&
+			NeighborhoodTiles.isNative(getOutput()) && tiles(getInput(),
+				getOutput()).isWorthwhile();
+	}
+
+	@Override
+	public void compute(final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<O> output)
+	{
+		tiles(input, output).map(ops, getOp());
+	}
+
+	// -- Helper methods --
+
+	private NeighborhoodTiles<I, O, Iterable<I>> tiles(
+		final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<O> output)
+	{
+		return new NeighborhoodTiles<I, O, Iterable<I>>(shape, input, output) {
+
+			@Override
+			protected Iterable<I> element(final Neighborhood<I> neighborhood,
+				final RandomAccess<I> center)
+			{
+				return neighborhood;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,275 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map.neighborhood;
+
+import net.imagej.ops.ComputerOp;
+import net.imagej.ops.OpService;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.AbstractLongChunk;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.Shape;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.type.NativeType;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+
+/**
+ * Maps a {@link ComputerOp} over the {@link Neighborhood}s of an image tile by
+ * tile, so that each neighborhood is read from a small, contiguous buffer.
+ * <p>
+ * The image is divided into tiles which, together with the halo of pixels
+ * their neighborhoods reach beyond them, fit {@link #TILE_SIZE} pixels. Each
+ * worker copies the input of a tile and its halo into a scratch array once,
+ * maps the op over the neighborhoods of the tile in that array, and copies the
+ * results back. Only the copy of tiles at the border of the image goes through
+ * out-of-bounds handling; the neighborhoods never do. Tiles are processed in
+ * parallel.
+ * </p>
+ * <p>
+ * Since the op reads a copy of the input, changes it makes to its input are
+ * lost. Outputs which pack several pixels into each array entry, such as
+ * {@code BitType}, are written back one tile at a time, so that workers never
+ * write to the same entry concurrently.
+ * </p>
+ * 
+ * @author agent
+ * @param <I> input type
+ * @param <O> output type
+ * @param <E> type of the op's input, built from each neighborhood
+ */
+abstract class NeighborhoodTiles<I extends NativeType<I>, O extends NativeType<O>, E>
+{
+
+	/** Number of pixels of a tile, including its halo. */
+	static final long TILE_SIZE = 1 << 16;
+
+	/** Largest ratio of the pixels copied per tile to the pixels of a tile. */
+	private static final long MAX_OVERHEAD = 2;
+
+	private final Shape shape;
+	private final RandomAccessibleInterval<I> input;
+	private final RandomAccessibleInterval<O> output;
+
+	/** Offset of the halo from the tile, along each dimension. */
+	private final long[] offset;
+
+	/** Dimensions of a tile. */
+	private final long[] tile;
+
+	/** Dimensions of a tile together with its halo. */
+	private final long[] halo;
+
+	/** Number of tiles along each dimension. */
+	private final long[] grid;
+
+	private final long numTiles;
+
+	public NeighborhoodTiles(final Shape shape,
+		final RandomAccessibleInterval<I> input,
+		final RandomAccessibleInterval<O> output)
+	{
+		this.shape = shape;
+		this.input = input;
+		this.output = output;
+
+		final int numDims = input.numDimensions();
+		final RectangleWindow window = new RectangleWindow(shape, input, input);
+		offset = new long[numDims];
+		final long[] width = new long[numDims];
+		for (int d = 0; d < numDims; d++) {
+			offset[d] = window.offset(d);
+			width[d] = window.width(d);
+		}
+
+		// halve the longest side of the tiles until they are small enough
+		tile = new long[numDims];
+		halo = new long[numDims];
+		input.dimensions(tile);
+		while (true) {
+			for (int d = 0; d < numDims; d++) {
+				halo[d] = tile[d] + width[d] - 1;
+			}
+			if (volume(halo) <= TILE_SIZE) break;
+			int longest = numDims - 1;
+			for (int d = numDims - 2; d >= 0; d--) {
+				if (tile[d] > tile[longest]) longest = d;
+			}
+			if (tile[longest] == 1) break;
+			tile[longest] = (tile[longest] + 1) / 2;
+		}
+
+		grid = new long[numDims];
+		long n = 1;
+		for (int d = 0; d < numDims; d++) {
+			grid[d] = (input.dimension(d) + tile[d] - 1) / tile[d];
+			n *= grid[d];
+		}
+		numTiles = n;
+	}
+
+	/**
+	 * Gets whether tiling pays off, i.e. whether the image spans several tiles
+	 * whose halos are not much bigger than the tiles themselves.
+	 */
+	public boolean isWorthwhile() {
+		return numTiles > 1 && volume(halo) <= MAX_OVERHEAD * volume(tile);
+	}
+
+	/** Maps the given op over all neighborhoods of the input. */
+	public void map(final OpService ops, final ComputerOp<E, O> op) {
+		final int numDims = input.numDimensions();
+		final I inType = Util.getTypeFromInterval(input);
+		final O outType = Util.getTypeFromInterval(output);
+		final boolean packed = outType.getEntitiesPerPixel().getRatio() < 1;
+
+		ops.run(ChunkerOp.class, new AbstractLongChunk(op) {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final ComputerOp<E, O> safe = op.getIndependentInstance();
+				final RandomAccessibleInterval<I> inBuffer =
+					new ArrayImgFactory<I>().create(halo, inType);
+				final RandomAccessibleInterval<O> outBuffer =
+					new ArrayImgFactory<O>().create(tile, outType);
+				final long[] tileMin = new long[numDims];
+				final long[] tileMax = new long[numDims];
+				final long[] haloMin = new long[numDims];
+				final long[] haloMax = new long[numDims];
+
+				for (long i = 0; i < numSteps && !monitor.isCanceled(); i++) {
+					// locate the tile
+					long index = startIndex + i * stepSize;
+					for (int d = 0; d < numDims; d++) {
+						tileMin[d] = input.min(d) + index % grid[d] * tile[d];
+						tileMax[d] =
+							Math.min(input.max(d), tileMin[d] + tile[d] - 1);
+						haloMin[d] = tileMin[d] + offset[d];
+						haloMax[d] = tileMax[d] + offset[d] + halo[d] - tile[d];
+						index /= grid[d];
+					}
+					final RandomAccessibleInterval<I> in =
+						Views.translate(inBuffer, haloMin);
+					final RandomAccessibleInterval<O> out =
+						Views.translate(outBuffer, tileMin);
+
+					// copy the tile and its halo
+					copy(input.randomAccess(new FinalInterval(haloMin, haloMax)), in
+						.randomAccess(), haloMin, haloMax);
+
+					// map the op over the neighborhoods of the tile
+					final Cursor<Neighborhood<I>> cursor =
+						shape.neighborhoods(Views.interval(in, tileMin, tileMax))
+							.localizingCursor();
+					final RandomAccess<I> center = in.randomAccess();
+					final RandomAccess<O> target = out.randomAccess();
+					while (cursor.hasNext()) {
+						final Neighborhood<I> neighborhood = cursor.next();
+						center.setPosition(cursor);
+						target.setPosition(cursor);
+						safe.compute(element(neighborhood, center), target.get());
+					}
+
+					// copy the results back
+					if (packed) {
+						synchronized (output) {
+							copy(out.randomAccess(), output.randomAccess(), tileMin,
+								tileMax);
+						}
+					}
+					else {
+						copy(out.randomAccess(), output.randomAccess(), tileMin,
+							tileMax);
+					}
+				}
+			}
+		}, numTiles);
+	}
+
+	/**
+	 * Gets the input of the op for the given neighborhood.
+	 * 
+	 * @param neighborhood the neighborhood
+	 * @param center access positioned at the center of the neighborhood
+	 */
+	protected abstract E element(Neighborhood<I> neighborhood,
+		RandomAccess<I> center);
+
+	/** Gets whether the given image holds {@link NativeType}s. */
+	public static boolean isNative(final RandomAccessibleInterval<?> image) {
+		return Util.getTypeFromInterval(image) instanceof NativeType;
+	}
+
+	// -- Helper methods --
+
+	private static long volume(final long[] dims) {
+		long volume = 1;
+		for (final long dim : dims) {
+			volume *= dim;
+		}
+		return volume;
+	}
+
+	/** Copies the values of the given box, line by line. */
+	private static <T extends NativeType<T>> void copy(final RandomAccess<T> from,
+		final RandomAccess<T> to, final long[] min, final long[] max)
+	{
+		final int numDims = min.length;
+		final long[] position = min.clone();
+		while (true) {
+			from.setPosition(position);
+			to.setPosition(position);
+			for (long x = min[0]; x <= max[0]; x++) {
+				to.get().set(from.get());
+				from.fwd(0);
+				to.fwd(0);
+			}
+			int d = 1;
+			for (; d < numDims; d++) {
+				if (position[d] < max[d]) {
+					position[d]++;
+					break;
+				}
+				position[d] = min[d];
+			}
+			if (d >= numDims) return;
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map.neighborhood;
+
+import net.imglib2.Interval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.algorithm.neighborhood.Neighborhood;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.algorithm.neighborhood.Shape;
+
+/**
+ * The box spanned by the neighborhoods of a {@link Shape}, such as a
+ * {@link RectangleShape}, relative to the position of each neighborhood.
+ * <p>
+ * The neighborhoods are assumed to have the same extent wherever they are.
+ * </p>
+ * 
+ * @author agent
+ */
+public final class RectangleWindow {
+
+	private final long[] offset;
+	private final long[] width;
+	private final long volume;
+	private final long size;
+
+	/**
+	 * Measures the neighborhood of the given shape at the minimum of the given
+	 * interval.
+	 */
+	public <T> RectangleWindow(final Shape shape,
+		final RandomAccessible<T> source, final Interval interval)
+	{
+		final int numDims = interval.numDimensions();
+		final RandomAccess<Neighborhood<T>> neighborhoods =
+			shape.neighborhoodsRandomAccessible(source).randomAccess();
+		for (int d = 0; d < numDims; d++) {
+			neighborhoods.setPosition(interval.min(d), d);
+		}
+		final Neighborhood<T> neighborhood = neighborhoods.get();
+
+		offset = new long[numDims];
+		width = new long[numDims];
+		long v = 1;
+		for (int d = 0; d < numDims; d++) {
+			offset[d] = neighborhood.min(d) - interval.min(d);
+			width[d] = neighborhood.dimension(d);
+			v *= width[d];
+		}
+		volume = v;
+		size = neighborhood.size();
+	}
+
+	/** Gets the offset of the box from the position, along dimension d. */
+	public long offset(final int d) {
+		return offset[d];
+	}
+
+	/** Gets the width of the box along dimension d. */
+	public long width(final int d) {
+		return width[d];
+	}
+
+	/** Gets the number of elements of the box. */
+	public long volume() {
+		return volume;
+	}
+
+	/** Gets the number of elements of each neighborhood. */
+	public long size() {
+		return size;
+	}
+
+	/** Gets whether the neighborhoods leave out their center. */
+	public boolean isSkippingCenter() {
+		return size < volume;
+	}
+
+}
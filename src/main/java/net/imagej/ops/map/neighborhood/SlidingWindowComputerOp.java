@@ -0,0 +1,75 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map.neighborhood;
+
+/**
+ * A {@link CenterAwareComputerOp} which can also be updated incrementally, as
+ * its neighborhood slides over an image.
+ * <p>
+ * Rather than being given the whole neighborhood of every pixel, the computer
+ * is {@link #clear() cleared}, the values entering the neighborhood are
+ * {@link #add added} and the values leaving it {@link #remove removed}, after
+ * which {@link #computeWindow} computes the result for the values currently
+ * held. This lets {@link MapNeighborhoodSliding} visit only the faces of a
+ * rectangular neighborhood as it moves by one pixel. Computing a whole
+ * neighborhood at once must give the same result as adding its values one by
+ * one.
+ * </p>
+ * 
+ * @author agent
+ * @param <I> type of input
+ * @param <O> type of output
+ */
+public interface SlidingWindowComputerOp<I, O> extends
+	CenterAwareComputerOp<I, O>
+{
+
+	/** Removes all values from the neighborhood. */
+	void clear();
+
+	/** Adds a value entering the neighborhood. */
+	void add(I value);
+
+	/** Removes a value leaving the neighborhood. */
+	void remove(I value);
+
+	/**
+	 * Computes the result for the values currently in the neighborhood.
+	 * 
+	 * @param center the value at the center of the neighborhood
+	 * @param output the output to set
+	 */
+	void computeWindow(I center, O output);
+
+	@Override
+	SlidingWindowComputerOp<I, O> getIndependentInstance();
+
+}
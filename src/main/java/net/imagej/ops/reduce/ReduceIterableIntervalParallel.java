@@ -0,0 +1,118 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.reduce;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imagej.ops.thread.chunker.ChunkerBlockwise;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.CursorBasedChunk;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Parallelized {@link ReduceOp}. The elements of an {@link IterableInterval}
+ * are divided into chunks by a {@link ChunkerOp}; each chunk is reduced to a
+ * partial result, and the partial results are combined at the end.
+ * <p>
+ * If the reduction is canceled, or a chunk fails, the partial results do not
+ * cover all elements; a {@link CancellationException} is then thrown instead
+ * of returning their combination.
+ * </p>
+ * 
+ * @author agent
+ * @param <A> type of the elements
+ * @param <R> type of the result
+ */
+@Plugin(type = Ops.Reduce.class, name = Ops.Reduce.NAME,
+	priority = Priority.LOW_PRIORITY + 3)
+public class ReduceIterableIntervalParallel<A, R> extends
+	AbstractReduceOp<A, R, IterableInterval<A>> implements Parallel
+{
+
+	@Parameter
+	private OpService opService;
+
+	@Override
+	public R compute(final IterableInterval<A> input) {
+		final Reducer<A, R> reducer = getReducer();
+		final List<R> partials = Collections.synchronizedList(new ArrayList<R>());
+
+		final CursorBasedChunk chunk = new CursorBasedChunk(reducer) {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+				final R partial = reducer.createAccumulator();
+				final Cursor<A> cursor = input.cursor();
+
+				setToStart(cursor, startIndex);
+
+				long ctr = 0;
+				while (ctr < numSteps && !monitor.isCanceled()) {
+					reducer.accumulate(partial, cursor.get());
+					cursor.jumpFwd(stepSize);
+					ctr++;
+				}
+				partials.add(partial);
+			}
+		};
+		final ChunkerOp chunker =
+			ChunkerBlockwise.isBlocked(input) ? opService.op(ChunkerOp.class, chunk,
+				input.size(), input) : opService.op(ChunkerOp.class, chunk, input
+				.size());
+		chunker.run();
+		if (chunker.isCanceled()) {
+			throw new CancellationException(chunker.getCancelReason());
+		}
+
+		final R result = reducer.createAccumulator();
+		for (final R partial : partials) {
+			reducer.combine(result, partial);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.reduce;
+
+/**
+ * Definition of a reduction of elements to a single result, such as a sum or
+ * an extremum, for use with {@link ReduceOp}s.
+ * <p>
+ * Elements are accumulated into partial results, which are then combined. To
+ * allow the elements to be processed in parallel, in any grouping and order,
+ * the combination must be associative and commutative: combining the partial
+ * results of any split of the elements must yield the same as accumulating
+ * all of them into one. Partial results are only ever accessed by one thread
+ * at a time, but the reducer itself is used by several threads concurrently.
+ * </p>
+ * 
+ * @author agent
+ * @param <A> type of the elements
+ * @param <R> type of the (partial) results
+ */
+public interface Reducer<A, R> {
+
+	/** Creates an empty partial result. */
+	R createAccumulator();
+
+	/** Adds the given element to the given partial result. */
+	void accumulate(R result, A element);
+
+	/** Adds the second partial result to the first. */
+	void combine(R result, R other);
+
+}
@@ -0,0 +1,258 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.stats;
+
+import net.imagej.ops.OpService;
+import net.imagej.ops.Ops;
+import net.imagej.ops.reduce.Reducer;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imglib2.IterableInterval;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+
+/**
+ * {@link Reducer}s computing statistics of {@link RealType}s, which allow the
+ * statistics ops to process the elements in parallel.
+ * 
+ * @author agent
+ */
+public final class RealReducers {
+
+	/** Minimum number of elements for which a parallel reduction is tried. */
+	public static final long PARALLEL_THRESHOLD = 1 << 15;
+
+	private RealReducers() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	// -- Utility methods --
+
+	/**
+	 * Reduces the given elements. Large {@link IterableInterval}s are reduced by
+	 * the {@link Ops.Reduce} op, in parallel if possible; anything else, such as
+	 * the neighborhoods of a filter, is reduced directly, avoiding the overhead
+	 * of matching an op.
+	 */
+	public static <A, R> R reduce(final OpService ops, final Iterable<A> input,
+		final Reducer<A, R> reducer)
+	{
+		if (input instanceof IterableInterval &&
+			((IterableInterval<?>) input).size() >= PARALLEL_THRESHOLD &&
+			ExecutionContext.current().getParallelism() > 1)
+		{
+			@SuppressWarnings("unchecked")
+			final R result = (R) ops.run(Ops.Reduce.class, input, reducer);
+			return result;
+		}
+		final R result = reducer.createAccumulator();
+		for (final A element : input) {
+			reducer.accumulate(result, element);
+		}
+		return result;
+	}
+
+	// -- Reducers --
+
+	/** Computes the sum of the real values. */
+	public static class SumReducer<T extends RealType<T>> implements
+		Reducer<T, DoubleType>
+	{
+
+		@Override
+		public DoubleType createAccumulator() {
+			return new DoubleType();
+		}
+
+		@Override
+		public void accumulate(final DoubleType sum, final T element) {
+			sum.set(sum.get() + element.getRealDouble());
+		}
+
+		@Override
+		public void combine(final DoubleType sum, final DoubleType other) {
+			sum.set(sum.get() + other.get());
+		}
+	}
+
+	/** Computes the minimum and maximum of the values. */
+	public static class MinMaxReducer<T extends RealType<T>> implements
+		Reducer<T, Extrema<T>>
+	{
+
+		private final T type;
+
+		/** @param type an instance of the type of the values */
+		public MinMaxReducer(final T type) {
+			this.type = type;
+		}
+
+		@Override
+		public Extrema<T> createAccumulator() {
+			return new Extrema<T>(type);
+		}
+
+		@Override
+		public void accumulate(final Extrema<T> extrema, final T element) {
+			extrema.add(element);
+		}
+
+		@Override
+		public void combine(final Extrema<T> extrema, final Extrema<T> other) {
+			if (other.isEmpty()) return;
+			extrema.add(other.getMin());
+			extrema.add(other.getMax());
+		}
+	}
+
+	/**
+	 * Computes the number, sum, mean and variance of the real values, in a
+	 * single pass.
+	 */
+	public static class MomentsReducer<T extends RealType<T>> implements
+		Reducer<T, Moments>
+	{
+
+		@Override
+		public Moments createAccumulator() {
+			return new Moments();
+		}
+
+		@Override
+		public void accumulate(final Moments moments, final T element) {
+			moments.add(element.getRealDouble());
+		}
+
+		@Override
+		public void combine(final Moments moments, final Moments other) {
+			moments.add(other);
+		}
+	}
+
+	// -- Results --
+
+	/** The minimum and maximum of the values seen so far. */
+	public static class Extrema<T extends RealType<T>> {
+
+		private final T min;
+		private final T max;
+		private boolean empty = true;
+
+		public Extrema(final T type) {
+			min = type.createVariable();
+			max = type.createVariable();
+		}
+
+		/** Takes the given value into account. */
+		public void add(final T value) {
+			if (empty) {
+				min.set(value);
+				max.set(value);
+				empty = false;
+			}
+			else if (min.compareTo(value) > 0) min.set(value);
+			else if (max.compareTo(value) < 0) max.set(value);
+		}
+
+		/** Gets whether no values have been seen yet. */
+		public boolean isEmpty() {
+			return empty;
+		}
+
+		public T getMin() {
+			return min;
+		}
+
+		public T getMax() {
+			return max;
+		}
+	}
+
+	/**
+	 * The number, sum, mean and sum of squared deviations from the mean of the
+	 * values seen so far.
+	 * <p>
+	 * The mean and the squared deviations are updated incrementally, as
+	 * proposed by Welford, and partial results are merged as proposed by Chan et
+	 * al. This avoids the cancellation errors of computing the variance from
+	 * the sum of squares.
+	 * </p>
+	 */
+	public static class Moments {
+
+		private long count;
+		private double sum;
+		private double mean;
+		private double m2;
+
+		/** Takes the given value into account. */
+		public void add(final double value) {
+			count++;
+			sum += value;
+			final double delta = value - mean;
+			mean += delta / count;
+			m2 += delta * (value - mean);
+		}
+
+		/** Takes the values of the given moments into account. */
+		public void add(final Moments other) {
+			if (other.count == 0) return;
+			final long n = count + other.count;
+			final double delta = other.mean - mean;
+			mean += delta * other.count / n;
+			m2 += other.m2 + delta * delta * count / n * other.count;
+			count = n;
+			sum += other.sum;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public double getSum() {
+			return sum;
+		}
+
+		public double getMean() {
+			return mean;
+		}
+
+		/** Gets the second moment about the mean, i.e. the population variance. */
+		public double getVariance() {
+			return m2 / count;
+		}
+
+		/** Gets the (unbiased) sample variance. */
+		public double getSampleVariance() {
+			return m2 / (count - 1);
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.stats;
+
+import java.util.Arrays;
+
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * A reusable buffer of sample values, from which order statistics such as the
+ * median are selected.
+ * <p>
+ * The buffer grows as needed and is kept across calls, so that ops which
+ * compute an order statistic of many small {@link Iterable}s, e.g. of every
+ * neighborhood of an image, do not allocate (or box) anything per call. As
+ * with any other state of an op, each independent instance of such an op
+ * needs its own buffer.
+ * </p>
+ * 
+ * @author agent
+ */
+public final class RealSamples {
+
+	private double[] values = new double[16];
+
+	private int size;
+
+	/**
+	 * Replaces the samples with the values of the given {@link Iterable}.
+	 * 
+	 * @return the number of samples
+	 */
+	public int fill(final Iterable<? extends RealType<?>> iterable) {
+		size = 0;
+		for (final RealType<?> value : iterable) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, 2 * size);
+			}
+			values[size++] = value.getRealDouble();
+		}
+		return size;
+	}
+
+	/** Gets the number of samples. */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the value of the kth lowest sample. Do note that for nth lowest
+	 * sample, k = n - 1. The samples are partially reordered.
+	 */
+	public double select(final int k) {
+		final double[] array = values;
+		int left = 0;
+		int right = size - 1;
+		while (true) {
+
+			if (right <= left + 1) {
+
+				if (right == left + 1 && array[right] < array[left]) {
+					swap(array, left, right);
+				}
+
+				return array[k];
+
+			}
+			final int middle = (left + right) >>> 1;
+			swap(array, middle, left + 1);
+
+			if (array[left] > array[right]) {
+				swap(array, left, right);
+			}
+
+			if (array[left + 1] > array[right]) {
+				swap(array, left + 1, right);
+			}
+
+			if (array[left] > array[left + 1]) {
+				swap(array, left, left + 1);
+			}
+
+			int i = left + 1;
+			int j = right;
+			final double pivot = array[left + 1];
+
+			while (true) {
+				do
+					++i;
+				while (array[i] < pivot);
+				do
+					--j;
+				while (array[j] > pivot);
+
+				if (j < i) {
+					break;
+				}
+
+				swap(array, i, j);
+			}
+
+			array[left + 1] = array[j];
+			array[j] = pivot;
+
+			if (j >= k) {
+				right = j - 1;
+			}
+
+			if (j <= k) {
+				left = i;
+			}
+		}
+	}
+
+	// -- Helper methods --
+
+	private static void swap(final double[] array, final int a, final int b) {
+		final double temp = array[a];
+		array[a] = array[b];
+		array[b] = temp;
+	}
+
+}
@@ -217,6 +217,17 @@ public class StatsNamespace extends AbstractNamespace {
 		return ops().run(Ops.Stats.Quantile.NAME, args);
 	}
 
+	@OpMethod(op = net.imagej.ops.stats.quantile.QuantileRealType.class)
+	public <T extends RealType<T>> T quantile(final T out, final Iterable<T> in,
+		final double quantile)
+	{
+		@SuppressWarnings("unchecked")
+		final T result =
+			(T) ops().run(net.imagej.ops.stats.quantile.QuantileRealType.class, out,
+				in, quantile);
+		return result;
+	}
+
 	// -- size --
 
 	@OpMethod(op = net.imagej.ops.Ops.Stats.Size.class)
@@ -30,13 +30,16 @@
 
 package net.imagej.ops.stats.min;
 
-import java.util.Iterator;
-
 import net.imagej.ops.AbstractHybridOp;
+import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
+import net.imagej.ops.stats.RealReducers;
+import net.imagej.ops.stats.RealReducers.Extrema;
+import net.imagej.ops.stats.RealReducers.MinMaxReducer;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 
 @Plugin(type = Ops.Stats.Min.class, name = Ops.Stats.Min.NAME,
@@ -45,18 +48,14 @@ public class MinRealType<T extends RealType<T>> extends
 	AbstractHybridOp<Iterable<T>, T> implements MinOp<T, T>
 {
 
+	@Parameter
+	private OpService ops;
+
 	@Override
 	public void compute(final Iterable<T> input, final T output) {
-		final Iterator<T> it = input.iterator();
-		T min = it.next().copy();
-
-		while (it.hasNext()) {
-			final T next = it.next();
-			if (min.compareTo(next) > 0) {
-				min.set(next);
-			}
-		}
-		output.set(min);
+		final Extrema<T> extrema = RealReducers.reduce(ops, input,
+			new MinMaxReducer<T>(input.iterator().next()));
+		output.set(extrema.getMin());
 	}
 
 	@Override
@@ -30,9 +30,11 @@
 
 package net.imagej.ops.stats.minMax;
 
-import java.util.Iterator;
-
+import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
+import net.imagej.ops.stats.RealReducers;
+import net.imagej.ops.stats.RealReducers.Extrema;
+import net.imagej.ops.stats.RealReducers.MinMaxReducer;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.ItemIO;
@@ -54,20 +56,15 @@ public class MinMaxRealType<T extends RealType<T>> implements MinMaxOp<T> {
 	@Parameter(type = ItemIO.OUTPUT)
 	private T max;
 
+	@Parameter
+	private OpService ops;
+
 	@Override
 	public void run() {
-		min = img.iterator().next().createVariable();
-		max = min.copy();
-
-		min.setReal(min.getMaxValue());
-		max.setReal(max.getMinValue());
-
-		final Iterator<T> it = img.iterator();
-		while (it.hasNext()) {
-			final T i = it.next();
-			if (min.compareTo(i) > 0) min.set(i);
-			if (max.compareTo(i) < 0) max.set(i);
-		}
+		final Extrema<T> extrema = RealReducers.reduce(ops, img,
+			new MinMaxReducer<T>(img.iterator().next()));
+		min = extrema.getMin();
+		max = extrema.getMax();
 	}
 
 }
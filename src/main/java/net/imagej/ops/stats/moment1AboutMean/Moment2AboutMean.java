@@ -30,10 +30,11 @@
 
 package net.imagej.ops.stats.moment1AboutMean;
 
-import java.util.Iterator;
-
 import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
+import net.imagej.ops.stats.RealReducers;
+import net.imagej.ops.stats.RealReducers.SumReducer;
 import net.imagej.ops.stats.mean.MeanOp;
 import net.imagej.ops.stats.size.SizeOp;
 import net.imglib2.type.numeric.RealType;
@@ -53,6 +54,9 @@ public class Moment2AboutMean<T extends RealType<T>> extends
 	@Parameter
 	private SizeOp<Iterable<T>> size;
 
+	@Parameter
+	private OpService ops;
+
 	@Override
 	public void compute(final Iterable<T> input, final DoubleType output) {
 		final DoubleType meanOutput = new DoubleType();
@@ -63,14 +67,16 @@ public class Moment2AboutMean<T extends RealType<T>> extends
 		size.compute(input, sizeOutput);
 		final double area = sizeOutput.get();
 
-		double res = 0.0;
+		final DoubleType res =
+			RealReducers.reduce(ops, input, new SumReducer<T>() {
 
-		final Iterator<T> it = input.iterator();
-		while (it.hasNext()) {
-			final double val = it.next().getRealDouble() - meanValue;
-			res += val * val;
-		}
+				@Override
+				public void accumulate(final DoubleType sum, final T element) {
+					final double val = element.getRealDouble() - meanValue;
+					sum.set(sum.get() + val * val);
+				}
+			});
 
-		output.setReal(res / area);
+		output.setReal(res.get() / area);
 	}
 }
@@ -0,0 +1,79 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.stats.quantile;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.Ops;
+import net.imagej.ops.stats.RealSamples;
+import net.imglib2.type.numeric.RealType;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Computes a quantile of the values of an {@link Iterable}.
+ * <p>
+ * The quantile q selects the value of rank {@code floor(q * n)} among the
+ * {@code n} sorted values, so that 0 yields the minimum, 0.5 the (upper)
+ * median and 1 the maximum.
+ * </p>
+ * 
+ * @author agent
+ * @param <T> type of the input and output
+ */
+@Plugin(type = Ops.Stats.Quantile.class, name = Ops.Stats.Quantile.NAME,
+	priority = Priority.LOW_PRIORITY)
+public class QuantileRealType<T extends RealType<T>> extends
+	AbstractComputerOp<Iterable<T>, T> implements Quantile<Iterable<T>, T>
+{
+
+	@Parameter(min = "0", max = "1")
+	private double quantile;
+
+	private final RealSamples samples = new RealSamples();
+
+	@Override
+	public void compute(final Iterable<T> input, final T output) {
+		final int size = samples.fill(input);
+		final int rank = Math.max(0, Math.min(size - 1, (int) (quantile * size)));
+		output.setReal(samples.select(rank));
+	}
+
+	@Override
+	public QuantileRealType<T> getIndependentInstance() {
+		// NB: Each instance needs its own buffer of samples.
+		final QuantileRealType<T> instance = new QuantileRealType<T>();
+		instance.quantile = quantile;
+		return instance;
+	}
+
+}
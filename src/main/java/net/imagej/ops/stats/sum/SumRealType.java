@@ -31,10 +31,15 @@
 package net.imagej.ops.stats.sum;
 
 import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
+import net.imagej.ops.stats.RealReducers;
+import net.imagej.ops.stats.RealReducers.SumReducer;
 import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
 
 import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 
 @Plugin(type = Ops.Stats.Sum.class, name = Ops.Stats.Sum.NAME,
@@ -43,12 +48,14 @@ public class SumRealType<T extends RealType<T>, V extends RealType<V>> extends
 	AbstractComputerOp<Iterable<T>, V> implements SumOp<Iterable<T>, V>
 {
 
+	@Parameter
+	private OpService ops;
+
 	@Override
 	public void compute(final Iterable<T> input, final V output) {
-		output.setZero();
-		for (final T t : input) {
-			output.setReal(output.getRealDouble() + t.getRealDouble());
-		}
+		final DoubleType sum =
+			RealReducers.reduce(ops, input, new SumReducer<T>());
+		output.setReal(sum.get());
 	}
 
 }
@@ -33,6 +33,9 @@ package net.imagej.ops.stats.variance;
 import net.imagej.ops.AbstractComputerOp;
 import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
+import net.imagej.ops.stats.RealReducers;
+import net.imagej.ops.stats.RealReducers.Moments;
+import net.imagej.ops.stats.RealReducers.MomentsReducer;
 import net.imagej.ops.stats.moment1AboutMean.Moment2AboutMean;
 import net.imglib2.type.numeric.RealType;
 import net.imglib2.type.numeric.real.DoubleType;
@@ -56,9 +59,13 @@ public class VarianceRealType<T extends RealType<T>> extends
 
 	@Override
 	public void compute(final Iterable<T> input, final DoubleType output) {
-		if (moment2 == null) {
-			moment2 = ops.op(Moment2AboutMean.class, output, input);
+		if (moment2 != null) {
+			moment2.compute(input, output);
+			return;
 		}
-		moment2.compute(input, output);
+		// NB: Compute the mean and the deviations from it in a single pass.
+		final Moments moments =
+			RealReducers.reduce(ops, input, new MomentsReducer<T>());
+		output.set(moments.getVariance());
 	}
 }
@@ -30,13 +30,16 @@
 
 package net.imagej.ops.stats.variance;
 
-import java.util.Iterator;
-
 import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
+import net.imagej.ops.stats.RealReducers;
+import net.imagej.ops.stats.RealReducers.Moments;
+import net.imagej.ops.stats.RealReducers.MomentsReducer;
 import net.imglib2.type.numeric.RealType;
 
 import org.scijava.Priority;
+import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 
 @Plugin(type = Ops.Stats.Variance.class, name = Ops.Stats.Variance.NAME,
@@ -46,21 +49,14 @@ public class VarianceRealTypeDirect<T extends RealType<T>, O extends RealType<O>
 	VarianceOp<T, O>
 {
 
+	@Parameter
+	private OpService ops;
+
 	@Override
 	public void compute(final Iterable<T> input, final O output) {
-		double sum = 0;
-		double sumSqr = 0;
-		int n = 0;
-
-		final Iterator<T> it = input.iterator();
-		while (it.hasNext()) {
-			final double px = it.next().getRealDouble();
-			++n;
-			sum += px;
-			sumSqr += px * px;
-		}
-
-		output.setReal((sumSqr - (sum * sum / n)) / (n - 1));
+		final Moments moments =
+			RealReducers.reduce(ops, input, new MomentsReducer<T>());
+		output.setReal(moments.getSampleVariance());
 	}
 
 }
@@ -0,0 +1,229 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread;
+
+import java.util.concurrent.ExecutorService;
+
+import net.imagej.ops.Parallel;
+
+/**
+ * The resources with which {@link Parallel} ops may execute: the executor
+ * running their worker threads, the maximum number of threads to use at once,
+ * and how nested parallel ops share those threads.
+ * <p>
+ * Each thread has a current context, which parallel ops consult when they
+ * fan out; by default, all processors may be used, with the
+ * {@link Nesting#SHARED SHARED} nesting policy. To limit the resources of some
+ * code, including all ops it runs, use {@link #run(Runnable)}:
+ * </p>
+ * 
+ * <pre>
+ * new ExecutionContext(4).run(new Runnable() {
+ * 
+ * 	public void run() {
+ * 		ops.run(...); // uses at most 4 threads
+ * 	}
+ * });
+ * </pre>
+ * <p>
+ * The workers of a parallel op run in a {@link #nested nested} context, so
+ * the policy also applies to any parallel ops executed by those workers.
+ * </p>
+ * <p>
+ * A context also carries the {@link TaskMonitor} through which the code it
+ * runs can be canceled, and its progress followed.
+ * </p>
+ * 
+ * @author agent
+ */
+public class ExecutionContext {
+
+	/** Policies for parallel ops executed by the workers of parallel ops. */
+	public enum Nesting {
+
+		/** Nested parallel ops may use up to the maximum parallelism each. */
+		UNLIMITED,
+
+		/** Nested parallel ops divide the threads of the op which runs them. */
+		SHARED,
+
+		/** Only the outermost parallel op fans out; nested ones run serially. */
+		OUTERMOST
+	}
+
+	/** The context in effect on each thread, if other than the default. */
+	private static final ThreadLocal<ExecutionContext> current =
+		new ThreadLocal<ExecutionContext>();
+
+	private final ExecutorService executor;
+	private final int maxParallelism;
+	private final Nesting nesting;
+	private final int parallelism;
+	private final int depth;
+	private final TaskMonitor monitor;
+
+	/**
+	 * Creates a context using the default executor, with the given maximum
+	 * parallelism, shared among nested parallel ops.
+	 */
+	public ExecutionContext(final int maxParallelism) {
+		this(null, maxParallelism, Nesting.SHARED);
+	}
+
+	/**
+	 * Creates a context.
+	 * 
+	 * @param executor The executor for worker threads, or null to use the
+	 *          application's {@link org.scijava.thread.ThreadService}.
+	 * @param maxParallelism The maximum number of threads a parallel op may use.
+	 * @param nesting The policy for nested parallel ops.
+	 */
+	public ExecutionContext(final ExecutorService executor,
+		final int maxParallelism, final Nesting nesting)
+	{
+		this(executor, maxParallelism, nesting, maxParallelism, 0,
+			new TaskMonitor());
+	}
+
+	private ExecutionContext(final ExecutorService executor,
+		final int maxParallelism, final Nesting nesting, final int parallelism,
+		final int depth, final TaskMonitor monitor)
+	{
+		if (maxParallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism: " +
+				maxParallelism);
+		}
+		this.executor = executor;
+		this.maxParallelism = maxParallelism;
+		this.nesting = nesting;
+		this.parallelism = parallelism;
+		this.depth = depth;
+		this.monitor = monitor;
+	}
+
+	// -- ExecutionContext methods --
+
+	/** Gets the executor for worker threads, or null for the default. */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/** Gets the maximum number of threads a parallel op may use. */
+	public int getMaxParallelism() {
+		return maxParallelism;
+	}
+
+	/** Gets the policy for nested parallel ops. */
+	public Nesting getNesting() {
+		return nesting;
+	}
+
+	/** Gets the number of threads a parallel op may use in this context. */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/** Gets how many parallel ops this context is nested in. */
+	public int getDepth() {
+		return depth;
+	}
+
+	/** Gets the monitor of the code running in this context. */
+	public TaskMonitor getMonitor() {
+		return monitor;
+	}
+
+	/** Gets a copy of this context with the given monitor. */
+	public ExecutionContext withMonitor(final TaskMonitor taskMonitor) {
+		return new ExecutionContext(executor, maxParallelism, nesting,
+			parallelism, depth, taskMonitor);
+	}
+
+	/**
+	 * Gets the context of the workers of a parallel op executing in this
+	 * context.
+	 * 
+	 * @param numWorkers The number of workers of the parallel op.
+	 */
+	public ExecutionContext nested(final int numWorkers) {
+		final int p;
+		switch (nesting) {
+			case OUTERMOST:
+				p = 1;
+				break;
+			case SHARED:
+				p = Math.max(1, parallelism / Math.max(1, numWorkers));
+				break;
+			default:
+				p = maxParallelism;
+		}
+		return new ExecutionContext(executor, maxParallelism, nesting, p,
+			depth + 1, monitor);
+	}
+
+	/** Runs the given code with this context in effect. */
+	public void run(final Runnable code) {
+		final ExecutionContext outer = current.get();
+		current.set(this);
+		try {
+			code.run();
+		}
+		finally {
+			if (outer == null) current.remove();
+			else current.set(outer);
+		}
+	}
+
+	/**
+	 * Wraps the given code, to be run by one of the workers of a parallel op
+	 * executing in this context, so that it runs in the {@link #nested} context.
+	 */
+	public Runnable worker(final Runnable code, final int numWorkers) {
+		final ExecutionContext nested = nested(numWorkers);
+		return new Runnable() {
+
+			@Override
+			public void run() {
+				nested.run(code);
+			}
+		};
+	}
+
+	// -- Utility methods --
+
+	/** Gets the context in effect on the current thread. */
+	public static ExecutionContext current() {
+		final ExecutionContext context = current.get();
+		return context == null ? new ExecutionContext(Runtime.getRuntime()
+			.availableProcessors()) : context;
+	}
+
+}
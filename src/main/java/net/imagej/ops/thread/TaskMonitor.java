@@ -0,0 +1,193 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.scijava.Cancelable;
+
+/**
+ * Cancellation and progress of a task, shared by all ops executing on its
+ * behalf.
+ * <p>
+ * A monitor is attached to an {@link ExecutionContext} (see
+ * {@link ExecutionContext#withMonitor}), and thereby to every op run within
+ * that context. Parallel ops stop handing out work once the monitor is
+ * canceled, and long-running code can poll {@link #isCanceled()} to stop
+ * early; polling is cheap enough to do per element. The outermost parallel
+ * ops report the number of elements they will process, and have processed,
+ * as {@link #getWorkTotal()} and {@link #getWorkDone()}.
+ * </p>
+ * <p>
+ * A monitor may have a parent, in which case it is also canceled whenever its
+ * parent is, but not vice versa.
+ * </p>
+ * <p>
+ * A pending {@link #setTimeout timeout} is discarded once the monitor is
+ * canceled, or its task is marked as {@link #done()}.
+ * </p>
+ * 
+ * @author agent
+ */
+public class TaskMonitor implements Cancelable {
+
+	/** Timer for canceling monitors whose time is up. */
+	private static Timer timer;
+
+	private volatile TaskMonitor parent;
+
+	private final AtomicLong workDone = new AtomicLong();
+	private final AtomicLong workTotal = new AtomicLong();
+
+	/** Reason for cancelation, or null if not canceled. */
+	private volatile String cancelReason;
+
+	/** Pending timeout, or null if none. */
+	private TimerTask pendingTimeout;
+
+	public TaskMonitor() {
+		this(null);
+	}
+
+	public TaskMonitor(final TaskMonitor parent) {
+		this.parent = parent;
+	}
+
+	// -- TaskMonitor methods --
+
+	/** Gets the parent monitor, or null if none. */
+	public TaskMonitor getParent() {
+		return parent;
+	}
+
+	/**
+	 * Links this monitor to the given parent, so that it is also canceled
+	 * whenever the parent is. Cancelation of this monitor itself is unaffected.
+	 */
+	public void setParent(final TaskMonitor parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Cancels this monitor once the given time has elapsed from now, replacing
+	 * any pending timeout.
+	 */
+	public synchronized void setTimeout(final long timeout, final TimeUnit unit) {
+		cancelTimeout();
+		if (cancelReason != null) return;
+		pendingTimeout = new TimerTask() {
+
+			@Override
+			public void run() {
+				synchronized (TaskMonitor.this) {
+					// NB: The timeout may have been replaced while this task started.
+					if (pendingTimeout != this) return;
+					TaskMonitor.this.cancel("Timed out after " + timeout + " " +
+						unit.toString().toLowerCase());
+				}
+			}
+		};
+		timer().schedule(pendingTimeout, Math.max(0, unit.toMillis(timeout)));
+	}
+
+	/** Marks the task as done, discarding its pending timeout, if any. */
+	public synchronized void done() {
+		cancelTimeout();
+	}
+
+	/** Gets the number of work units completed so far. */
+	public long getWorkDone() {
+		return workDone.get();
+	}
+
+	/** Gets the total number of work units announced so far. */
+	public long getWorkTotal() {
+		return workTotal.get();
+	}
+
+	/**
+	 * Gets the fraction of the announced work completed so far, between 0 and
+	 * 1.
+	 */
+	public double getProgress() {
+		final long total = getWorkTotal();
+		return total == 0 ? 0 : Math.min(1, (double) getWorkDone() / total);
+	}
+
+	/** Announces the given number of additional work units. */
+	public void addWork(final long units) {
+		workTotal.addAndGet(units);
+	}
+
+	/** Records the completion of the given number of work units. */
+	public void worked(final long units) {
+		workDone.addAndGet(units);
+	}
+
+	// -- Cancelable methods --
+
+	@Override
+	public boolean isCanceled() {
+		return cancelReason != null || parent != null && parent.isCanceled();
+	}
+
+	@Override
+	public synchronized void cancel(final String reason) {
+		if (cancelReason != null) return;
+		cancelReason = reason == null ? "" : reason;
+		cancelTimeout();
+	}
+
+	@Override
+	public String getCancelReason() {
+		if (cancelReason != null) return cancelReason;
+		return parent == null ? null : parent.getCancelReason();
+	}
+
+	// -- Helper methods --
+
+	/** Cancels the pending timeout, if any, and drops it from the timer. */
+	private void cancelTimeout() {
+		if (pendingTimeout == null) return;
+		pendingTimeout.cancel();
+		pendingTimeout = null;
+		timer().purge();
+	}
+
+	private static synchronized Timer timer() {
+		if (timer == null) timer = new Timer("TaskMonitor-Timeout", true);
+		return timer;
+	}
+
+}
@@ -34,6 +34,7 @@ import net.imagej.ops.AbstractNamespace;
 import net.imagej.ops.Namespace;
 import net.imagej.ops.OpMethod;
 import net.imagej.ops.thread.chunker.Chunk;
+import net.imglib2.IterableInterval;
 
 import org.scijava.plugin.Plugin;
 
@@ -54,13 +55,24 @@ public class ThreadNamespace extends AbstractNamespace {
 	}
 
 	/** Executes the "chunker" operation on the given arguments. */
-	@OpMethod(ops = { net.imagej.ops.thread.chunker.DefaultChunker.class,
+	@OpMethod(ops = { net.imagej.ops.thread.chunker.ChunkerAdaptive.class,
+		net.imagej.ops.thread.chunker.ChunkerDynamic.class,
+		net.imagej.ops.thread.chunker.DefaultChunker.class,
 		net.imagej.ops.thread.chunker.ChunkerInterleaved.class })
 	public void chunker(final Chunk chunkable, final long numberOfElements) {
 		ops().run(net.imagej.ops.thread.chunker.DefaultChunker.class, chunkable,
 			numberOfElements);
 	}
 
+	/** Executes the "chunker" operation on the given arguments. */
+	@OpMethod(op = net.imagej.ops.thread.chunker.ChunkerBlockwise.class)
+	public void chunker(final Chunk chunkable, final long numberOfElements,
+		final IterableInterval<?> storage)
+	{
+		ops().run(net.imagej.ops.thread.chunker.ChunkerBlockwise.class, chunkable,
+			numberOfElements, storage);
+	}
+
 	// -- Named methods --
 
 	@Override
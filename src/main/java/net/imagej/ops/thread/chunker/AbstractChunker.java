@@ -30,11 +30,31 @@
 
 package net.imagej.ops.thread.chunker;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+
+import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
 import org.scijava.thread.ThreadService;
 
 /**
  * Abstract {@link ChunkerOp}.
+ * <p>
+ * Each execution has its own {@link TaskMonitor}, linked as a child to the
+ * monitor of the current {@link ExecutionContext}, which is in effect for all
+ * chunks. Canceling the chunker, or the task it is part of, thus stops the
+ * workers from taking on more elements, and is visible to chunks which poll
+ * {@code ExecutionContext.current().getMonitor()}. A chunker canceled before
+ * it runs does not process any elements; once an execution has finished, its
+ * monitor is kept for inspection until the chunker is run or canceled again.
+ * When not nested in another parallel op, the chunker reports its progress to
+ * the task's monitor.
+ * </p>
  * 
  * @author Christian Dietz (University of Konstanz)
  */
@@ -46,6 +66,9 @@ public abstract class AbstractChunker implements ChunkerOp {
 	@Parameter
 	protected ThreadService threadService;
 
+	@Parameter
+	public LogService logService;
+
 	/**
 	 * {@link Chunk} to be executed
 	 */
@@ -58,8 +81,41 @@ public abstract class AbstractChunker implements ChunkerOp {
 	@Parameter
 	protected long numberOfElements;
 
-	/** Reason for cancelation, or null if not canceled. */
-	private String cancelReason;
+	/** Monitor of the current, next or last execution. */
+	private volatile TaskMonitor monitor = new TaskMonitor();
+
+	/** Whether {@link #monitor} belongs to a finished execution. */
+	private boolean finished;
+
+	/** Monitor of the task to report progress to, or null if none. */
+	private TaskMonitor progress;
+
+	// -- Runnable methods --
+
+	@Override
+	public void run() {
+		final ExecutionContext context = ExecutionContext.current();
+		final TaskMonitor execution = nextMonitor();
+		execution.setParent(context.getMonitor());
+		progress = context.getDepth() == 0 ? context.getMonitor() : null;
+		if (progress != null) progress.addWork(numberOfElements);
+		try {
+			if (isCanceled()) return;
+			context.withMonitor(execution).run(new Runnable() {
+
+				@Override
+				public void run() {
+					runChunks();
+				}
+			});
+		}
+		finally {
+			execution.done();
+			synchronized (this) {
+				finished = true;
+			}
+		}
+	}
 
 	// -- Chunker methods --
 
@@ -69,26 +125,129 @@ public abstract class AbstractChunker implements ChunkerOp {
 	}
 
 	@Override
-	public void setNumberOfElements(final int totalSize) {
+	public void setNumberOfElements(final long totalSize) {
 		this.numberOfElements = totalSize;
 	}
 
+	// -- Internal methods --
+
+	/** Processes all elements, by executing the {@link #chunkable}. */
+	protected abstract void runChunks();
+
+	/**
+	 * Gets the number of threads to use, as allowed by the current
+	 * {@link ExecutionContext}.
+	 */
+	protected int getParallelism() {
+		return ExecutionContext.current().getParallelism();
+	}
+
+	/**
+	 * Wraps the given worker so that it runs in the nested
+	 * {@link ExecutionContext}.
+	 * 
+	 * @param numWorkers The total number of workers of this chunker.
+	 */
+	protected Runnable worker(final Runnable worker, final int numWorkers) {
+		return ExecutionContext.current().worker(worker, numWorkers);
+	}
+
+	/**
+	 * Runs the given worker on another thread, using the executor of the current
+	 * {@link ExecutionContext}, if any, or else the {@link #threadService}.
+	 * Workers which no thread has started yet when they are {@link #join joined}
+	 * run on the joining thread instead.
+	 */
+	protected Future<?> fork(final Runnable worker) {
+		final FutureTask<?> task = new FutureTask<Object>(worker, null);
+		final ExecutorService executor = ExecutionContext.current().getExecutor();
+		if (executor == null) threadService.run(task);
+		else executor.execute(task);
+		return task;
+	}
+
+	/**
+	 * Waits for the given workers to finish. If one fails, the chunker is
+	 * canceled, so that the others stop as soon as possible; they are still
+	 * waited for, so that no chunk is executing anymore once this method
+	 * returns.
+	 * <p>
+	 * Forked workers which are still queued are run by the calling thread. This
+	 * way, a chunker running on a thread of a bounded executor, e.g. in a nested
+	 * parallel op, never waits for work which can only run on the very threads
+	 * that are waiting.
+	 * </p>
+	 */
+	protected void join(final List<Future<?>> futures) {
+		for (final Future<?> future : futures) {
+			// NB: A task which has already started on another thread is not rerun.
+			if (future instanceof FutureTask) ((FutureTask<?>) future).run();
+		}
+		for (final Future<?> future : futures) {
+			try {
+				future.get();
+			}
+			catch (final Exception e) {
+				logService.error(e);
+				cancel(e.toString());
+			}
+		}
+	}
+
+	/**
+	 * Executes the {@link #chunkable} for the given elements, unless canceled.
+	 * The indices are passed on as is to a {@link LongChunk}; any other
+	 * {@link Chunk} can only address elements up to {@link Integer#MAX_VALUE}.
+	 */
+	protected void execute(final long startIndex, final long stepSize,
+		final long numSteps)
+	{
+		if (isCanceled()) return;
+		if (chunkable instanceof LongChunk) {
+			((LongChunk) chunkable).execute(startIndex, stepSize, numSteps);
+		}
+		else {
+			final long lastIndex = startIndex + stepSize * (numSteps - 1);
+			if (lastIndex > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Element " + lastIndex +
+					" is out of range for an int-indexed chunk; use a LongChunk");
+			}
+			chunkable.execute((int) startIndex, (int) stepSize, (int) numSteps);
+		}
+		if (progress != null) progress.worked(numSteps);
+	}
+
 	// -- Cancelable methods --
 
 	@Override
 	public boolean isCanceled() {
-		return cancelReason != null;
+		return monitor.isCanceled();
 	}
 
 	/** Cancels the command execution, with the given reason for doing so. */
 	@Override
 	public void cancel(final String reason) {
-		cancelReason = reason;
+		nextMonitor().cancel(reason);
 	}
 
 	@Override
 	public String getCancelReason() {
-		return cancelReason;
+		return monitor.getCancelReason();
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Gets the monitor of the current or next execution, replacing that of a
+	 * finished execution, so that a cancelation requested before an execution
+	 * carries over to it.
+	 */
+	private synchronized TaskMonitor nextMonitor() {
+		if (finished) {
+			monitor = new TaskMonitor();
+			finished = false;
+		}
+		return monitor;
 	}
 
 }
@@ -0,0 +1,68 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imagej.ops.thread.chunker;
+
+/**
+ * Abstract {@link LongChunk}, which forwards {@link #execute(int, int, int)}
+ * to {@link #execute(long, long, long)}.
+ * <p>
+ * A chunk which applies an op to each element should be given that op, so
+ * that {@link ChunkerOp}s which measure the cost of elements (see
+ * {@link ChunkerAdaptive}) estimate it per op, rather than per call site.
+ * </p>
+ * 
+ * @author agent
+ */
+public abstract class AbstractLongChunk implements LongChunk {
+
+	private final Class<?> opClass;
+
+	protected AbstractLongChunk() {
+		this(null);
+	}
+
+	/** @param op The op applied to each element, or null if none. */
+	protected AbstractLongChunk(final Object op) {
+		opClass = op == null ? null : op.getClass();
+	}
+
+	/** Gets the class of the op applied to each element, or null if none. */
+	public Class<?> getOpClass() {
+		return opClass;
+	}
+
+	@Override
+	public void execute(final int startIndex, final int stepSize,
+		final int numSteps)
+	{
+		execute((long) startIndex, (long) stepSize, (long) numSteps);
+	}
+
+}
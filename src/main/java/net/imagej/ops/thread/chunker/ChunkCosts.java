@@ -0,0 +1,115 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread.chunker;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Measured execution cost per element of {@link Chunk}s, remembered so that
+ * later executions can be sized without measuring from scratch.
+ * <p>
+ * Costs are remembered per chunk class (i.e., per call site) and, for
+ * {@link AbstractLongChunk}s which know the op they apply to each element,
+ * per op class, so that ops mapped through the same call site do not share
+ * their estimates.
+ * </p>
+ * 
+ * @author agent
+ */
+final class ChunkCosts {
+
+	/** Duration aimed for per chunk, in nanoseconds. */
+	static final long TARGET_CHUNK_TIME = 1000000;
+
+	/**
+	 * Estimated total duration, in nanoseconds, below which elements are
+	 * processed serially, as forking and joining workers would cost more.
+	 */
+	static final long SERIAL_THRESHOLD = 250000;
+
+	/** Nanoseconds per element, keyed on chunk class, then on op class. */
+	private static final Map<Class<?>, Map<Class<?>, Double>> costs =
+		new WeakHashMap<Class<?>, Map<Class<?>, Double>>();
+
+	private ChunkCosts() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	/**
+	 * Gets the estimated cost per element of the given chunk, in nanoseconds, or
+	 * {@link Double#NaN} if unknown.
+	 */
+	static double get(final Chunk chunk) {
+		synchronized (costs) {
+			final Map<Class<?>, Double> opCosts = costs.get(chunk.getClass());
+			final Double cost =
+				opCosts == null ? null : opCosts.get(opClass(chunk));
+			return cost == null ? Double.NaN : cost;
+		}
+	}
+
+	/**
+	 * Records that the given chunk took the given time to process the given
+	 * number of elements.
+	 */
+	static void update(final Chunk chunk, final long elements, final long time) {
+		if (elements <= 0) return;
+		final double measured = (double) time / elements;
+		synchronized (costs) {
+			final double previous = get(chunk);
+			Map<Class<?>, Double> opCosts = costs.get(chunk.getClass());
+			if (opCosts == null) {
+				opCosts = new WeakHashMap<Class<?>, Double>();
+				costs.put(chunk.getClass(), opCosts);
+			}
+			// NB: Average with the previous estimate, to dampen outliers.
+			opCosts.put(opClass(chunk), Double.isNaN(previous) ? measured
+				: (previous + measured) / 2);
+		}
+	}
+
+	/** Gets the class of the op applied by the given chunk, or null. */
+	private static Class<?> opClass(final Chunk chunk) {
+		return chunk instanceof AbstractLongChunk ? ((AbstractLongChunk) chunk)
+			.getOpClass() : null;
+	}
+
+	/**
+	 * Gets the number of elements to process per chunk for the given cost per
+	 * element, between 1 and the given maximum.
+	 */
+	static long chunkSize(final double cost, final long max) {
+		if (!(cost > 0)) return Math.max(1, max);
+		return Math.max(1, Math.min(max, (long) (TARGET_CHUNK_TIME / cost)));
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread.chunker;
+
+import net.imagej.ops.Ops;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Implementation of a {@link ChunkerOp} which sizes its chunks by measuring
+ * how long the elements take to process.
+ * <p>
+ * The calling thread first processes a few micro-batches of elements, timing
+ * them. If the remaining elements are estimated to take less time than it
+ * would take to fork and join workers, they are processed serially. Otherwise,
+ * they are processed with the guided scheduling of {@link ChunkerDynamic},
+ * claiming no fewer elements at once than take about
+ * {@link ChunkCosts#TARGET_CHUNK_TIME}, so that cheap elements are not drowned
+ * in scheduling overhead and expensive ones remain balanced.
+ * </p>
+ * <p>
+ * Estimates are remembered per {@link Chunk} class and op (see
+ * {@link AbstractLongChunk}), and used to size the micro-batches of later
+ * executions.
+ * </p>
+ * 
+ * @author agent
+ */
+@Plugin(type = Ops.Thread.Chunker.class, name = Ops.Thread.Chunker.NAME,
+	priority = Priority.HIGH_PRIORITY + 1)
+public class ChunkerAdaptive extends ChunkerDynamic {
+
+	/** Size of the first micro-batch, when the cost is unknown. */
+	private static final long PROBE_STEPS = 16;
+
+	/** Minimum time spent measuring, in nanoseconds. */
+	private static final long PROBE_TIME = 100000;
+
+	private final int STEP_SIZE = 1;
+
+	@Override
+	protected void runChunks() {
+		// NB: Nothing to measure, nor to process.
+		if (numberOfElements <= 0) return;
+
+		final int numThreads = getParallelism();
+		final long share = (numberOfElements + numThreads - 1) / numThreads;
+
+		// process micro-batches on the calling thread, until the cost is known
+		final double cached = ChunkCosts.get(chunkable);
+		long batch = Double.isNaN(cached) ? PROBE_STEPS : ChunkCosts.chunkSize(
+			cached, share) / 4;
+		long done = 0, time = 0;
+		while (done < numberOfElements && (time < PROBE_TIME || done == 0)) {
+			batch = Math.max(1, Math.min(batch, numberOfElements - done));
+			final long start = System.nanoTime();
+			if (!executeSafely(done, batch)) return;
+			time += System.nanoTime() - start;
+			done += batch;
+			batch *= 2;
+		}
+		final double cost = (double) time / done;
+		final long remaining = numberOfElements - done;
+
+		if (numThreads == 1 || remaining * cost < ChunkCosts.SERIAL_THRESHOLD) {
+			// not worth parallelizing
+			final long start = System.nanoTime();
+			if (executeSafely(done, remaining)) {
+				time += System.nanoTime() - start;
+				ChunkCosts.update(chunkable, numberOfElements, time);
+			}
+			return;
+		}
+
+		final long chunkSize =
+			ChunkCosts.chunkSize(cost, (remaining + numThreads - 1) / numThreads);
+		time += runGuided(done, numThreads, chunkSize);
+		if (!isCanceled()) {
+			ChunkCosts.update(chunkable, numberOfElements, time);
+		}
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Executes the given elements, canceling upon failure.
+	 * 
+	 * @return true iff the elements were processed successfully, and the
+	 *         chunker is not canceled
+	 */
+	private boolean executeSafely(final long startIndex, final long numSteps) {
+		try {
+			execute(startIndex, STEP_SIZE, numSteps);
+			return !isCanceled();
+		}
+		catch (final RuntimeException e) {
+			// NB: Stop the other workers as well.
+			logService.error(e);
+			cancel(e.toString());
+			return false;
+		}
+	}
+
+}
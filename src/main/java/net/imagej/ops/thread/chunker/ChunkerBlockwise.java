@@ -0,0 +1,201 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread.chunker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.imagej.ops.Ops;
+import net.imglib2.Cursor;
+import net.imglib2.IterableInterval;
+import net.imglib2.img.cell.AbstractCell;
+import net.imglib2.img.cell.AbstractCellImg;
+import net.imglib2.img.planar.PlanarImg;
+
+import org.scijava.plugin.Parameter;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Implementation of a {@link ChunkerOp} whose chunks follow the storage layout
+ * of the image being processed.
+ * <p>
+ * The elements are assumed to be enumerated in the iteration order of the
+ * given storage image. For a {@link AbstractCellImg cell image}, which iterates
+ * cell by cell, and a {@link PlanarImg}, which iterates plane by plane, chunks
+ * are made of whole cells resp. planes wherever possible, so that workers do
+ * not share storage blocks. Blocks bigger than a fair share of the elements
+ * are split, and consecutive small blocks grouped, so that there are a few
+ * chunks per processor. Workers claim the chunks in order as they become
+ * idle. Any other image is treated as a single block; callers should only
+ * pass images for which {@link #isBlocked} holds, and use one of the
+ * two-argument chunkers otherwise.
+ * </p>
+ * <p>
+ * The time taken per element is measured and remembered per {@link Chunk}
+ * class and op (see {@link ChunkerAdaptive}); when it is known to be too short to
+ * outweigh the cost of forking workers, elements are processed serially.
+ * </p>
+ * 
+ * @author agent
+ */
+@Plugin(type = Ops.Thread.Chunker.class, name = Ops.Thread.Chunker.NAME)
+public class ChunkerBlockwise extends AbstractChunker {
+
+	/** Number of chunks aimed for per processor. */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final int STEP_SIZE = 1;
+
+	/** The image whose storage layout determines the chunks. */
+	@Parameter
+	private IterableInterval<?> storage;
+
+	@Override
+	protected void runChunks() {
+		// NB: Process few enough elements serially, if their cost is known.
+		final boolean serial = numberOfElements * ChunkCosts.get(chunkable) <
+			ChunkCosts.SERIAL_THRESHOLD;
+		final int numThreads = serial ? 1 : getParallelism();
+		final long[] starts = chunkStarts(numThreads * CHUNKS_PER_THREAD);
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicLong time = new AtomicLong();
+
+		final Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				while (!isCanceled()) {
+					final int i = next.getAndIncrement();
+					if (i >= starts.length - 1) return;
+					try {
+						final long start = System.nanoTime();
+						execute(starts[i], STEP_SIZE, starts[i + 1] - starts[i]);
+						time.addAndGet(System.nanoTime() - start);
+					}
+					catch (final RuntimeException e) {
+						// NB: Stop the other workers as well.
+						logService.error(e);
+						cancel(e.toString());
+					}
+				}
+			}
+		};
+
+		final int numWorkers = Math.min(numThreads, starts.length - 1);
+		final Runnable worker = worker(task, numWorkers);
+		final ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < numWorkers - 1; i++) {
+			futures.add(fork(worker));
+		}
+		worker.run();
+
+		join(futures);
+		if (!isCanceled()) {
+			ChunkCosts.update(chunkable, numberOfElements, time.get());
+		}
+	}
+
+	// -- Utility methods --
+
+	/**
+	 * Checks whether the given image is stored in blocks which this chunker
+	 * aligns its chunks to, i.e., whether it is a cell or planar image.
+	 */
+	public static boolean isBlocked(final IterableInterval<?> image) {
+		return image instanceof AbstractCellImg || image instanceof PlanarImg;
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Divides the elements into about the given number of chunks, aligned to
+	 * storage blocks where possible.
+	 * 
+	 * @return the start index of each chunk, followed by the total number of
+	 *         elements
+	 */
+	private long[] chunkStarts(final int numChunks) {
+		final long target =
+			Math.max(1, (numberOfElements + numChunks - 1) / numChunks);
+
+		final List<Long> starts = new ArrayList<Long>();
+		long start = 0, end = 0;
+		for (final long blockSize : blockSizes()) {
+			end += blockSize;
+			// split blocks which exceed the target size on their own
+			while (end - start >= 2 * target) {
+				starts.add(start);
+				start += target;
+			}
+			// group small blocks until they reach the target size
+			if (end - start >= target) {
+				starts.add(start);
+				start = end;
+			}
+		}
+		if (start < numberOfElements) starts.add(start);
+		starts.add(numberOfElements);
+
+		final long[] result = new long[starts.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = starts.get(i);
+		}
+		return result;
+	}
+
+	/** Gets the sizes of the storage blocks, in iteration order. */
+	private List<Long> blockSizes() {
+		final List<Long> sizes = new ArrayList<Long>();
+		if (storage.size() == numberOfElements) {
+			if (storage instanceof AbstractCellImg) {
+				final Cursor<?> cells =
+					((AbstractCellImg<?, ?, ?, ?>) storage).getCells().cursor();
+				while (cells.hasNext()) {
+					sizes.add(((AbstractCell<?>) cells.next()).size());
+				}
+				return sizes;
+			}
+			if (storage instanceof PlanarImg) {
+				final int numPlanes = ((PlanarImg<?, ?>) storage).numSlices();
+				for (int i = 0; i < numPlanes; i++) {
+					sizes.add(numberOfElements / numPlanes);
+				}
+				return sizes;
+			}
+		}
+		sizes.add(numberOfElements);
+		return sizes;
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread.chunker;
+
+import java.util.ArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.imagej.ops.Ops;
+
+import org.scijava.Priority;
+import org.scijava.plugin.Plugin;
+
+/**
+ * Implementation of a {@link ChunkerOp} which hands out chunks dynamically.
+ * <p>
+ * Rather than dividing the elements up front, one worker per available thread
+ * repeatedly claims the next run of consecutive elements, until all elements
+ * have been claimed. Claims shrink as the remaining work does (so-called
+ * guided scheduling): early chunks are large, keeping the number of chunks
+ * low, while the final chunks are small, so that workers which finish early
+ * pick up the slack of slower ones. This keeps all processors busy even when
+ * the cost per element varies, e.g. for neighborhood operations near the
+ * image border.
+ * </p>
+ * <p>
+ * The calling thread acts as one of the workers. Chunks are executed with
+ * {@code long} indices when they are {@link LongChunk}s, so this chunker can
+ * process more than {@link Integer#MAX_VALUE} elements.
+ * </p>
+ * <p>
+ * {@link ChunkerAdaptive}, which takes precedence when matching, uses the same
+ * scheduling, with a minimum claim sized from the measured cost per element.
+ * </p>
+ * 
+ * @author agent
+ */
+@Plugin(type = Ops.Thread.Chunker.class, name = Ops.Thread.Chunker.NAME,
+	priority = Priority.HIGH_PRIORITY)
+public class ChunkerDynamic extends AbstractChunker {
+
+	/** Minimum number of elements claimed at once, but for the last claim. */
+	private static final long MIN_STEPS = 256;
+
+	private final int STEP_SIZE = 1;
+
+	@Override
+	protected void runChunks() {
+		runGuided(0, getParallelism(), MIN_STEPS);
+	}
+
+	// -- Internal methods --
+
+	/**
+	 * Processes the elements from the given index on, with guided scheduling.
+	 * 
+	 * @param first The index of the first element to process.
+	 * @param numThreads The maximum number of threads to use.
+	 * @param minSteps The minimum number of elements claimed at once, but for
+	 *          the last claim.
+	 * @return The total time spent executing chunks, summed over all workers,
+	 *         in nanoseconds.
+	 */
+	protected long runGuided(final long first, final int numThreads,
+		final long minSteps)
+	{
+		final AtomicLong next = new AtomicLong(first);
+		final AtomicLong time = new AtomicLong();
+
+		final Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				while (!isCanceled()) {
+					final long start = next.get();
+					final long remaining = numberOfElements - start;
+					if (remaining <= 0) return;
+					final long numSteps = Math.min(remaining,
+						Math.max(minSteps, remaining / (2 * numThreads)));
+					if (!next.compareAndSet(start, start + numSteps)) continue;
+					try {
+						final long t = System.nanoTime();
+						execute(start, STEP_SIZE, numSteps);
+						time.addAndGet(System.nanoTime() - t);
+					}
+					catch (final RuntimeException e) {
+						// NB: Stop the other workers as well.
+						logService.error(e);
+						cancel(e.toString());
+					}
+				}
+			}
+		};
+
+		// NB: Fork no more workers than there are claims to make.
+		final long claims = (numberOfElements - first + minSteps - 1) / minSteps;
+		final int numWorkers = (int) Math.max(1, Math.min(numThreads, claims));
+		final Runnable worker = worker(task, numWorkers);
+		final ArrayList<Future<?>> futures =
+			new ArrayList<Future<?>>(numWorkers - 1);
+		for (int i = 0; i < numWorkers - 1; i++) {
+			futures.add(fork(worker));
+		}
+		worker.run();
+
+		join(futures);
+		return time.get();
+	}
+
+}
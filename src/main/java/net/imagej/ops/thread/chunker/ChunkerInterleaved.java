@@ -36,8 +36,6 @@ import java.util.concurrent.Future;
 import net.imagej.ops.Ops;
 
 import org.scijava.Priority;
-import org.scijava.log.LogService;
-import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 
 /**
@@ -52,59 +50,33 @@ import org.scijava.plugin.Plugin;
 	priority = Priority.VERY_LOW_PRIORITY)
 public class ChunkerInterleaved extends AbstractChunker {
 
-	@Parameter
-	public LogService logService;
-
-	private String cancellationMsg;
-
 	@Override
-	public void run() {
+	protected void runChunks() {
 
-		final int numThreads = Runtime.getRuntime().availableProcessors();
-		final int numStepsFloor = (int) (numberOfElements / numThreads);
-		final int remainder = (int) numberOfElements - (numStepsFloor * numThreads);
+		final int numThreads = getParallelism();
+		final long numStepsFloor = numberOfElements / numThreads;
+		final long remainder = numberOfElements - (numStepsFloor * numThreads);
 
 		final ArrayList<Future<?>> futures = new ArrayList<Future<?>>(numThreads);
 
 		for (int i = 0; i < numThreads; i++) {
 			final int j = i;
 
-			futures.add(threadService.run(new Runnable() {
+			futures.add(fork(worker(new Runnable() {
 
 				@Override
 				public void run() {
 					if (j < remainder) {
-						chunkable.execute(j, numThreads, (numStepsFloor + 1));
+						execute(j, numThreads, (numStepsFloor + 1));
 					}
 					else {
-						chunkable.execute(j, numThreads, numStepsFloor);
+						execute(j, numThreads, numStepsFloor);
 					}
 				}
-			}));
+			}, numThreads)));
 		}
 
-		for (final Future<?> future : futures) {
-			try {
-				if (isCanceled()) {
-					break;
-				}
-				future.get();
-			}
-			catch (final Exception e) {
-				logService.error(e);
-				cancellationMsg = e.getMessage();
-				break;
-			}
-		}
+		join(futures);
 	}
 
-	@Override
-	public boolean isCanceled() {
-		return cancellationMsg != null;
-	}
-
-	@Override
-	public String getCancelReason() {
-		return cancellationMsg;
-	}
 }
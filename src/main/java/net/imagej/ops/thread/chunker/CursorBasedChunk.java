@@ -31,9 +31,23 @@ package net.imagej.ops.thread.chunker;
 
 import net.imglib2.Cursor;
 
-public abstract class CursorBasedChunk implements Chunk {
-	
-	public static void setToStart(final Cursor<?> c, int startIndex) {
+/**
+ * A {@link LongChunk} whose elements are enumerated by a {@link Cursor}.
+ * Subclasses implement {@link #execute(long, long, long)}, typically
+ * positioning their cursors with {@link #setToStart(Cursor, long)}.
+ */
+public abstract class CursorBasedChunk extends AbstractLongChunk {
+
+	protected CursorBasedChunk() {
+		super();
+	}
+
+	/** @param op The op applied to each element, or null if none. */
+	protected CursorBasedChunk(final Object op) {
+		super(op);
+	}
+
+	public static void setToStart(final Cursor<?> c, final long startIndex) {
 		c.reset();
 		c.jumpFwd(startIndex + 1);
 	}
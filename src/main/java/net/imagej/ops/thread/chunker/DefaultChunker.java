@@ -35,8 +35,6 @@ import java.util.concurrent.Future;
 
 import net.imagej.ops.Ops;
 
-import org.scijava.log.LogService;
-import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
 
 /**
@@ -52,56 +50,41 @@ public class DefaultChunker extends AbstractChunker {
 
 	private final int STEP_SIZE = 1;
 
-	@Parameter
-	public LogService logService;
-
 	@Override
-	public void run() {
+	protected void runChunks() {
 
 		// TODO: is there a better way to determine the optimal chunk size?
 		
-		final int numSteps = Math.max(1, 
-			(int) (numberOfElements / Runtime.getRuntime().availableProcessors())) ;
+		final long numSteps = Math.max(1, 
+			numberOfElements / getParallelism()) ;
 		
 		final int numChunks = (int) (numberOfElements / numSteps);
 
 		final ArrayList<Future<?>> futures = new ArrayList<Future<?>>(numChunks);
 
 		for (int i = 0; i < numChunks - 1; i++) {
-			final int j = i;
+			final long j = i;
 
-			futures.add(threadService.run(new Runnable() {
+			futures.add(fork(worker(new Runnable() {
 
 				@Override
 				public void run() {
-					chunkable.execute(j * numSteps, STEP_SIZE, numSteps);
+					execute(j * numSteps, STEP_SIZE, numSteps);
 				}
-			}));
+			}, numChunks)));
 		}
 
 		// last chunk additionally add the rest of elements
-		futures.add(threadService.run(new Runnable() {
+		futures.add(fork(worker(new Runnable() {
 
 			@Override
 			public void run() {
-				chunkable.execute((numChunks - 1) * numSteps, STEP_SIZE,
-					(int) (numSteps + (numberOfElements % numSteps)));
+				execute((numChunks - 1) * numSteps, STEP_SIZE,
+					numSteps + (numberOfElements % numSteps));
 			}
-		}));
+		}, numChunks)));
 
-		for (final Future<?> future : futures) {
-			try {
-				if (isCanceled()) {
-					break;
-				}
-				future.get();
-			}
-			catch (final Exception e) {
-				logService.error(e);
-				cancel(e.getMessage());
-				break;
-			}
-		}
+		join(futures);
 	}
 
 }
@@ -66,7 +66,10 @@ public class ApplyConstantThreshold<T extends RealType<T>> extends
 			ops.op(ApplyThresholdComparable.class, BitType.class, threshold
 				.getClass(), threshold);
 
-		// TODO: Use ops.map(...) once multithreading of BitTypes is fixed.
+		// NB: Bit images backed by arrays are mapped in parallel, one word at a
+		// time; see MapIterableIntervalToBitsParallel. Other bit images (e.g.,
+		// cell images or views) are mapped serially, as the other parallel maps
+		// refuse outputs which pack several pixels into each storage entry.
 		ops.map(output, input, applyThreshold);
 	}
 
@@ -30,13 +30,11 @@
 
 package net.imagej.ops.threshold.localMean;
 
-import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
-import net.imagej.ops.stats.mean.MeanOp;
+import net.imagej.ops.map.neighborhood.SlidingWindowComputerOp;
 import net.imagej.ops.threshold.LocalThresholdMethod;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 import net.imglib2.util.Pair;
 
 import org.scijava.plugin.Parameter;
@@ -44,6 +42,10 @@ import org.scijava.plugin.Plugin;
 
 /**
  * LocalThresholdMethod using mean.
+ * <p>
+ * The mean is kept as a running sum, so that the neighborhood can be slid
+ * over the image (see {@link SlidingWindowComputerOp}).
+ * </p>
  * 
  * @author Jonathan Hale (University of Konstanz)
  * @author Martin Horn (University of Konstanz)
@@ -51,27 +53,53 @@ import org.scijava.plugin.Plugin;
 @Plugin(type = Ops.Threshold.LocalMean.class,
 	name = Ops.Threshold.LocalMean.NAME)
 public class LocalMean<T extends RealType<T>> extends LocalThresholdMethod<T>
-	implements Ops.Threshold.LocalMean
+	implements Ops.Threshold.LocalMean, SlidingWindowComputerOp<T, BitType>
 {
 
 	@Parameter
 	private double c;
 
-	@Parameter
-	private OpService ops;
+	private long count;
 
-	private MeanOp<Iterable<T>, DoubleType> mean;
+	private double sum;
 
 	@Override
 	public void compute(final Pair<T, Iterable<T>> input, final BitType output) {
-		if (mean == null) {
-			mean = ops.op(MeanOp.class, DoubleType.class, input.getB());
+		clear();
+		for (final T value : input.getB()) {
+			add(value);
 		}
+		computeWindow(input.getA(), output);
+	}
+
+	@Override
+	public void clear() {
+		count = 0;
+		sum = 0;
+	}
+
+	@Override
+	public void add(final T value) {
+		count++;
+		sum += value.getRealDouble();
+	}
 
-		final DoubleType m = new DoubleType();
+	@Override
+	public void remove(final T value) {
+		count--;
+		sum -= value.getRealDouble();
+	}
 
-		mean.compute(input.getB(), m);
-		output.set(input.getA().getRealDouble() > m.getRealDouble() - c);
+	@Override
+	public void computeWindow(final T center, final BitType output) {
+		output.set(center.getRealDouble() > sum / count - c);
+	}
+
+	@Override
+	public LocalMean<T> getIndependentInstance() {
+		final LocalMean<T> instance = new LocalMean<T>();
+		instance.c = c;
+		return instance;
 	}
 
 }
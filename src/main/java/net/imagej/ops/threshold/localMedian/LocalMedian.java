@@ -61,14 +61,24 @@ public class LocalMedian<T extends RealType<T>> extends LocalThresholdMethod<T>
 
 	private MedianOp<Iterable<T>, DoubleType> median;
 
+	private final DoubleType m = new DoubleType();
+
 	@Override
 	public void compute(Pair<T, Iterable<T>> input, BitType output) {
 		if (median == null) {
 			median = ops.op(MedianOp.class, DoubleType.class, input.getB());
 		}
 
-		final DoubleType m = new DoubleType();
 		median.compute(input.getB(), m);
 		output.set(input.getA().getRealDouble() > m.getRealDouble() - c);
 	}
+
+	@Override
+	public LocalMedian<T> getIndependentInstance() {
+		// NB: The median op and its result are not shared across threads.
+		final LocalMedian<T> instance = new LocalMedian<T>();
+		instance.c = c;
+		instance.ops = ops;
+		return instance;
+	}
 }
@@ -31,14 +31,11 @@
 package net.imagej.ops.threshold.localNiblack;
 
 import net.imagej.ops.Op;
-import net.imagej.ops.OpService;
 import net.imagej.ops.Ops;
-import net.imagej.ops.stats.mean.MeanOp;
-import net.imagej.ops.stats.stdDev.StdDev;
+import net.imagej.ops.map.neighborhood.SlidingWindowComputerOp;
 import net.imagej.ops.threshold.LocalThresholdMethod;
 import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.RealType;
-import net.imglib2.type.numeric.real.DoubleType;
 import net.imglib2.util.Pair;
 
 import org.scijava.plugin.Parameter;
@@ -46,12 +43,18 @@ import org.scijava.plugin.Plugin;
 
 /**
  * LocalThresholdMethod using Niblacks thresholding method.
+ * <p>
+ * The mean and (sample) standard deviation are kept as running sums, so that
+ * the neighborhood can be slid over the image (see
+ * {@link SlidingWindowComputerOp}).
+ * </p>
  * 
  * @author Jonathan Hale
  */
 @Plugin(type = Op.class)
 public class LocalNiblack<T extends RealType<T>> extends
-	LocalThresholdMethod<T> implements Ops.Threshold.LocalNiblack
+	LocalThresholdMethod<T> implements Ops.Threshold.LocalNiblack,
+	SlidingWindowComputerOp<T, BitType>
 {
 
 	@Parameter
@@ -60,29 +63,58 @@ public class LocalNiblack<T extends RealType<T>> extends
 	@Parameter
 	private double k;
 
-	@Parameter
-	private OpService ops;
+	private long count;
 
-	private MeanOp<Iterable<T>, DoubleType> mean;
+	private double sum;
 
-	private StdDev<T, DoubleType> stdDeviation;
+	private double sumOfSquares;
 
 	@Override
 	public void compute(Pair<T, Iterable<T>> input, BitType output) {
-
-		if (stdDeviation == null) {
-			// TODO: Ensure the mean is the mean used by stdDeviation
-			mean = ops.op(MeanOp.class, new DoubleType(), input.getB());
-			stdDeviation = ops.op(StdDev.class, new DoubleType(), input.getB());
+		clear();
+		for (final T value : input.getB()) {
+			add(value);
 		}
+		computeWindow(input.getA(), output);
+	}
 
-		final DoubleType m = new DoubleType();
-		mean.compute(input.getB(), m);
+	@Override
+	public void clear() {
+		count = 0;
+		sum = 0;
+		sumOfSquares = 0;
+	}
 
-		final DoubleType stdDev = new DoubleType();
-		stdDeviation.compute(input.getB(), stdDev);
+	@Override
+	public void add(final T value) {
+		final double v = value.getRealDouble();
+		count++;
+		sum += v;
+		sumOfSquares += v * v;
+	}
 
-		output.set(input.getA().getRealDouble() > m.getRealDouble() + k *
-			stdDev.getRealDouble() - c);
+	@Override
+	public void remove(final T value) {
+		final double v = value.getRealDouble();
+		count--;
+		sum -= v;
+		sumOfSquares -= v * v;
+	}
+
+	@Override
+	public void computeWindow(final T center, final BitType output) {
+		final double mean = sum / count;
+		final double variance = count > 1 ? Math.max(0, (sumOfSquares - sum *
+			mean) / (count - 1)) : 0;
+
+		output.set(center.getRealDouble() > mean + k * Math.sqrt(variance) - c);
+	}
+
+	@Override
+	public LocalNiblack<T> getIndependentInstance() {
+		final LocalNiblack<T> instance = new LocalNiblack<T>();
+		instance.c = c;
+		instance.k = k;
+		return instance;
 	}
 }
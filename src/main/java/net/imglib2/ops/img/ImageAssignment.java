@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import net.imagej.ops.thread.ExecutionContext;
 import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.ops.condition.Condition;
@@ -221,7 +222,7 @@ public class ImageAssignment
 	 * Determines how many threads to use
 	 */
 	private int chooseNumThreads(long[] span, int axis) {
-		int maxThreads = Runtime.getRuntime().availableProcessors();
+		int maxThreads = ExecutionContext.current().getParallelism();
 		if (maxThreads == 1) return 1;
 		long numElements = numElements(span);
 		if (numElements < 10000L) return 1;
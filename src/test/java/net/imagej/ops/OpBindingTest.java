@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import net.imglib2.type.numeric.real.DoubleType;
+
+import org.junit.Test;
+import org.scijava.command.CommandInfo;
+import org.scijava.command.CommandService;
+import org.scijava.module.Module;
+import org.scijava.module.ModuleItem;
+import org.scijava.module.ModuleService;
+
+/**
+ * Tests {@link OpBinding}.
+ * 
+ * @author agent
+ */
+public class OpBindingTest extends AbstractOpTest {
+
+	/** Tests that {@link OpBinding} agrees with the op's {@link ModuleItem}s. */
+	@Test
+	public void testInputs() {
+		final CommandInfo info = info(OpMatchingServiceTest.NaNOp.class);
+		final OpBinding binding = new OpBinding(info);
+		int i = 0;
+		for (final ModuleItem<?> item : info.inputs()) {
+			assertSame(item, binding.getInput(i));
+			assertEquals(item.getGenericType(), binding.getType(i));
+			i++;
+		}
+		assertEquals(i, binding.getInputCount());
+	}
+
+	/** Tests {@link OpBinding#isInstance} and {@link OpBinding#setInput}. */
+	@Test
+	public void testSetInput() {
+		final CommandInfo info = info(OpMatchingServiceTest.NaNOp.class);
+		final OpBinding binding = new OpBinding(info);
+		final DoubleType value = new DoubleType(1);
+
+		assertTrue(binding.isInstance(0, value));
+		assertFalse(binding.isInstance(0, 1.0));
+		assertFalse(binding.isInstance(0, DoubleType.class));
+
+		final Module module =
+			context.service(ModuleService.class).createModule(info);
+		binding.setInput(module, 0, value);
+		assertSame(value, module.getInput(binding.getInput(0).getName()));
+	}
+
+	// -- Helper methods --
+
+	private CommandInfo info(final Class<? extends Op> opClass) {
+		return context.service(CommandService.class).getCommand(opClass);
+	}
+
+}
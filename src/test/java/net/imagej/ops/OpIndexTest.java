@@ -0,0 +1,167 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.imagej.ops.OpCandidate.StatusCode;
+
+import org.junit.Test;
+import org.scijava.command.CommandInfo;
+import org.scijava.module.ModuleInfo;
+import org.scijava.module.ModuleItem;
+
+/**
+ * Tests {@link OpIndex}.
+ * 
+ * @author agent
+ */
+public class OpIndexTest extends AbstractOpTest {
+
+	/** Tests that the op index written by the build agrees with the ops. */
+	@Test
+	public void testConsistency() throws IOException {
+		final OpIndex index = new OpIndex();
+		index.load(Thread.currentThread().getContextClassLoader());
+		assertTrue(index.size() > 0);
+
+		int indexed = 0;
+		for (final CommandInfo info : matcher.getOps()) {
+			final OpIndex.Entry entry = index.get(info);
+			if (entry == null) continue;
+			indexed++;
+
+			int requiredCount = 0;
+			for (final ModuleItem<?> item : info.inputs()) {
+				if (item.isRequired()) requiredCount++;
+			}
+			final String op = info.getClassName();
+			assertEquals(op, count(info.inputs()), entry.getInputCount());
+			assertEquals(op, requiredCount, entry.getRequiredCount());
+			assertEquals(op, count(info.outputs()), entry.getOutputCount());
+			assertTrue(op, entry.isType(Op.class));
+			assertTrue(op, entry.isType(info.getPluginType()));
+
+			// check the parameter types assigned to each number of arguments
+			int i = 0;
+			for (final ModuleItem<?> item : info.inputs()) {
+				assertEquals(op, item.getType().getName(),
+					entry.getInputTypes()[i++]);
+			}
+			for (int n = requiredCount; n <= entry.getInputCount(); n++) {
+				final Object[] args = new Object[n];
+				for (int a = 0; a < n; a++) {
+					args[a] = a;
+				}
+				final Object[] padded =
+					matcher.padArgs(new OpCandidate<Op>(new OpRef<Op>(info.getName(),
+						args), info));
+				final String[] types = entry.getArgumentTypes(n);
+				int k = 0;
+				for (final ModuleItem<?> item : info.inputs()) {
+					if (padded[k] != null) {
+						assertEquals(op, item.getType().getName(),
+							types[(Integer) padded[k]]);
+					}
+					k++;
+				}
+			}
+			assertNull(op, entry.getArgumentTypes(entry.getInputCount() + 1));
+		}
+		assertTrue(indexed > 0);
+	}
+
+	/** Tests that indexed candidates are ruled out by argument type. */
+	@Test
+	public void testArgumentTypes() throws IOException {
+		final OpIndex index = new OpIndex();
+		index.load(Thread.currentThread().getContextClassLoader());
+
+		// NB: No op named 'math.add' takes a thread as its argument.
+		final List<OpCandidate<Op>> candidates =
+			matcher.findCandidates(new OpRef<Op>("math.add", new Thread(),
+				new Thread()));
+		assertTrue(candidates.size() > 0);
+		assertTrue(matcher.findMatches(candidates).isEmpty());
+		for (final OpCandidate<Op> candidate : candidates) {
+			if (index.get(candidate.getInfo()) == null) continue;
+			final StatusCode code = candidate.getStatusCode();
+			assertTrue(candidate.getInfo().getDelegateClassName(),
+				code == StatusCode.CANNOT_CONVERT ||
+					code == StatusCode.TOO_FEW_ARGS || code == StatusCode.TOO_MANY_ARGS);
+		}
+	}
+
+	/** Tests that ops are found by name and type as by scanning every op. */
+	@Test
+	public void testLookup() throws Exception {
+		final ArrayList<ModuleInfo> named = new ArrayList<ModuleInfo>();
+		final ArrayList<ModuleInfo> typed = new ArrayList<ModuleInfo>();
+		for (final CommandInfo info : matcher.getOps()) {
+			if ("math.add".equals(info.getName())) named.add(info);
+			if (Ops.Math.Add.class.isAssignableFrom(info.loadDelegateClass())) {
+				typed.add(info);
+			}
+		}
+		assertTrue(named.size() > 0);
+		assertEquals(named, infos(matcher.findCandidates(new OpRef<Op>(
+			"math.add"))));
+		assertEquals(typed, infos(matcher.findCandidates(new OpRef<Ops.Math.Add>(
+			Ops.Math.Add.class))));
+	}
+
+	// -- Helper methods --
+
+	private <OP extends Op> List<ModuleInfo> infos(
+		final List<OpCandidate<OP>> candidates)
+	{
+		final ArrayList<ModuleInfo> infos = new ArrayList<ModuleInfo>();
+		for (final OpCandidate<OP> candidate : candidates) {
+			infos.add(candidate.getInfo());
+		}
+		return infos;
+	}
+
+	private int count(final Iterable<?> items) {
+		int count = 0;
+		for (final Object item : items) {
+			if (item != null) count++;
+		}
+		return count;
+	}
+
+}
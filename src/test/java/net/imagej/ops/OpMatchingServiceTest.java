@@ -32,6 +32,7 @@ package net.imagej.ops;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -39,6 +40,7 @@ import net.imglib2.type.numeric.real.DoubleType;
 
 import org.junit.Test;
 import org.scijava.ItemIO;
+import org.scijava.Priority;
 import org.scijava.module.Module;
 import org.scijava.plugin.Parameter;
 import org.scijava.plugin.Plugin;
@@ -107,8 +109,93 @@ public class OpMatchingServiceTest extends AbstractOpTest {
 		}
 	}
 
+	/**
+	 * Tests that repeated requests of the same signature are matched correctly,
+	 * even when a {@link Contingent} op rejects some of the argument values.
+	 */
+	@Test
+	public void testRepeatedMatchesWithContingentOp() {
+		for (int i = 0; i < 3; i++) {
+			assertContingentMatch(1.0, PositiveOp.class);
+			assertContingentMatch(-1.0, AnyValueOp.class);
+		}
+	}
+
+	/** Tests {@link OpMatchingService#findModule(OpRef, MatchTrace)}. */
+	@Test
+	public void testTrace() {
+		final OpRef<Op> ref =
+			new OpRef<Op>("test.contingent", new DoubleType(-1.0));
+
+		// statistics are not collected by default
+		assertFalse(matcher.isCollectingStatistics());
+		matcher.findModule(ref);
+		assertTrue(matcher.getStatistics().isEmpty());
+
+		matcher.setCollectingStatistics(true);
+		final MatchTrace trace = new MatchTrace();
+		final Module m;
+		try {
+			m = matcher.findModule(ref, trace);
+		}
+		finally {
+			matcher.setCollectingStatistics(false);
+		}
+		assertSame(m, trace.getMatch());
+		assertFalse(trace.isCached());
+		assertEquals(2, trace.getCandidates().size());
+		assertEquals(2, trace.getModulesCreated());
+		assertEquals(1, trace.getRejections());
+
+		boolean found = false;
+		for (final MatchStatistics stats : matcher.getStatistics()) {
+			if (!stats.getSignature().equals(MatchStatistics.signature(ref))) continue;
+			assertEquals(1, stats.getRequests());
+			assertEquals(1, stats.getRejections());
+			found = true;
+		}
+		assertTrue(found);
+	}
+
+	/** Tests reuse of released modules via {@link OpMatchingService#release}. */
+	@Test
+	public void testPooling() {
+		matcher.setPooling(true);
+		final Module m1 = optionalParamsModule(1, 2, 3);
+		m1.setInput("b", 42);
+		m1.run();
+		matcher.release(m1);
+
+		// optional parameters must be back to their default values
+		final Module m2 = optionalParamsModule(1, 2, 3);
+		assertSame(m1, m2);
+		assertValues(m2, 1, -2, 2, -4, -5, 3, -7);
+
+		// a module which was not released is not handed out again
+		final Module m3 = optionalParamsModule(1, 2, 3);
+		assertNotSame(m2, m3);
+
+		// a module is only handed out for requests of the same signature
+		matcher.release(m2);
+		assertNotSame(m2, optionalParamsModule(1, 2, 3, 4, 5, 6));
+		assertSame(m2, optionalParamsModule(1, 2, 3));
+
+		matcher.release(m2);
+		matcher.setPooling(false);
+		assertNotSame(m2, optionalParamsModule(1, 2, 3));
+	}
+
 	// -- Helper methods --
 
+	private void assertContingentMatch(final double value,
+		final Class<? extends Op> expected)
+	{
+		final Module m =
+			matcher.findModule(new OpRef<Op>("test.contingent", new DoubleType(
+				value)));
+		assertSame(expected, m.getDelegateObject().getClass());
+	}
+
 	private Module optionalParamsModule(Object... args) {
 		return matcher.findModule(
 			new OpRef<OptionalParams>(OptionalParams.class, args));
@@ -143,6 +230,34 @@ public class OpMatchingServiceTest extends AbstractOpTest {
 
 	}
 
+	@Plugin(type = Op.class, name = "test.contingent",
+		priority = Priority.HIGH_PRIORITY)
+	public static class PositiveOp extends AbstractInplaceOp<DoubleType>
+		implements Contingent
+	{
+
+		@Override
+		public void compute(final DoubleType argument) {
+			// NB: No action needed.
+		}
+
+		@Override
+		public boolean conforms() {
+			return getInput().get() > 0;
+		}
+
+	}
+
+	@Plugin(type = Op.class, name = "test.contingent")
+	public static class AnyValueOp extends AbstractInplaceOp<DoubleType> {
+
+		@Override
+		public void compute(final DoubleType argument) {
+			// NB: No action needed.
+		}
+
+	}
+
 	@Plugin(type = Op.class)
 	public static class OptionalParams implements Op {
 
@@ -32,6 +32,7 @@ package net.imagej.ops;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import net.imglib2.type.numeric.real.DoubleType;
@@ -152,6 +153,101 @@ public class OpServiceTest extends AbstractOpTest {
 		assertTrue(Double.isInfinite(value.get()));
 	}
 
+	/** Tests {@link OpService#inplace(Class, Object, Object...)}. */
+	@Test
+	public void testPreparedInplace() throws InterruptedException {
+		final PreparedInplace<DoubleType> inf =
+			ops.inplace(InfinityOp.class, DoubleType.class);
+		assertSame(InfinityOp.class, inf.op().getClass());
+
+		final DoubleType value = new DoubleType(123.456);
+		inf.compute(value);
+		assertTrue(Double.isInfinite(value.get()));
+
+		// use the prepared op from a second thread
+		final DoubleType other = new DoubleType(654.321);
+		final Thread thread = new Thread() {
+
+			@Override
+			public void run() {
+				inf.compute(other);
+			}
+		};
+		thread.start();
+		thread.join();
+		assertTrue(Double.isInfinite(other.get()));
+	}
+
+	/** Tests {@link OpService#computer(Class, Object, Object, Object...)}. */
+	@Test
+	public void testPreparedComputer() {
+		final PreparedComputer<DoubleType, DoubleType> scale =
+			ops.computer(ScaleComputer.class, DoubleType.class, DoubleType.class,
+				2.0);
+		assertSame(ScaleComputer.class, scale.op().getClass());
+
+		final DoubleType in1 = new DoubleType(1.5), out1 = new DoubleType();
+		final DoubleType in2 = new DoubleType(-4), out2 = new DoubleType();
+		scale.compute(in1, out1);
+		scale.compute(in2, out2);
+		assertEquals(1.5, in1.get(), 0);
+		assertEquals(3, out1.get(), 0);
+		assertEquals(-4, in2.get(), 0);
+		assertEquals(-8, out2.get(), 0);
+	}
+
+	/** Tests {@link OpService#function(Class, Object, Object...)}. */
+	@Test
+	public void testPreparedFunction() {
+		final PreparedFunction<DoubleType, DoubleType> scale =
+			ops.function(ScaleFunction.class, DoubleType.class, 3.0);
+		assertSame(ScaleFunction.class, scale.op().getClass());
+
+		final DoubleType out1 = scale.compute(new DoubleType(1.5));
+		final DoubleType out2 = scale.compute(new DoubleType(-4));
+		assertNotSame(out1, out2);
+		assertEquals(4.5, out1.get(), 0);
+		assertEquals(-12, out2.get(), 0);
+	}
+
+	/** Tests that a prepared op can be shared by several threads. */
+	@Test
+	public void testPreparedComputerThreads() throws InterruptedException {
+		final PreparedComputer<DoubleType, DoubleType> scale =
+			ops.computer(ScaleComputer.class, DoubleType.class, DoubleType.class,
+				2.0);
+
+		final int count = 10000;
+		final double[][] results = new double[4][count];
+		final Thread[] threads = new Thread[results.length];
+		for (int t = 0; t < threads.length; t++) {
+			final double[] result = results[t];
+			final int offset = t * count;
+			threads[t] = new Thread() {
+
+				@Override
+				public void run() {
+					final DoubleType in = new DoubleType(), out = new DoubleType();
+					for (int i = 0; i < count; i++) {
+						in.set(offset + i);
+						scale.compute(in, out);
+						result[i] = out.get();
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		for (int t = 0; t < results.length; t++) {
+			for (int i = 0; i < count; i++) {
+				assertEquals(2 * (t * count + i), results[t][i], 0);
+			}
+		}
+	}
+
 	/** Tests {@link OpService#run(String, Object...)}. */
 	@Test
 	public void testAliases() {
@@ -220,6 +316,52 @@ public class OpServiceTest extends AbstractOpTest {
 		}
 	}
 
+	/**
+	 * A test {@link ComputerOp} which scales its input, using a buffer which
+	 * cannot be shared across threads.
+	 */
+	@Plugin(type = Op.class, name = "test.scale")
+	public static class ScaleComputer extends
+		AbstractComputerOp<DoubleType, DoubleType>
+	{
+
+		@Parameter
+		private double factor;
+
+		private final DoubleType buffer = new DoubleType();
+
+		@Override
+		public void compute(final DoubleType input, final DoubleType output) {
+			buffer.set(input);
+			buffer.mul(factor);
+			output.set(buffer);
+		}
+
+		@Override
+		public ComputerOp<DoubleType, DoubleType> getIndependentInstance() {
+			final ScaleComputer instance = new ScaleComputer();
+			instance.factor = factor;
+			return instance;
+		}
+	}
+
+	/** A test {@link FunctionOp} which scales its input. */
+	@Plugin(type = Op.class, name = "test.scale")
+	public static class ScaleFunction extends
+		AbstractFunctionOp<DoubleType, DoubleType>
+	{
+
+		@Parameter
+		private double factor;
+
+		@Override
+		public DoubleType compute(final DoubleType input) {
+			final DoubleType output = input.copy();
+			output.mul(factor);
+			return output;
+		}
+	}
+
 	public static interface EyePatch {
 		// NB: Marker interface.
 	}
@@ -33,9 +33,11 @@ package net.imagej.ops.benchmark;
 import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
 import com.carrotsearch.junitbenchmarks.BenchmarkRule;
 
+import net.imagej.ops.map.MapArraysToArraysParallel;
 import net.imagej.ops.map.MapIterableToIterableParallel;
 import net.imagej.ops.map.MapIterableToRAIParallel;
 import net.imagej.ops.map.MapParallel;
+import net.imagej.ops.math.RealBinaryMath;
 import net.imagej.ops.math.add.AddConstantToArrayByteImage;
 import net.imagej.ops.math.add.AddConstantToArrayByteImageP;
 import net.imagej.ops.math.add.AddConstantToImageFunctional;
@@ -78,6 +80,13 @@ public class AddOpBenchmarkTest extends AbstractOpBenchmark {
 			AddConstantToNumericType.class, null, NumericType.class, new ByteType((byte) 10)));
 	}
 
+	@Test
+	public void fTestArraysMapperP() {
+		ops.run(MapArraysToArraysParallel.class, out, in, ops.op(
+			RealBinaryMath.Add.class, new ByteType(), new ByteType(), new ByteType(
+				(byte) 10)));
+	}
+
 	@Test
 	public void fTestDefaultMapperP() {
 		ops.run(MapIterableToRAIParallel.class, out, in, ops.op(
@@ -0,0 +1,199 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.benchmark;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.imagej.ops.AbstractComputerOp;
+import net.imagej.ops.ComputerOp;
+import net.imagej.ops.stats.median.MedianRealType;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.algorithm.neighborhood.RectangleShape;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.view.Views;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ * Benchmarks median filtering of a 2048x2048 image by mapping a median over
+ * every neighborhood, comparing the former boxed quickselect median, which
+ * copies the samples of each neighborhood into a new list, against
+ * {@link MedianRealType}, which reuses a primitive buffer. The number of bytes
+ * allocated per pixel is printed along with the throughput.
+ * 
+ * @author agent
+ */
+@BenchmarkOptions(benchmarkRounds = 10, warmupRounds = 1)
+public class MedianFilterBenchmarkTest extends AbstractOpBenchmark {
+
+	private Img<ByteType> out;
+	private RandomAccessibleInterval<ByteType> in;
+	private RectangleShape shape;
+
+	/** Needed for JUnit-Benchmarks */
+	@Rule
+	public TestRule benchmarkRun = new BenchmarkRule();
+
+	@Before
+	public void initImg() {
+		final Img<ByteType> img = generateByteTestImg(true, 2048, 2048);
+		in = Views.interval(Views.extendMirrorSingle(img), img);
+		out = generateByteTestImg(false, 2048, 2048);
+		shape = new RectangleShape(1, false);
+	}
+
+	@Test
+	public void testBoxedMedian() {
+		runAndPrint("boxed", new BoxedMedian());
+	}
+
+	@Test
+	public void testMedianRealType() {
+		runAndPrint("primitive", new MedianRealType<ByteType>());
+	}
+
+	// -- Helper methods --
+
+	private void runAndPrint(final String name,
+		final ComputerOp<Iterable<ByteType>, ByteType> median)
+	{
+		final long bytes = allocatedBytes();
+		final long start = System.nanoTime();
+		ops.map(out, in, median, shape);
+		final long time = System.nanoTime() - start;
+		final long pixels = out.size();
+		System.out.println("[" + name + "]: " + (long) (pixels / (time / 1e9)) +
+			" pixels/s, " + (allocatedBytes() - bytes) / pixels + " bytes/pixel");
+	}
+
+	/**
+	 * Gets the number of bytes allocated so far by all live threads, or 0 if
+	 * the JVM does not measure them.
+	 */
+	private long allocatedBytes() {
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) return 0;
+		long bytes = 0;
+		for (final long id : threads.getAllThreadIds()) {
+			final long b =
+				((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(id);
+			if (b > 0) bytes += b;
+		}
+		return bytes;
+	}
+
+	// -- Helper classes --
+
+	/**
+	 * Median which boxes the samples into a new list on every call and selects
+	 * the middle one by quickselect, as {@link MedianRealType} used to.
+	 */
+	private static class BoxedMedian extends
+		AbstractComputerOp<Iterable<ByteType>, ByteType>
+	{
+
+		@Override
+		public void compute(final Iterable<ByteType> input,
+			final ByteType output)
+		{
+			final ArrayList<Double> samples = new ArrayList<Double>();
+			for (final ByteType value : input) {
+				samples.add(value.getRealDouble());
+			}
+			output.setReal(select(samples, 0, samples.size() - 1,
+				samples.size() / 2));
+		}
+
+		/** Returns the value of the kth lowest element. */
+		private double select(final ArrayList<Double> array, int left, int right,
+			final int k)
+		{
+			while (true) {
+				if (right <= left + 1) {
+					if (right == left + 1 && array.get(right) < array.get(left)) {
+						swap(array, left, right);
+					}
+					return array.get(k);
+				}
+				final int middle = (left + right) >>> 1;
+				swap(array, middle, left + 1);
+
+				if (array.get(left) > array.get(right)) {
+					swap(array, left, right);
+				}
+				if (array.get(left + 1) > array.get(right)) {
+					swap(array, left + 1, right);
+				}
+				if (array.get(left) > array.get(left + 1)) {
+					swap(array, left, left + 1);
+				}
+
+				int i = left + 1;
+				int j = right;
+				final double pivot = array.get(left + 1);
+				while (true) {
+					do
+						++i;
+					while (array.get(i) < pivot);
+					do
+						--j;
+					while (array.get(j) > pivot);
+					if (j < i) break;
+					swap(array, i, j);
+				}
+
+				array.set(left + 1, array.get(j));
+				array.set(j, pivot);
+
+				if (j >= k) right = j - 1;
+				if (j <= k) left = i;
+			}
+		}
+
+		private void swap(final List<Double> array, final int a, final int b) {
+			final double temp = array.get(a);
+			array.set(a, array.get(b));
+			array.set(b, temp);
+		}
+
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.benchmark;
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+
+import net.imagej.ops.math.RealMath;
+import net.imglib2.type.numeric.real.DoubleType;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ * Benchmarks many calls of a tiny per-pixel op, with and without pooling of
+ * op modules (see {@link net.imagej.ops.OpMatchingService#setPooling}).
+ * 
+ * @author agent
+ */
+@BenchmarkOptions(benchmarkRounds = 20, warmupRounds = 1)
+public class OpPoolingBenchmarkTest extends AbstractOpBenchmark {
+
+	private static final int CALLS = 100000;
+
+	private DoubleType in;
+	private DoubleType out;
+
+	/** Needed for JUnit-Benchmarks */
+	@Rule
+	public TestRule benchmarkRun = new BenchmarkRule();
+
+	@Before
+	public void initValues() {
+		in = new DoubleType(1);
+		out = new DoubleType();
+	}
+
+	@Test
+	public void testUnpooled() {
+		matcher.setPooling(false);
+		runAndPrint("unpooled");
+	}
+
+	@Test
+	public void testPooled() {
+		matcher.setPooling(true);
+		runAndPrint("pooled");
+	}
+
+	// -- Helper methods --
+
+	private void runAndPrint(final String name) {
+		final long start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++) {
+			ops.run(RealMath.Add.class, out, in, 5.0);
+		}
+		final long time = System.nanoTime() - start;
+		System.out.println("[" + name + "]: " + (long) (CALLS / (time / 1e9)) +
+			" calls/s");
+	}
+}
@@ -2,29 +2,44 @@
 package net.imagej.ops.filter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Random;
 
 import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.Op;
 import net.imagej.ops.filter.max.DefaultMaxFilter;
 import net.imagej.ops.filter.max.MaxFilterOp;
+import net.imagej.ops.filter.max.RunningMaxFilter;
 import net.imagej.ops.filter.mean.DefaultMeanFilter;
+import net.imagej.ops.filter.mean.IntegralMeanFilter;
 import net.imagej.ops.filter.mean.MeanFilterOp;
 import net.imagej.ops.filter.median.DefaultMedianFilter;
+import net.imagej.ops.filter.median.HistogramMedianFilter;
 import net.imagej.ops.filter.median.MedianFilterOp;
 import net.imagej.ops.filter.min.DefaultMinFilter;
 import net.imagej.ops.filter.min.MinFilterOp;
+import net.imagej.ops.filter.min.RunningMinFilter;
+import net.imagej.ops.filter.quantile.HistogramQuantileFilter;
 import net.imagej.ops.filter.sigma.DefaultSigmaFilter;
 import net.imagej.ops.filter.sigma.SigmaFilterOp;
 import net.imagej.ops.filter.variance.DefaultVarianceFilter;
+import net.imagej.ops.filter.variance.IntegralVarianceFilter;
 import net.imagej.ops.filter.variance.VarianceFilterOp;
+import net.imglib2.Cursor;
 import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.algorithm.neighborhood.RectangleShape.NeighborhoodsIterableInterval;
 import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgFactory;
 import net.imglib2.outofbounds.OutOfBoundsMirrorFactory;
 import net.imglib2.outofbounds.OutOfBoundsMirrorFactory.Boundary;
 import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.FloatType;
 import net.imglib2.util.Util;
 import net.imglib2.view.Views;
 
@@ -165,4 +180,163 @@ public class NonLinearFiltersTest extends AbstractOpTest {
 		assertEquals((byte)Util.round((sumSq - (sum * sum / 9)) / 8), out.firstElement().get());
 	}
 
+	/**
+	 * Tests that the integral image filters are chosen for rectangles, and agree
+	 * with the filters which visit every neighborhood.
+	 * 
+	 * @see IntegralMeanFilter
+	 * @see IntegralVarianceFilter
+	 */
+	@Test
+	public void testIntegralFilters() {
+		assertTrue(ops.op(MeanFilterOp.class, out, in, shape, oobFactory) instanceof
+			IntegralMeanFilter);
+		assertTrue(ops.op(VarianceFilterOp.class, out, in, shape,
+			oobFactory) instanceof IntegralVarianceFilter);
+
+		final Img<FloatType> img = generateFloatArrayTestImg(true, 31, 23);
+		final OutOfBoundsMirrorFactory<FloatType, Img<FloatType>> mirror =
+			new OutOfBoundsMirrorFactory<FloatType, Img<FloatType>>(Boundary.SINGLE);
+		for (final RectangleShape s : new RectangleShape[] {
+			new RectangleShape(4, false), new RectangleShape(2, true) })
+		{
+			assertFiltersAgree(DefaultMeanFilter.class, IntegralMeanFilter.class,
+				img, s, mirror);
+			assertFiltersAgree(DefaultVarianceFilter.class,
+				IntegralVarianceFilter.class, img, s, mirror);
+		}
+	}
+
+	/**
+	 * Tests that the sliding histogram filters are chosen for rectangles over
+	 * small integer types, and agree with the filters which visit every
+	 * neighborhood.
+	 * 
+	 * @see HistogramMedianFilter
+	 * @see HistogramQuantileFilter
+	 */
+	@Test
+	public void testHistogramFilters() {
+		assertTrue(ops.op(MedianFilterOp.class, out, in, shape,
+			oobFactory) instanceof HistogramMedianFilter);
+		final Img<FloatType> floats = generateFloatArrayTestImg(true, 10, 10);
+		assertTrue(ops.op(MedianFilterOp.class, floats, floats, shape,
+			new OutOfBoundsMirrorFactory<FloatType, Img<FloatType>>(
+				Boundary.SINGLE)) instanceof DefaultMedianFilter);
+
+		final Img<UnsignedByteType> img =
+			generateUnsignedByteTestImg(true, 17, 11, 6);
+		final OutOfBoundsMirrorFactory<UnsignedByteType, Img<UnsignedByteType>> mirror =
+			new OutOfBoundsMirrorFactory<UnsignedByteType, Img<UnsignedByteType>>(
+				Boundary.SINGLE);
+		for (final RectangleShape s : new RectangleShape[] {
+			new RectangleShape(2, false), new RectangleShape(1, true) })
+		{
+			final Img<UnsignedByteType> expected =
+				img.factory().create(img, new UnsignedByteType());
+			final Img<UnsignedByteType> actual =
+				img.factory().create(img, new UnsignedByteType());
+
+			ops.run(DefaultMedianFilter.class, expected, img, s, mirror);
+			ops.run(HistogramMedianFilter.class, actual, img, s, mirror);
+			assertImagesEqual(expected, actual);
+
+			ops.run(DefaultMinFilter.class, expected, img, s, mirror);
+			ops.run(HistogramQuantileFilter.class, actual, img, s, mirror, 0.0);
+			assertImagesEqual(expected, actual);
+
+			ops.run(DefaultMaxFilter.class, expected, img, s, mirror);
+			ops.run(HistogramQuantileFilter.class, actual, img, s, mirror, 1.0);
+			assertImagesEqual(expected, actual);
+		}
+	}
+
+	/**
+	 * Tests the histogram filters on 16-bit data, whose values are spread thinly
+	 * over many bins.
+	 */
+	@Test
+	public void testHistogramFilters16Bit() {
+		final Img<UnsignedShortType> img =
+			new ArrayImgFactory<UnsignedShortType>().create(new long[] { 23, 17 },
+				new UnsignedShortType());
+		final Random random = new Random(0xbadcafe);
+		for (final UnsignedShortType t : img) {
+			t.set(random.nextInt(65536));
+		}
+		final OutOfBoundsMirrorFactory<UnsignedShortType, Img<UnsignedShortType>> mirror =
+			new OutOfBoundsMirrorFactory<UnsignedShortType, Img<UnsignedShortType>>(
+				Boundary.SINGLE);
+		final RectangleShape s = new RectangleShape(2, false);
+		final Img<UnsignedShortType> expected =
+			img.factory().create(img, new UnsignedShortType());
+		final Img<UnsignedShortType> actual =
+			img.factory().create(img, new UnsignedShortType());
+
+		ops.run(DefaultMedianFilter.class, expected, img, s, mirror);
+		ops.run(HistogramMedianFilter.class, actual, img, s, mirror);
+		assertImagesEqual(expected, actual);
+
+		ops.run(DefaultMaxFilter.class, expected, img, s, mirror);
+		ops.run(HistogramQuantileFilter.class, actual, img, s, mirror, 1.0);
+		assertImagesEqual(expected, actual);
+	}
+
+	/**
+	 * Tests that the running extremum filters are chosen for neighborhoods
+	 * which fill a box, and agree with the filters which visit every
+	 * neighborhood.
+	 * 
+	 * @see RunningMinFilter
+	 * @see RunningMaxFilter
+	 */
+	@Test
+	public void testRunningExtremumFilters() {
+		assertTrue(ops.op(MinFilterOp.class, out, in, shape,
+			oobFactory) instanceof RunningMinFilter);
+		assertTrue(ops.op(MaxFilterOp.class, out, in, new RectangleShape(1, true),
+			oobFactory) instanceof DefaultMaxFilter);
+
+		final OutOfBoundsMirrorFactory<FloatType, Img<FloatType>> mirror =
+			new OutOfBoundsMirrorFactory<FloatType, Img<FloatType>>(Boundary.SINGLE);
+		for (final long[] dims : new long[][] { { 31, 23 }, { 13, 9, 5 } }) {
+			final Img<FloatType> img = generateFloatArrayTestImg(true, dims);
+			for (final RectangleShape s : new RectangleShape[] {
+				new RectangleShape(3, false), new RectangleShape(0, false) })
+			{
+				assertFiltersAgree(DefaultMinFilter.class, RunningMinFilter.class,
+					img, s, mirror);
+				assertFiltersAgree(DefaultMaxFilter.class, RunningMaxFilter.class,
+					img, s, mirror);
+			}
+		}
+	}
+
+	private <T extends RealType<T>> void assertImagesEqual(final Img<T> expected,
+		final Img<T> actual)
+	{
+		final Cursor<T> e = expected.cursor();
+		final Cursor<T> a = actual.cursor();
+		while (e.hasNext()) {
+			assertEquals(e.next().getRealDouble(), a.next().getRealDouble(), 0);
+		}
+	}
+
+	private void assertFiltersAgree(final Class<? extends Op> expectedFilter,
+		final Class<? extends Op> actualFilter, final Img<FloatType> img,
+		final RectangleShape s,
+		final OutOfBoundsMirrorFactory<FloatType, Img<FloatType>> mirror)
+	{
+		final Img<FloatType> expected = img.factory().create(img, new FloatType());
+		ops.run(expectedFilter, expected, img, s, mirror);
+		final Img<FloatType> actual = img.factory().create(img, new FloatType());
+		ops.run(actualFilter, actual, img, s, mirror);
+
+		final Cursor<FloatType> e = expected.cursor();
+		final Cursor<FloatType> a = actual.cursor();
+		while (e.hasNext()) {
+			assertEquals(e.next().get(), a.next().get(), 1e-5);
+		}
+	}
+
 }
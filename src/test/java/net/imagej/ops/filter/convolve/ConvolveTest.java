@@ -31,12 +31,26 @@
 package net.imagej.ops.filter.convolve;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
 import net.imagej.ops.AbstractOpTest;
 import net.imagej.ops.Op;
 import net.imagej.ops.Ops;
 import net.imagej.ops.filter.CreateFFTFilterMemory;
+import net.imagej.ops.filter.convolve.ConvolveCosts.Strategy;
+import net.imagej.ops.filter.correlate.CorrelateFFTBlockwise;
+import net.imagej.ops.filter.correlate.CorrelateFFTImg;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imglib2.Cursor;
 import net.imglib2.Point;
+import net.imglib2.RandomAccess;
 import net.imglib2.algorithm.region.hypersphere.HyperSphere;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgFactory;
@@ -44,6 +58,8 @@ import net.imglib2.type.numeric.complex.ComplexFloatType;
 import net.imglib2.type.numeric.integer.ByteType;
 import net.imglib2.type.numeric.real.FloatType;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 /**
@@ -51,6 +67,19 @@ import org.junit.Test;
  */
 public class ConvolveTest extends AbstractOpTest {
 
+	/** Makes the choice of convolver independent of earlier measurements. */
+	@Before
+	public void useDefaultCosts() {
+		System.clearProperty(ConvolveCosts.FILE_PROPERTY);
+		ConvolveCosts.load();
+	}
+
+	@After
+	public void restoreCosts() {
+		System.clearProperty(ConvolveCosts.FILE_PROPERTY);
+		ConvolveCosts.load();
+	}
+
 	/** Tests that the correct convolver is selected when using a small kernel. */
 	@Test
 	public void testConvolveMethodSelection() {
@@ -67,7 +96,8 @@ public class ConvolveTest extends AbstractOpTest {
 		Op op = ops.op(Ops.Filter.Convolve.class, in, kernel);
 
 		// we should get ConvolveNaive
-		assertSame(ConvolveNaiveImg.class, op.getClass());
+		assertSame(ConvolveImg.class, op.getClass());
+		assertSame(Strategy.NAIVE, ConvolveCosts.choose(ops, in, kernel, null));
 
 		// make sure it runs
 		Img<FloatType> out = ops.filter().convolve(in, kernel);
@@ -82,7 +112,8 @@ public class ConvolveTest extends AbstractOpTest {
 		op = ops.op(Ops.Filter.Convolve.class, in, kernel);
 
 		// this time we should get ConvolveFFT
-		assertSame(ConvolveFFTImg.class, op.getClass());
+		assertSame(ConvolveImg.class, op.getClass());
+		assertSame(Strategy.FFT, ConvolveCosts.choose(ops, in, kernel, null));
 
 		// make sure it runs
 		out = ops.filter().convolve(in, kernel);
@@ -163,6 +194,194 @@ public class ConvolveTest extends AbstractOpTest {
 		assertEquals(size[0], out2.dimension(0));
 	}
 
+	/** Tests that separable kernels are convolved one dimension at a time. */
+	@Test
+	public void testConvolveSeparable() {
+		final Random random = new Random(0x5eed);
+		final Img<FloatType> in =
+			new ArrayImgFactory<FloatType>().create(new int[] { 64, 48 },
+				new FloatType());
+		for (final FloatType value : in) {
+			value.set(random.nextFloat());
+		}
+
+		// a Gaussian is the product of one-dimensional Gaussians
+		final Img<FloatType> gauss =
+			new ArrayImgFactory<FloatType>().create(new int[] { 15, 11 },
+				new FloatType());
+		final RandomAccess<FloatType> gaussAccess = gauss.randomAccess();
+		for (int y = 0; y < 11; y++) {
+			for (int x = 0; x < 15; x++) {
+				gaussAccess.setPosition(new int[] { x, y });
+				gaussAccess.get().setReal(
+					Math.exp(-(x - 7) * (x - 7) / 8.0 - (y - 5) * (y - 5) / 4.0));
+			}
+		}
+		assertSame(Strategy.SEPARABLE, ConvolveCosts.choose(ops, in, gauss, null));
+		assertConvolvesLikeFFT(in, gauss);
+
+		// an asymmetric kernel of rank two
+		final Img<FloatType> rank2 =
+			new ArrayImgFactory<FloatType>().create(new int[] { 13, 9 },
+				new FloatType());
+		final RandomAccess<FloatType> rank2Access = rank2.randomAccess();
+		for (int y = 0; y < 9; y++) {
+			for (int x = 0; x < 13; x++) {
+				rank2Access.setPosition(new int[] { x, y });
+				rank2Access.get().setReal(x * (y + 1) + (12 - x) * (y - 4) * (y - 4));
+			}
+		}
+		assertSame(Strategy.SEPARABLE, ConvolveCosts.choose(ops, in, rank2, null));
+		assertConvolvesLikeFFT(in, rank2);
+	}
+
+	/** Tests that decompositions are reused until the kernel changes. */
+	@Test
+	public void testSeparableKernelCache() {
+		final Img<FloatType> kernel =
+			new ArrayImgFactory<FloatType>().create(new int[] { 5, 3 },
+				new FloatType());
+		for (final FloatType value : kernel) {
+			value.setOne();
+		}
+		final SeparableKernel separable = SeparableKernel.decompose(kernel);
+		assertSame(separable, SeparableKernel.decompose(kernel));
+
+		kernel.firstElement().setReal(2);
+		assertNotSame(separable, SeparableKernel.decompose(kernel));
+	}
+
+	/** Tests that the cost model picks the fastest strategy. */
+	@Test
+	public void testConvolveCosts() {
+		final Img<FloatType> in =
+			new ArrayImgFactory<FloatType>().create(new int[] { 256, 256 },
+				new FloatType());
+		final Random random = new Random(0x5eed);
+
+		// small kernels are convolved naively
+		final Img<FloatType> small =
+			new ArrayImgFactory<FloatType>().create(new int[] { 3, 3 },
+				new FloatType());
+		for (final FloatType value : small) {
+			value.set(random.nextFloat());
+		}
+		assertSame(Strategy.NAIVE, ConvolveCosts.choose(ops, in, small, null));
+
+		// large separable kernels one dimension at a time
+		final Img<FloatType> gauss =
+			new ArrayImgFactory<FloatType>().create(new int[] { 21, 21 },
+				new FloatType());
+		final RandomAccess<FloatType> gaussAccess = gauss.randomAccess();
+		for (int y = 0; y < 21; y++) {
+			for (int x = 0; x < 21; x++) {
+				gaussAccess.setPosition(new int[] { x, y });
+				gaussAccess.get().setReal(
+					Math.exp(-((x - 10) * (x - 10) + (y - 10) * (y - 10)) / 32.0));
+			}
+		}
+		assertSame(Strategy.SEPARABLE, ConvolveCosts.choose(ops, in, gauss, null));
+
+		// and other large kernels by FFT
+		final Img<FloatType> large =
+			new ArrayImgFactory<FloatType>().create(new int[] { 31, 31 },
+				new FloatType());
+		for (final FloatType value : large) {
+			value.set(random.nextFloat());
+		}
+		assertSame(Strategy.FFT, ConvolveCosts.choose(ops, in, large, null));
+	}
+
+	/** Tests that measured costs are persisted when saved. */
+	@Test
+	public void testConvolveCostsPersistence() throws IOException {
+		final File file = File.createTempFile("convolve-costs", ".properties");
+		assertTrue(file.delete());
+		System.setProperty(ConvolveCosts.FILE_PROPERTY, file.getPath());
+		try {
+			ConvolveCosts.load();
+			final double cost = ConvolveCosts.get(Strategy.FFT);
+
+			// a measurement which takes twice the estimated time
+			ConvolveCosts.update(Strategy.FFT, ConvolveCosts.MIN_MEASURED_TIME /
+				cost / 2, ConvolveCosts.MIN_MEASURED_TIME);
+			final double updated = ConvolveCosts.get(Strategy.FFT);
+			assertTrue(updated > cost);
+			assertFalse(file.exists());
+			ConvolveCosts.save();
+			assertTrue(file.exists());
+
+			ConvolveCosts.load();
+			assertEquals(updated, ConvolveCosts.get(Strategy.FFT), 1e-9 * updated);
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	/** Tests that filtering block by block gives the same result as a whole. */
+	@Test
+	public void testBlockwise() {
+		final Random random = new Random(0x5eed);
+		final Img<FloatType> in =
+			new ArrayImgFactory<FloatType>().create(new int[] { 120, 90 },
+				new FloatType());
+		for (final FloatType value : in) {
+			value.set(random.nextFloat());
+		}
+		final Img<FloatType> kernel =
+			new ArrayImgFactory<FloatType>().create(new int[] { 9, 6 },
+				new FloatType());
+		for (final FloatType value : kernel) {
+			value.set(random.nextFloat());
+		}
+
+		// leave room for blocks of some 64x64 pixels per worker
+		final long memoryBudget =
+			(ExecutionContext.current().getParallelism() + 1) * 12L * 64 * 64;
+
+		final Img<FloatType> expected =
+			new ArrayImgFactory<FloatType>().create(in, new FloatType());
+		final Img<FloatType> actual =
+			new ArrayImgFactory<FloatType>().create(in, new FloatType());
+		ops.run(ConvolveFFTImg.class, expected, in, kernel);
+		ops.filter().convolve(actual, in, kernel, null, memoryBudget);
+		assertImagesEqual(expected, actual);
+
+		ops.run(CorrelateFFTImg.class, expected, in, kernel);
+		ops.run(CorrelateFFTBlockwise.class, actual, in, kernel, null,
+			memoryBudget);
+		assertImagesEqual(expected, actual);
+	}
+
+	private void assertConvolvesLikeFFT(final Img<FloatType> in,
+		final Img<FloatType> kernel)
+	{
+		final Img<FloatType> expected =
+			new ArrayImgFactory<FloatType>().create(in, new FloatType());
+		final Img<FloatType> actual =
+			new ArrayImgFactory<FloatType>().create(in, new FloatType());
+		ops.run(ConvolveFFTImg.class, expected, in, kernel);
+		ops.run(ConvolveSeparable.class, actual, in, kernel);
+		assertImagesEqual(expected, actual);
+		ops.run(Ops.Filter.Convolve.class, actual, in, kernel);
+		assertImagesEqual(expected, actual);
+	}
+
+	private void assertImagesEqual(final Img<FloatType> expected,
+		final Img<FloatType> actual)
+	{
+		float max = 0;
+		for (final FloatType value : expected) {
+			max = Math.max(max, Math.abs(value.get()));
+		}
+		final Cursor<FloatType> e = expected.cursor();
+		final Cursor<FloatType> a = actual.cursor();
+		while (e.hasNext()) {
+			assertEquals(e.next().get(), a.next().get(), 1e-4f * max);
+		}
+	}
+
 	// utility to place a small sphere at the center of the image
 	private void placeSphereInCenter(Img<FloatType> img) {
 
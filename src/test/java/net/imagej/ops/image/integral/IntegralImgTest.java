@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.image.integral;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import net.imagej.ops.AbstractOpTest;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.view.Views;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link DefaultIntegralImg}.
+ * 
+ * @author agent
+ */
+public class IntegralImgTest extends AbstractOpTest {
+
+	@Test
+	public void testSums() {
+		final Img<ByteType> in = generateByteTestImg(true, 7, 5, 3);
+		final RandomAccessibleInterval<LongType> sums = ops.image().integral(in);
+		assertTrue(Views.iterable(sums).firstElement() instanceof LongType);
+		assertIntegral(in, sums, 1);
+	}
+
+	@Test
+	public void testSquares() {
+		final Img<FloatType> in = generateFloatArrayTestImg(true, 9, 4, 3);
+		final RandomAccessibleInterval<DoubleType> sums =
+			ops.image().integral(in, 2);
+		assertTrue(Views.iterable(sums).firstElement() instanceof DoubleType);
+		assertIntegral(in, sums, 2);
+	}
+
+	// -- Helper methods --
+
+	/** Checks every sum against the sum over its box of the input. */
+	private <T extends RealType<T>, S extends RealType<S>> void assertIntegral(
+		final Img<T> in, final RandomAccessibleInterval<S> sums, final int order)
+	{
+		for (int d = 0; d < in.numDimensions(); d++) {
+			assertEquals(in.dimension(d) + 1, sums.dimension(d));
+		}
+		final Cursor<S> c = Views.iterable(sums).localizingCursor();
+		while (c.hasNext()) {
+			c.fwd();
+			double expected = 0;
+			final Cursor<T> i = in.localizingCursor();
+			while (i.hasNext()) {
+				i.fwd();
+				boolean inside = true;
+				for (int d = 0; d < in.numDimensions(); d++) {
+					if (i.getLongPosition(d) >= c.getLongPosition(d)) inside = false;
+				}
+				if (inside) expected += Math.pow(i.get().getRealDouble(), order);
+			}
+			assertEquals(expected, c.get().getRealDouble(), 1e-9);
+		}
+	}
+
+}
@@ -42,9 +42,13 @@ import net.imagej.ops.BufferFactory;
 import net.imagej.ops.ComputerOp;
 import net.imagej.ops.Op;
 import net.imagej.ops.map.MapOp;
+import net.imagej.ops.math.RealMath;
 import net.imglib2.Cursor;
 import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgFactory;
 import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -162,6 +166,116 @@ public class JoinTest extends AbstractOpTest {
 		}
 	}
 
+	@Test
+	public void testJoinComputersFused() {
+
+		final List<ComputerOp<Img<ByteType>, Img<ByteType>>> computers =
+			new ArrayList<ComputerOp<Img<ByteType>, Img<ByteType>>>();
+
+		for (int i = 0; i < 5; i++) {
+			@SuppressWarnings("unchecked")
+			final ComputerOp<Img<ByteType>, Img<ByteType>> map =
+				(ComputerOp<Img<ByteType>, Img<ByteType>>) ops.op(MapOp.class,
+					Img.class, Img.class, new AddOneComputer());
+			computers.add(map);
+		}
+
+		final BufferFactory<Img<ByteType>, Img<ByteType>> bufferFactory =
+			new BufferFactory<Img<ByteType>, Img<ByteType>>() {
+
+				@Override
+				public Img<ByteType> createBuffer(final Img<ByteType> input) {
+					throw new IllegalStateException("No buffer image expected");
+				}
+			};
+
+		ops.join(out, in, computers, bufferFactory);
+
+		// test
+		final Cursor<ByteType> c = out.cursor();
+
+		while (c.hasNext()) {
+			assertEquals(5, c.next().get());
+		}
+	}
+
+	@Test
+	public void testJoinComputersFusedGeneric() {
+		final Img<FloatType> floats =
+			new ArrayImgFactory<FloatType>().create(new long[] { 10, 10 },
+				new FloatType());
+		final Img<FloatType> result =
+			new ArrayImgFactory<FloatType>().create(floats, new FloatType());
+		final Cursor<FloatType> inCursor = floats.cursor();
+		for (int i = 0; inCursor.hasNext(); i++) {
+			inCursor.next().set(i);
+		}
+
+		final List<ComputerOp<Img<FloatType>, Img<FloatType>>> computers =
+			new ArrayList<ComputerOp<Img<FloatType>, Img<FloatType>>>();
+		final Op add =
+			ops.op(RealMath.Add.class, FloatType.class, FloatType.class, 1.5);
+		for (int i = 0; i < 2; i++) {
+			@SuppressWarnings("unchecked")
+			final ComputerOp<Img<FloatType>, Img<FloatType>> map =
+				(ComputerOp<Img<FloatType>, Img<FloatType>>) ops.op(MapOp.class,
+					Img.class, Img.class, add);
+			computers.add(map);
+		}
+
+		final BufferFactory<Img<FloatType>, Img<FloatType>> bufferFactory =
+			new BufferFactory<Img<FloatType>, Img<FloatType>>() {
+
+				@Override
+				public Img<FloatType> createBuffer(final Img<FloatType> input) {
+					throw new IllegalStateException("No buffer image expected");
+				}
+			};
+
+		ops.join(result, floats, computers, bufferFactory);
+
+		// test
+		final Cursor<FloatType> c = result.cursor();
+		for (int i = 0; c.hasNext(); i++) {
+			assertEquals(i + 3, c.next().get(), 0);
+		}
+	}
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void testJoinComputersTypeChanging() {
+		final Cursor<ByteType> inCursor = in.cursor();
+		for (int i = 0; inCursor.hasNext(); i++) {
+			inCursor.next().set((byte) (i % 101));
+		}
+
+		// NB: Halving requires the precision of the double buffer image.
+		final List<ComputerOp<Img, Img>> computers =
+			new ArrayList<ComputerOp<Img, Img>>();
+		computers.add((ComputerOp<Img, Img>) ops.op(MapOp.class, Img.class,
+			Img.class, new HalveComputer()));
+		computers.add((ComputerOp<Img, Img>) ops.op(MapOp.class, Img.class,
+			Img.class, new DoubleComputer()));
+
+		final BufferFactory<Img, Img> bufferFactory =
+			new BufferFactory<Img, Img>() {
+
+				@Override
+				public Img createBuffer(final Img input) {
+					return new ArrayImgFactory<DoubleType>().create(input,
+						new DoubleType());
+				}
+			};
+
+		ops.join((Img) out, (Img) in, computers, bufferFactory);
+
+		// test
+		final Cursor<ByteType> c = out.cursor();
+		for (int i = 0; c.hasNext(); i++) {
+			assertEquals(i % 101, c.next().get());
+		}
+	}
+
 	// Helper classes
 	class AddOneInplace extends AbstractInplaceOp<ByteType> {
 
@@ -180,6 +294,22 @@ public class JoinTest extends AbstractOpTest {
 		}
 	}
 
+	class HalveComputer extends AbstractComputerOp<ByteType, DoubleType> {
+
+		@Override
+		public void compute(final ByteType input, final DoubleType output) {
+			output.set(input.get() / 2.0);
+		}
+	}
+
+	class DoubleComputer extends AbstractComputerOp<DoubleType, ByteType> {
+
+		@Override
+		public void compute(final DoubleType input, final ByteType output) {
+			output.set((byte) (2 * input.get()));
+		}
+	}
+
 	class AddOneComputerImg extends
 		AbstractComputerOp<Img<ByteType>, Img<ByteType>>
 	{
@@ -0,0 +1,179 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.ComputerOp;
+import net.imagej.ops.Op;
+import net.imagej.ops.Ops;
+import net.imagej.ops.math.RealBinaryMath;
+import net.imglib2.Cursor;
+import net.imglib2.img.Img;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.planar.PlanarImgFactory;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link MapArraysToArraysParallel}.
+ * 
+ * @author agent
+ */
+public class MapArraysToArraysParallelTest extends AbstractOpTest {
+
+	private static final long[] DIMS = { 37, 29, 5 };
+
+	/** Tests that the op is chosen for kernels on supported images. */
+	@Test
+	public void testMatching() {
+		final Img<ByteType> in =
+			new ArrayImgFactory<ByteType>().create(DIMS, new ByteType());
+		final Img<ByteType> out =
+			new PlanarImgFactory<ByteType>().create(DIMS, new ByteType());
+		final Op map = ops.op(Ops.Map.class, out, in, kernel(
+			RealBinaryMath.Add.class, new ByteType((byte) 1)));
+		assertTrue(map instanceof MapArraysToArraysParallel);
+	}
+
+	@Test
+	public void testByteAdd() {
+		assertMatches(new ArrayImgFactory<ByteType>(),
+			new PlanarImgFactory<ByteType>(), RealBinaryMath.Add.class, new ByteType(
+				(byte) 100));
+	}
+
+	@Test
+	public void testUnsignedByteSubtract() {
+		assertMatches(new PlanarImgFactory<UnsignedByteType>(),
+			new PlanarImgFactory<UnsignedByteType>(), RealBinaryMath.Subtract.class,
+			new UnsignedByteType(200));
+	}
+
+	@Test
+	public void testUnsignedShortMultiply() {
+		assertMatches(new ArrayImgFactory<UnsignedShortType>(),
+			new ArrayImgFactory<UnsignedShortType>(), RealBinaryMath.Multiply.class,
+			new UnsignedShortType(300));
+	}
+
+	@Test
+	public void testIntDivide() {
+		assertMatches(new PlanarImgFactory<IntType>(),
+			new ArrayImgFactory<IntType>(), RealBinaryMath.Divide.class,
+			new IntType(-7));
+	}
+
+	@Test
+	public void testUnsignedIntAdd() {
+		assertMatches(new ArrayImgFactory<UnsignedIntType>(),
+			new ArrayImgFactory<UnsignedIntType>(), RealBinaryMath.Add.class,
+			new UnsignedIntType(0xfffffff0L));
+	}
+
+	@Test
+	public void testFloatDivide() {
+		assertMatches(new PlanarImgFactory<FloatType>(),
+			new PlanarImgFactory<FloatType>(), RealBinaryMath.Divide.class,
+			new FloatType(3.7f));
+	}
+
+	@Test
+	public void testDoubleSubtract() {
+		assertMatches(new ArrayImgFactory<DoubleType>(),
+			new PlanarImgFactory<DoubleType>(), RealBinaryMath.Subtract.class,
+			new DoubleType(-1.25));
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Checks that the op computes the same as the generic map, including
+	 * in-place.
+	 */
+	private <T extends RealType<T>> void assertMatches(
+		final ImgFactory<T> inFactory, final ImgFactory<T> outFactory,
+		final Class<? extends Op> opType, final T b)
+	{
+		final Img<T> in = inFactory.create(DIMS, b.createVariable());
+		final Random random = new Random(0xdeadbeef);
+		final double min = Math.max(b.getMinValue(), -10000);
+		final double max = Math.min(b.getMaxValue(), 10000);
+		for (final T t : in) {
+			t.setReal(min + random.nextDouble() * (max - min));
+		}
+		final ComputerOp<T, T> kernel = kernel(opType, b);
+
+		final Img<T> expected = outFactory.create(DIMS, b.createVariable());
+		ops.run(MapIterableToIterableParallel.class, expected, in, kernel);
+		final Img<T> actual = outFactory.create(DIMS, b.createVariable());
+		ops.run(MapArraysToArraysParallel.class, actual, in, kernel);
+		assertImagesEqual(expected, actual);
+
+		ops.run(MapArraysToArraysParallel.class, in, in, kernel);
+		assertImagesEqual(expected, in);
+	}
+
+	private <T extends RealType<T>> ComputerOp<T, T> kernel(
+		final Class<? extends Op> opType, final T b)
+	{
+		@SuppressWarnings("unchecked")
+		final ComputerOp<T, T> op =
+			(ComputerOp<T, T>) ops.op(opType, b.createVariable(), b
+				.createVariable(), b);
+		assertTrue(op instanceof PrimitiveKernel);
+		return op;
+	}
+
+	private <T extends RealType<T>> void assertImagesEqual(final Img<T> expected,
+		final Img<T> actual)
+	{
+		final Cursor<T> e = expected.cursor();
+		final Cursor<T> a = actual.cursor();
+		while (e.hasNext()) {
+			assertEquals(e.next().getRealDouble(), a.next().getRealDouble(), 0);
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.ComputerOp;
+import net.imagej.ops.Op;
+import net.imagej.ops.Ops;
+import net.imagej.ops.Parallel;
+import net.imagej.ops.threshold.apply.ApplyThresholdComparable;
+import net.imglib2.Cursor;
+import net.imglib2.img.Img;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.planar.PlanarImgFactory;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.integer.ByteType;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link MapIterableIntervalToBitsParallel}.
+ * 
+ * @author agent
+ */
+public class MapIterableIntervalToBitsParallelTest extends AbstractOpTest {
+
+	/** Dimensions whose planes do not fill whole words. */
+	private static final long[] DIMS = { 37, 29, 5 };
+
+	/** Tests that the op is chosen for bit image outputs. */
+	@Test
+	public void testMatching() {
+		final Img<ByteType> in =
+			new ArrayImgFactory<ByteType>().create(DIMS, new ByteType());
+		final Img<BitType> out =
+			new PlanarImgFactory<BitType>().create(DIMS, new BitType());
+		final Op map = ops.op(Ops.Map.class, out, in, threshold());
+		assertTrue(map instanceof MapIterableIntervalToBitsParallel);
+	}
+
+	@Test
+	public void testArrayImg() {
+		assertMatches(new ArrayImgFactory<BitType>());
+	}
+
+	@Test
+	public void testPlanarImg() {
+		assertMatches(new PlanarImgFactory<BitType>());
+	}
+
+	/**
+	 * Tests that other bit images are not mapped by the generic parallel maps,
+	 * whose threads would overwrite each other's bits.
+	 */
+	@Test
+	public void testCellImg() {
+		final Img<ByteType> in =
+			new CellImgFactory<ByteType>(5).create(DIMS, new ByteType());
+		final Random random = new Random(0xdeadbeef);
+		for (final ByteType t : in) {
+			t.set((byte) random.nextInt());
+		}
+		final Img<BitType> out =
+			new CellImgFactory<BitType>(5).create(DIMS, new BitType());
+		final Op map = ops.op(Ops.Map.class, out, in, threshold());
+		assertFalse(map instanceof Parallel);
+
+		map.run();
+		final Cursor<ByteType> i = in.cursor();
+		final Cursor<BitType> o = out.cursor();
+		while (i.hasNext()) {
+			assertEquals(i.next().get() > 0, o.next().get());
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Checks that every bit is set iff its input pixel exceeds the threshold. */
+	private void assertMatches(final ImgFactory<BitType> outFactory) {
+		final Img<ByteType> in =
+			new ArrayImgFactory<ByteType>().create(DIMS, new ByteType());
+		final Random random = new Random(0xdeadbeef);
+		for (final ByteType t : in) {
+			t.set((byte) random.nextInt());
+		}
+		final Img<BitType> out = outFactory.create(DIMS, new BitType());
+		// NB: Set all bits, so that stale bits would show up.
+		for (final BitType t : out) {
+			t.set(true);
+		}
+
+		ops.run(MapIterableIntervalToBitsParallel.class, out, in, threshold());
+
+		final Cursor<ByteType> i = in.cursor();
+		final Cursor<BitType> o = out.cursor();
+		while (i.hasNext()) {
+			assertEquals(i.next().get() > 0, o.next().get());
+		}
+	}
+
+	private ComputerOp<ByteType, BitType> threshold() {
+		@SuppressWarnings("unchecked")
+		final ComputerOp<ByteType, BitType> op =
+			(ComputerOp<ByteType, BitType>) ops.op(ApplyThresholdComparable.class,
+				BitType.class, ByteType.class, new ByteType());
+		return op;
+	}
+
+}
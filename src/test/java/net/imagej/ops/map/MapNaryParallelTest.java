@@ -0,0 +1,161 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.map;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import net.imagej.ops.AbstractNaryComputerOp;
+import net.imagej.ops.AbstractOpTest;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.img.Img;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.planar.PlanarImgFactory;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.view.Views;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link MapNaryParallel}.
+ * 
+ * @author agent
+ */
+public class MapNaryParallelTest extends AbstractOpTest {
+
+	private static final long[] DIMS = { 37, 29, 5 };
+
+	@Test
+	public void testTwoInputs() {
+		final Img<ByteType> in1 = create(new ArrayImgFactory<ByteType>(), 1);
+		final Img<ByteType> in2 = create(new PlanarImgFactory<ByteType>(), 2);
+		final Img<IntType> out =
+			new ArrayImgFactory<IntType>().create(DIMS, new IntType());
+
+		ops.map(out, in1, in2, new WeightedSum());
+		assertSums(out, in1, in2);
+	}
+
+	@Test
+	public void testThreeInputs() {
+		final Img<ByteType> in1 = create(new ArrayImgFactory<ByteType>(), 1);
+		final Img<ByteType> in2 = create(new PlanarImgFactory<ByteType>(), 2);
+		final Img<ByteType> in3 = create(new ArrayImgFactory<ByteType>(), 3);
+		final Img<IntType> out =
+			new PlanarImgFactory<IntType>().create(DIMS, new IntType());
+
+		ops.map(out, in1, in2, in3, new WeightedSum());
+		assertSums(out, in1, in2, in3);
+	}
+
+	/** Tests inputs whose iteration order differs from that of the output. */
+	@Test
+	public void testMixedIterationOrders() {
+		final Img<ByteType> in1 = create(new ArrayImgFactory<ByteType>(), 1);
+		final Img<ByteType> in2 = create(new CellImgFactory<ByteType>(4), 2);
+		final Img<ByteType> in3 = create(new PlanarImgFactory<ByteType>(), 3);
+		final Img<ByteType> in4 = create(new CellImgFactory<ByteType>(7), 4);
+		final Img<IntType> out =
+			new ArrayImgFactory<IntType>().create(DIMS, new IntType());
+
+		ops.map(out, in1, in2, in3, in4, new WeightedSum());
+		assertSums(out, in1, in2, in3, in4);
+	}
+
+	/** Tests inputs whose intervals are offset against the output. */
+	@Test
+	public void testOffsetInputs() {
+		final Img<ByteType> in1 = create(new ArrayImgFactory<ByteType>(), 1);
+		final Img<ByteType> in2 = create(new CellImgFactory<ByteType>(4), 2);
+		final Img<IntType> out =
+			new ArrayImgFactory<IntType>().create(DIMS, new IntType());
+
+		ops.map(out, Views.translate(in1, 5, -3, 2), Views.translate(in2, -7, 4,
+			1), new WeightedSum());
+		assertSums(out, in1, in2);
+	}
+
+	// -- Helper methods --
+
+	private Img<ByteType> create(final ImgFactory<ByteType> factory,
+		final int seed)
+	{
+		final Img<ByteType> img = factory.create(DIMS, new ByteType());
+		final Cursor<ByteType> c = img.localizingCursor();
+		while (c.hasNext()) {
+			c.fwd();
+			c.get().set((byte) ((c.getLongPosition(0) * seed +
+				c.getLongPosition(1) + c.getLongPosition(2) * 3) % 10));
+		}
+		return img;
+	}
+
+	private void assertSums(final Img<IntType> out,
+		final Img<ByteType>... inputs)
+	{
+		final Cursor<IntType> c = out.localizingCursor();
+		while (c.hasNext()) {
+			c.fwd();
+			int expected = 0, weight = 1;
+			for (final Img<ByteType> in : inputs) {
+				final RandomAccess<ByteType> ra = in.randomAccess();
+				ra.setPosition(c);
+				expected += weight * ra.get().get();
+				weight *= 10;
+			}
+			assertEquals(expected, c.get().get());
+		}
+	}
+
+	// -- Helper classes --
+
+	/** Sums the inputs, weighted by powers of ten to check their order. */
+	private static class WeightedSum extends
+		AbstractNaryComputerOp<ByteType, IntType>
+	{
+
+		@Override
+		public void compute(final List<ByteType> input, final IntType output) {
+			int sum = 0, weight = 1;
+			for (final ByteType value : input) {
+				sum += weight * value.get();
+				weight *= 10;
+			}
+			output.set(sum);
+		}
+	}
+
+}
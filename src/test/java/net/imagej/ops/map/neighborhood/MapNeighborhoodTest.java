@@ -2,21 +2,27 @@
 package net.imagej.ops.map.neighborhood;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import net.imagej.ops.AbstractComputerOp;
 import net.imagej.ops.AbstractOpTest;
 import net.imagej.ops.Op;
+import net.imagej.ops.Ops;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.img.Img;
 import net.imglib2.type.numeric.integer.ByteType;
 import net.imglib2.util.Pair;
+import net.imglib2.view.Views;
 
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
 /**
- * Test for {@link MapNeighborhood} and {@link MapNeighborhoodWithCenter}.
+ * Test for {@link MapNeighborhood}, {@link MapNeighborhoodWithCenter}, their
+ * tiled counterparts and {@link MapNeighborhoodSliding}.
  *
  * @author Jonathan Hale (University of Konstanz)
  */
@@ -83,6 +89,161 @@ public class MapNeighborhoodTest extends AbstractOpTest {
 		}
 	}
 
+	/**
+	 * Test that images spanning several tiles are mapped tile by tile, with the
+	 * same result as mapping the neighborhoods of the whole image.
+	 *
+	 * @see MapNeighborhoodTiled
+	 * @see MapNeighborhoodWithCenterTiled
+	 */
+	@Test
+	public void testTiledMapsAgree() {
+		final Img<ByteType> img = generateByteTestImg(true, 70, 60, 20);
+		final RandomAccessibleInterval<ByteType> extended =
+			Views.interval(Views.extendMirrorSingle(img), img);
+		final RectangleShape shape = new RectangleShape(1, false);
+		final Img<ByteType> expected = generateByteTestImg(false, 70, 60, 20);
+		final Img<ByteType> actual = generateByteTestImg(false, 70, 60, 20);
+
+		assertTrue(ops.op(Ops.Map.class, actual, extended, new SumNeighbors(),
+			shape) instanceof MapNeighborhoodTiled);
+		ops.run(MapNeighborhood.class, expected, extended, new SumNeighbors(),
+			shape);
+		ops.run(MapNeighborhoodTiled.class, actual, extended, new SumNeighbors(),
+			shape);
+		assertImagesEqual(expected, actual);
+
+		assertTrue(ops.op(Ops.Map.class, actual, extended,
+			new DifferenceToCenter(), shape) instanceof
+			MapNeighborhoodWithCenterTiled);
+		ops.run(MapNeighborhoodWithCenter.class, expected, extended,
+			new DifferenceToCenter(), shape);
+		ops.run(MapNeighborhoodWithCenterTiled.class, actual, extended,
+			new DifferenceToCenter(), shape);
+		assertImagesEqual(expected, actual);
+	}
+
+	/**
+	 * Test that sliding the neighborhoods gives the same result as computing
+	 * each neighborhood from scratch.
+	 *
+	 * @see MapNeighborhoodSliding
+	 */
+	@Test
+	public void testSlidingMapAgrees() {
+		final Img<ByteType> img = generateByteTestImg(true, 15, 12, 7);
+		final RandomAccessibleInterval<ByteType> extended =
+			Views.interval(Views.extendMirrorSingle(img), img);
+		final Img<ByteType> expected = generateByteTestImg(false, 15, 12, 7);
+		final Img<ByteType> actual = generateByteTestImg(false, 15, 12, 7);
+
+		assertTrue(ops.op(Ops.Map.class, actual, extended, new SlidingSum(),
+			new RectangleShape(1, false)) instanceof MapNeighborhoodSliding);
+		for (final RectangleShape shape : new RectangleShape[] {
+			new RectangleShape(2, false), new RectangleShape(1, true) })
+		{
+			ops.run(MapNeighborhoodWithCenter.class, expected, extended,
+				new SlidingSum(), shape);
+			ops.run(MapNeighborhoodSliding.class, actual, extended,
+				new SlidingSum(), shape);
+			assertImagesEqual(expected, actual);
+		}
+	}
+
+	private void assertImagesEqual(final Img<ByteType> expected,
+		final Img<ByteType> actual)
+	{
+		final Cursor<ByteType> e = expected.cursor();
+		final Cursor<ByteType> a = actual.cursor();
+		while (e.hasNext()) {
+			assertEquals(e.next().get(), a.next().get());
+		}
+	}
+
+	/**
+	 * Function which sums the values of the neighborhood.
+	 */
+	private static class SumNeighbors extends
+		AbstractComputerOp<Iterable<ByteType>, ByteType>
+	{
+
+		@Override
+		public void compute(final Iterable<ByteType> input, final ByteType output) {
+			int sum = 0;
+			for (final ByteType b : input) {
+				sum += b.get();
+			}
+			output.set((byte) sum);
+		}
+	}
+
+	/**
+	 * Function which sums the differences of the neighborhood to its center.
+	 */
+	private static class DifferenceToCenter extends
+		AbstractCenterAwareComputerOp<ByteType, ByteType>
+	{
+
+		@Override
+		public void compute(final Pair<ByteType, Iterable<ByteType>> input,
+			final ByteType output)
+		{
+			final int center = input.getA().get();
+			int sum = 0;
+			for (final ByteType b : input.getB()) {
+				sum += b.get() - center;
+			}
+			output.set((byte) sum);
+		}
+	}
+
+	/**
+	 * Function which sums the values of the neighborhood, incrementally.
+	 */
+	private static class SlidingSum extends
+		AbstractCenterAwareComputerOp<ByteType, ByteType> implements
+		SlidingWindowComputerOp<ByteType, ByteType>
+	{
+
+		private int sum;
+
+		@Override
+		public void compute(final Pair<ByteType, Iterable<ByteType>> input,
+			final ByteType output)
+		{
+			clear();
+			for (final ByteType b : input.getB()) {
+				add(b);
+			}
+			computeWindow(input.getA(), output);
+		}
+
+		@Override
+		public void clear() {
+			sum = 0;
+		}
+
+		@Override
+		public void add(final ByteType value) {
+			sum += value.get();
+		}
+
+		@Override
+		public void remove(final ByteType value) {
+			sum -= value.get();
+		}
+
+		@Override
+		public void computeWindow(final ByteType center, final ByteType output) {
+			output.set((byte) sum);
+		}
+
+		@Override
+		public SlidingSum getIndependentInstance() {
+			return new SlidingSum();
+		}
+	}
+
 	/**
 	 * Function which increments the output value for every pixel in the
 	 * neighborhood.
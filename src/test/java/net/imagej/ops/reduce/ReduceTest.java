@@ -0,0 +1,111 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.reduce;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CancellationException;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.stats.RealReducers.Moments;
+import net.imagej.ops.stats.RealReducers.MomentsReducer;
+import net.imagej.ops.stats.RealReducers.SumReducer;
+import net.imagej.ops.thread.ExecutionContext;
+import net.imagej.ops.thread.TaskMonitor;
+import net.imglib2.img.Img;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.real.DoubleType;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ReduceIterable} and {@link ReduceIterableIntervalParallel}.
+ * 
+ * @author agent
+ */
+public class ReduceTest extends AbstractOpTest {
+
+	@Test
+	public void testSum() {
+		final Img<ByteType> image = generateByteTestImg(true, 512, 256);
+
+		double expected = 0;
+		for (final ByteType t : image) {
+			expected += t.get();
+		}
+
+		final DoubleType parallel = ops.reduce(image, new SumReducer<ByteType>());
+		assertEquals(expected, parallel.get(), 0.0);
+
+		final DoubleType serial =
+			ops.reduce((Iterable<ByteType>) image, new SumReducer<ByteType>());
+		assertEquals(expected, serial.get(), 0.0);
+	}
+
+	@Test
+	public void testMoments() {
+		final Img<ByteType> image = generateByteTestImg(true, 512, 256);
+
+		double sum = 0;
+		for (final ByteType t : image) {
+			sum += t.get();
+		}
+		final double mean = sum / image.size();
+		double m2 = 0;
+		for (final ByteType t : image) {
+			m2 += (t.get() - mean) * (t.get() - mean);
+		}
+
+		final Moments moments =
+			ops.reduce(image, new MomentsReducer<ByteType>());
+		assertEquals(image.size(), moments.getCount());
+		assertEquals(mean, moments.getMean(), 1e-10);
+		assertEquals(m2 / image.size(), moments.getVariance(), 1e-8);
+		assertEquals(m2 / (image.size() - 1), moments.getSampleVariance(), 1e-8);
+	}
+
+	/** Tests that a canceled reduction fails instead of returning partials. */
+	@Test(expected = CancellationException.class)
+	public void testCanceled() {
+		final Img<ByteType> image = generateByteTestImg(true, 512, 256);
+		final TaskMonitor monitor = new TaskMonitor();
+		monitor.cancel("Stop");
+
+		ExecutionContext.current().withMonitor(monitor).run(new Runnable() {
+
+			@Override
+			public void run() {
+				ops.reduce(image, new SumReducer<ByteType>());
+			}
+		});
+	}
+
+}
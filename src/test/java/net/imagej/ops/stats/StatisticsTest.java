@@ -30,7 +30,10 @@
 
 package net.imagej.ops.stats;
 
+import java.util.Arrays;
+
 import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.stats.median.MedianRealType;
 import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.basictypeaccess.array.FloatArray;
 import net.imglib2.type.numeric.real.DoubleType;
@@ -138,4 +141,27 @@ public class StatisticsTest extends AbstractOpTest {
 		// check that the ratio between std1 and std2 is 1.0
 		Assert.assertEquals(1.0, std1 / std2.getRealFloat(), delta);
 	}
+
+	@Test
+	public void MedianQuantileTest() {
+		final float[] sorted = array.clone();
+		Arrays.sort(sorted);
+
+		// calculate median and quantiles using ops
+		final FloatType median = new FloatType();
+		ops.stats().median(median, img);
+		Assert.assertEquals(sorted[sorted.length / 2], median.get(), 0);
+		for (final double q : new double[] { 0, 0.25, 1 }) {
+			final FloatType quantile = new FloatType();
+			ops.stats().quantile(quantile, img, q);
+			final int rank = Math.min(sorted.length - 1, (int) (q * sorted.length));
+			Assert.assertEquals(sorted[rank], quantile.get(), 0);
+		}
+
+		// reuse the samples of one instance for a smaller input
+		final MedianRealType<FloatType> op = new MedianRealType<FloatType>();
+		op.compute(img, median);
+		op.compute(generateFloatArrayTestImg(false, 3), median);
+		Assert.assertEquals(0, median.get(), 0);
+	}
 }
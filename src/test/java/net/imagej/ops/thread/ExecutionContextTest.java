@@ -0,0 +1,144 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.thread.ExecutionContext.Nesting;
+import net.imagej.ops.thread.chunker.Chunk;
+import net.imagej.ops.thread.chunker.ChunkerDynamic;
+import net.imagej.ops.thread.chunker.DefaultChunker;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ExecutionContext}.
+ * 
+ * @author agent
+ */
+public class ExecutionContextTest extends AbstractOpTest {
+
+	/** Tests the parallelism of nested contexts, per nesting policy. */
+	@Test
+	public void testNesting() {
+		assertEquals(8, new ExecutionContext(null, 8, Nesting.UNLIMITED).nested(4)
+			.getParallelism());
+		assertEquals(2, new ExecutionContext(null, 8, Nesting.SHARED).nested(4)
+			.getParallelism());
+		assertEquals(1, new ExecutionContext(null, 8, Nesting.SHARED).nested(8)
+			.nested(8).getParallelism());
+		assertEquals(1, new ExecutionContext(null, 8, Nesting.OUTERMOST)
+			.nested(2).getParallelism());
+	}
+
+	/** Tests that chunkers honor the current context. */
+	@Test
+	public void testChunker() {
+		final ExecutorService executor = Executors.newCachedThreadPool();
+		final Set<Thread> threads =
+			Collections.synchronizedSet(new HashSet<Thread>());
+		final Set<Integer> nestedParallelism =
+			Collections.synchronizedSet(new HashSet<Integer>());
+
+		new ExecutionContext(executor, 2, Nesting.OUTERMOST).run(new Runnable() {
+
+			@Override
+			public void run() {
+				ops.run(ChunkerDynamic.class, new Chunk() {
+
+					@Override
+					public void execute(final int startIndex, final int stepSize,
+						final int numSteps)
+					{
+						threads.add(Thread.currentThread());
+						nestedParallelism.add(ExecutionContext.current()
+							.getParallelism());
+					}
+				}, 100000);
+			}
+		});
+		executor.shutdown();
+
+		assertTrue(threads.size() <= 2);
+		assertEquals(Collections.singleton(1), nestedParallelism);
+		assertEquals(Runtime.getRuntime().availableProcessors(), ExecutionContext
+			.current().getParallelism());
+	}
+
+	/**
+	 * Tests that nested parallel ops complete on a bounded executor, whose
+	 * threads are all taken by the outer op.
+	 */
+	@Test(timeout = 60000)
+	public void testNestedOnFixedPool() {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		final AtomicLong count = new AtomicLong();
+
+		new ExecutionContext(executor, 4, Nesting.UNLIMITED).run(new Runnable() {
+
+			@Override
+			public void run() {
+				ops.run(DefaultChunker.class, new Chunk() {
+
+					@Override
+					public void execute(final int startIndex, final int stepSize,
+						final int numSteps)
+					{
+						for (int i = 0; i < numSteps; i++) {
+							ops.run(DefaultChunker.class, new Chunk() {
+
+								@Override
+								public void execute(final int start, final int step,
+									final int steps)
+								{
+									count.addAndGet(steps);
+								}
+							}, 100);
+						}
+					}
+				}, 16);
+			}
+		});
+		executor.shutdown();
+
+		assertEquals(16 * 100, count.get());
+	}
+
+}
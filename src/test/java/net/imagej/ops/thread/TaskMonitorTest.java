@@ -0,0 +1,191 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.thread.ExecutionContext.Nesting;
+import net.imagej.ops.thread.chunker.ChunkerDynamic;
+import net.imagej.ops.thread.chunker.ChunkerOp;
+import net.imagej.ops.thread.chunker.LongChunk;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link TaskMonitor}.
+ * 
+ * @author agent
+ */
+public class TaskMonitorTest extends AbstractOpTest {
+
+	private static final long SIZE = 1000000;
+
+	/** Tests that canceling the task stops all workers of a chunker. */
+	@Test
+	public void testCancel() {
+		final TaskMonitor task = new TaskMonitor();
+		final AtomicLong processed = new AtomicLong();
+
+		final ChunkerOp chunker = run(task, new CountingChunk(processed) {
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				if (startIndex > 0) task.cancel("Navigated away");
+				super.execute(startIndex, stepSize, numSteps);
+			}
+		});
+
+		assertTrue(chunker.isCanceled());
+		assertEquals("Navigated away", chunker.getCancelReason());
+		assertTrue(processed.get() < SIZE);
+	}
+
+	/** Tests that a chunker canceled before it runs processes nothing. */
+	@Test
+	public void testCancelBeforeRun() {
+		final AtomicLong processed = new AtomicLong();
+		final ChunkerOp chunker =
+			ops.op(ChunkerDynamic.class, new CountingChunk(processed), SIZE);
+		chunker.cancel("Canceled early");
+
+		new ExecutionContext(null, 4, Nesting.SHARED).withMonitor(
+			new TaskMonitor()).run(chunker);
+
+		assertTrue(chunker.isCanceled());
+		assertEquals("Canceled early", chunker.getCancelReason());
+		assertEquals(0, processed.get());
+	}
+
+	/** Tests that canceling a chunker does not cancel the task. */
+	@Test
+	public void testCancelChild() {
+		final TaskMonitor parent = new TaskMonitor();
+		final TaskMonitor child = new TaskMonitor(parent);
+		child.cancel("first");
+		child.cancel("second");
+		assertTrue(child.isCanceled());
+		assertEquals("first", child.getCancelReason());
+		assertFalse(parent.isCanceled());
+
+		parent.cancel("parent");
+		assertEquals("parent", new TaskMonitor(parent).getCancelReason());
+	}
+
+	/** Tests that a timeout cancels the task. */
+	@Test
+	public void testTimeout() throws InterruptedException {
+		final TaskMonitor task = new TaskMonitor();
+		task.setTimeout(10, TimeUnit.MILLISECONDS);
+		final long end = System.currentTimeMillis() + 5000;
+		while (!task.isCanceled() && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+		assertTrue(task.isCanceled());
+	}
+
+	/** Tests that a task which is done no longer times out. */
+	@Test
+	public void testTimeoutDone() throws InterruptedException {
+		final TaskMonitor task = new TaskMonitor();
+		task.setTimeout(10, TimeUnit.MILLISECONDS);
+		task.done();
+		Thread.sleep(100);
+		assertFalse(task.isCanceled());
+	}
+
+	/** Tests that the outermost chunker reports its progress. */
+	@Test
+	public void testProgress() {
+		final TaskMonitor task = new TaskMonitor();
+		final AtomicLong processed = new AtomicLong();
+
+		run(task, new CountingChunk(processed));
+
+		assertEquals(SIZE, processed.get());
+		assertEquals(SIZE, task.getWorkTotal());
+		assertEquals(SIZE, task.getWorkDone());
+		assertEquals(1, task.getProgress(), 0);
+	}
+
+	// -- Helper methods --
+
+	private ChunkerOp run(final TaskMonitor task, final LongChunk chunk) {
+		final ChunkerOp[] chunker = new ChunkerOp[1];
+		new ExecutionContext(null, 4, Nesting.SHARED).withMonitor(task).run(
+			new Runnable() {
+
+				@Override
+				public void run() {
+					chunker[0] = ops.op(ChunkerDynamic.class, chunk, SIZE);
+					chunker[0].run();
+				}
+			});
+		return chunker[0];
+	}
+
+	// -- Helper classes --
+
+	/** Chunk counting the elements it processes, while polling the task. */
+	private static class CountingChunk implements LongChunk {
+
+		private final AtomicLong processed;
+
+		public CountingChunk(final AtomicLong processed) {
+			this.processed = processed;
+		}
+
+		@Override
+		public void execute(final long startIndex, final long stepSize,
+			final long numSteps)
+		{
+			final TaskMonitor monitor = ExecutionContext.current().getMonitor();
+			for (long i = 0; i < numSteps && !monitor.isCanceled(); i++) {
+				processed.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void execute(final int startIndex, final int stepSize,
+			final int numSteps)
+		{
+			execute((long) startIndex, stepSize, numSteps);
+		}
+	}
+
+}
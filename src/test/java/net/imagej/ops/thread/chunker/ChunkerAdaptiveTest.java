@@ -0,0 +1,153 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread.chunker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import net.imagej.ops.AbstractOpTest;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ChunkerAdaptive}.
+ * 
+ * @author agent
+ */
+public class ChunkerAdaptiveTest extends AbstractOpTest {
+
+	/** Tests that few cheap elements are processed on the calling thread. */
+	@Test
+	public void testSerial() {
+		final CountingChunk chunk = new CountingChunk(1000, 0);
+		final ChunkerOp chunker = ops.op(ChunkerAdaptive.class, chunk, 1000);
+		chunker.run();
+
+		assertFalse(chunker.isCanceled());
+		chunk.assertEachElementOnce();
+		assertEquals(Collections.singleton(Thread.currentThread()), chunk.threads);
+		assertTrue(ChunkCosts.get(chunk) >= 0);
+	}
+
+	/** Tests that expensive elements are all processed, in chunks. */
+	@Test
+	public void testExpensive() {
+		final CountingChunk chunk = new CountingChunk(2000, 20000);
+		final ChunkerOp chunker = ops.op(ChunkerAdaptive.class, chunk, 2000);
+		chunker.run();
+
+		assertFalse(chunker.isCanceled());
+		chunk.assertEachElementOnce();
+		if (Runtime.getRuntime().availableProcessors() > 1) {
+			assertTrue(chunk.threads.size() > 1);
+		}
+	}
+
+	/** Tests that an empty input is handled without processing anything. */
+	@Test
+	public void testEmpty() {
+		final CountingChunk chunk = new CountingChunk(0, 0);
+		final ChunkerOp chunker = ops.op(ChunkerAdaptive.class, chunk, 0);
+		chunker.run();
+
+		assertFalse(chunker.isCanceled());
+		assertTrue(chunk.threads.isEmpty());
+	}
+
+	/** Tests that costs are estimated per op applied by a chunk. */
+	@Test
+	public void testCostPerOp() {
+		final Object cheap = new Object();
+		final Object expensive = Thread.currentThread();
+		ChunkCosts.update(new OpChunk(cheap), 1000, 1000);
+		ChunkCosts.update(new OpChunk(expensive), 1000, 1000000);
+		assertEquals(1.0, ChunkCosts.get(new OpChunk(cheap)), 0.0);
+		assertEquals(1000.0, ChunkCosts.get(new OpChunk(expensive)), 0.0);
+	}
+
+	// -- Helper classes --
+
+	/** A chunk which applies the given "op", by doing nothing. */
+	private static class OpChunk extends AbstractLongChunk {
+
+		public OpChunk(final Object op) {
+			super(op);
+		}
+
+		@Override
+		public void execute(final long startIndex, final long stepSize,
+			final long numSteps)
+		{
+			// NB: No action needed.
+		}
+	}
+
+	/** A chunk which counts how often each element is processed. */
+	private static class CountingChunk implements Chunk {
+
+		private final AtomicIntegerArray counts;
+		private final long nanosPerElement;
+		private final Set<Thread> threads =
+			Collections.synchronizedSet(new HashSet<Thread>());
+
+		public CountingChunk(final int size, final long nanosPerElement) {
+			counts = new AtomicIntegerArray(size);
+			this.nanosPerElement = nanosPerElement;
+		}
+
+		@Override
+		public void execute(final int startIndex, final int stepSize,
+			final int numSteps)
+		{
+			threads.add(Thread.currentThread());
+			for (int i = 0; i < numSteps; i++) {
+				final long end = System.nanoTime() + nanosPerElement;
+				while (System.nanoTime() < end) {
+					// NB: Simulate work.
+				}
+				counts.incrementAndGet(startIndex + i * stepSize);
+			}
+		}
+
+		public void assertEachElementOnce() {
+			for (int i = 0; i < counts.length(); i++) {
+				assertEquals(1, counts.get(i));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread.chunker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import net.imagej.ops.AbstractOpTest;
+import net.imglib2.IterableInterval;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.cell.CellImg;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.planar.PlanarImgFactory;
+import net.imglib2.type.numeric.integer.ByteType;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ChunkerBlockwise}.
+ * 
+ * @author agent
+ */
+public class ChunkerBlockwiseTest extends AbstractOpTest {
+
+	/** Tests that chunks of a cell image consist of whole cells. */
+	@Test
+	public void testCellImg() {
+		final Img<ByteType> img =
+			new CellImgFactory<ByteType>(4).create(new long[] { 200, 200 },
+				new ByteType());
+		final AtomicIntegerArray counts = chunk(img);
+		for (int i = 0; i < counts.length(); i++) {
+			assertEquals(1, counts.get(i));
+		}
+	}
+
+	/** Tests chunking of a planar image. */
+	@Test
+	public void testPlanarImg() {
+		final Img<ByteType> img =
+			new PlanarImgFactory<ByteType>().create(new long[] { 10, 10, 7 },
+				new ByteType());
+		final AtomicIntegerArray counts = chunk(img);
+		for (int i = 0; i < counts.length(); i++) {
+			assertEquals(1, counts.get(i));
+		}
+	}
+
+	/** Tests chunking of an image without storage blocks. */
+	@Test
+	public void testArrayImg() {
+		final Img<ByteType> img =
+			new ArrayImgFactory<ByteType>().create(new long[] { 123, 45 },
+				new ByteType());
+		final AtomicIntegerArray counts = chunk(img);
+		for (int i = 0; i < counts.length(); i++) {
+			assertEquals(1, counts.get(i));
+		}
+	}
+
+	/** Tests {@link ChunkerBlockwise#isBlocked}. */
+	@Test
+	public void testIsBlocked() {
+		final long[] dims = { 10, 10, 7 };
+		assertTrue(ChunkerBlockwise.isBlocked(new CellImgFactory<ByteType>(4)
+			.create(dims, new ByteType())));
+		assertTrue(ChunkerBlockwise.isBlocked(new PlanarImgFactory<ByteType>()
+			.create(dims, new ByteType())));
+		assertFalse(ChunkerBlockwise.isBlocked(new ArrayImgFactory<ByteType>()
+			.create(dims, new ByteType())));
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Chunks the given image, checking that no chunk of a cell image with 4x4
+	 * cells starts in the middle of a cell.
+	 * 
+	 * @return how often each element was processed
+	 */
+	private AtomicIntegerArray chunk(final IterableInterval<?> img) {
+		final boolean cells = img instanceof CellImg;
+		final AtomicIntegerArray counts =
+			new AtomicIntegerArray((int) img.size());
+		final ChunkerOp chunker =
+			ops.op(ChunkerBlockwise.class, new LongChunk() {
+
+				@Override
+				public void execute(final int startIndex, final int stepSize,
+					final int numSteps)
+				{
+					execute((long) startIndex, (long) stepSize, (long) numSteps);
+				}
+
+				@Override
+				public void execute(final long startIndex, final long stepSize,
+					final long numSteps)
+				{
+					if (cells) assertEquals(0, startIndex % 16);
+					for (long i = 0; i < numSteps; i++) {
+						counts.incrementAndGet((int) (startIndex + i * stepSize));
+					}
+				}
+			}, img.size(), img);
+		chunker.run();
+		assertFalse(chunker.isCanceled());
+		return counts;
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * #%L
+ * ImageJ software for multidimensional image processing and analysis.
+ * %%
+ * Copyright (C) 2014 - 2015 Board of Regents of the University of
+ * Wisconsin-Madison, University of Konstanz and Brian Northan.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imagej.ops.thread.chunker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.imagej.ops.AbstractOpTest;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ChunkerDynamic}.
+ * 
+ * @author agent
+ */
+public class ChunkerDynamicTest extends AbstractOpTest {
+
+	/** Tests that each element is processed exactly once. */
+	@Test
+	public void testEachElementOnce() {
+		final int size = 100003;
+		final AtomicIntegerArray counts = new AtomicIntegerArray(size);
+		final ChunkerOp chunker = ops.op(ChunkerDynamic.class, new LongChunk() {
+
+			@Override
+			public void execute(final int startIndex, final int stepSize,
+				final int numSteps)
+			{
+				execute((long) startIndex, (long) stepSize, (long) numSteps);
+			}
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				for (long i = 0; i < numSteps; i++) {
+					final int index = (int) (startIndex + i * stepSize);
+					// NB: Make the cost per element uneven.
+					if (index % 1000 == 0) Thread.yield();
+					counts.incrementAndGet(index);
+				}
+			}
+		}, size);
+		chunker.run();
+
+		assertFalse(chunker.isCanceled());
+		for (int i = 0; i < size; i++) {
+			assertEquals(1, counts.get(i));
+		}
+	}
+
+	/** Tests chunking of more than {@link Integer#MAX_VALUE} elements. */
+	@Test
+	public void testLongIndices() {
+		final long size = 3L * Integer.MAX_VALUE / 2;
+		final AtomicLong count = new AtomicLong();
+		final AtomicLong end = new AtomicLong();
+		final ChunkerOp chunker = ops.op(ChunkerDynamic.class, new LongChunk() {
+
+			@Override
+			public void execute(final int startIndex, final int stepSize,
+				final int numSteps)
+			{
+				execute((long) startIndex, (long) stepSize, (long) numSteps);
+			}
+
+			@Override
+			public void execute(final long startIndex, final long stepSize,
+				final long numSteps)
+			{
+				count.addAndGet(numSteps);
+				final long last = startIndex + stepSize * (numSteps - 1);
+				synchronized (end) {
+					if (last + 1 > end.get()) end.set(last + 1);
+				}
+			}
+		}, size);
+		chunker.run();
+
+		assertFalse(chunker.isCanceled());
+		assertEquals(size, count.get());
+		assertEquals(size, end.get());
+	}
+
+	/** Tests that int-indexed chunks are not fed indices which overflow. */
+	@Test
+	public void testIntChunkOutOfRange() {
+		final ChunkerOp chunker = ops.op(ChunkerDynamic.class, new Chunk() {
+
+			@Override
+			public void execute(final int startIndex, final int stepSize,
+				final int numSteps)
+			{
+				assertTrue(startIndex >= 0);
+			}
+		}, 3L * Integer.MAX_VALUE / 2);
+		chunker.run();
+
+		assertTrue(chunker.isCanceled());
+	}
+
+}
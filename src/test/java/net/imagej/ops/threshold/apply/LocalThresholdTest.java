@@ -35,6 +35,8 @@ import static org.junit.Assert.assertEquals;
 import java.util.Arrays;
 
 import net.imagej.ops.AbstractOpTest;
+import net.imagej.ops.map.neighborhood.MapNeighborhoodSliding;
+import net.imagej.ops.map.neighborhood.MapNeighborhoodWithCenter;
 import net.imagej.ops.threshold.LocalThresholdMethod;
 import net.imagej.ops.threshold.ThresholdNamespace;
 import net.imagej.ops.threshold.localBernsen.LocalBernsen;
@@ -43,6 +45,8 @@ import net.imagej.ops.threshold.localMean.LocalMean;
 import net.imagej.ops.threshold.localMedian.LocalMedian;
 import net.imagej.ops.threshold.localMidGrey.LocalMidGrey;
 import net.imagej.ops.threshold.localNiblack.LocalNiblack;
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
 import net.imglib2.algorithm.neighborhood.RectangleShape;
 import net.imglib2.img.Img;
 import net.imglib2.outofbounds.OutOfBoundsMirrorFactory;
@@ -51,6 +55,7 @@ import net.imglib2.type.logic.BitType;
 import net.imglib2.type.numeric.integer.ByteType;
 import net.imglib2.util.Pair;
 import net.imglib2.util.ValuePair;
+import net.imglib2.view.Views;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -195,4 +200,35 @@ public class LocalThresholdTest extends AbstractOpTest {
 		assertEquals(out.firstElement().get(), true);
 	}
 
+	/**
+	 * Tests that sliding the neighborhood of {@link LocalNiblack} over the image
+	 * gives the same result as computing each neighborhood from scratch.
+	 * 
+	 * @see MapNeighborhoodSliding
+	 */
+	@Test
+	public void testSlidingLocalNiblack() {
+		final Img<ByteType> img = generateByteTestImg(true, 67, 13);
+		final RandomAccessibleInterval<ByteType> extended =
+			Views.interval(Views.extendMirrorSingle(img), img);
+		final Img<BitType> expected =
+			img.factory().imgFactory(new BitType()).create(img, new BitType());
+		final Img<BitType> actual =
+			img.factory().imgFactory(new BitType()).create(img, new BitType());
+		final LocalThresholdMethod<ByteType> niblack =
+			ops.op(LocalNiblack.class, BitType.class,
+				new ValuePair<ByteType, Iterable<ByteType>>(null, null), 1.0, 0.5);
+
+		ops.run(MapNeighborhoodWithCenter.class, expected, extended, niblack,
+			new RectangleShape(2, false));
+		ops.run(MapNeighborhoodSliding.class, actual, extended, niblack,
+			new RectangleShape(2, false));
+
+		final Cursor<BitType> e = expected.cursor();
+		final Cursor<BitType> a = actual.cursor();
+		while (e.hasNext()) {
+			assertEquals(e.next().get(), a.next().get());
+		}
+	}
+
 }